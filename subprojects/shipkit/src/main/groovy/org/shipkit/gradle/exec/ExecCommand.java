@@ -20,6 +20,7 @@ public class ExecCommand {
     private final Action<ExecSpec> setupAction;
     private final Action<ExecResult> resultAction;
     private final String loggingPrefix;
+    private final boolean independent;
 
     /**
      * Generic command line to be executed
@@ -31,11 +32,27 @@ public class ExecCommand {
      * @param resultAction action that is triggered after the command line was executed
      */
     public ExecCommand(String loggingPrefix, String description, Collection<String> commandLine, Action<ExecSpec> setupAction, Action<ExecResult> resultAction) {
+        this(loggingPrefix, description, commandLine, setupAction, resultAction, false);
+    }
+
+    /**
+     * Generic command line to be executed
+     *
+     * @param loggingPrefix see {@link #getLoggingPrefix()}
+     * @param description human readable description of the command
+     * @param commandLine command line to be executed
+     * @param setupAction action that configures the command line execution
+     * @param resultAction action that is triggered after the command line was executed
+     * @param independent see {@link #isIndependent()}
+     */
+    public ExecCommand(String loggingPrefix, String description, Collection<String> commandLine, Action<ExecSpec> setupAction,
+                       Action<ExecResult> resultAction, boolean independent) {
         this.loggingPrefix = loggingPrefix;
         this.description = description;
         this.commandLine = commandLine;
         this.setupAction = setupAction;
         this.resultAction = resultAction;
+        this.independent = independent;
     }
 
     /**
@@ -72,4 +89,14 @@ public class ExecCommand {
     public String getLoggingPrefix() {
         return loggingPrefix;
     }
+
+    /**
+     * Independent command does not depend on the outcome of neighbouring independent commands.
+     * Consecutive independent commands are executed concurrently, see {@link ShipkitExecTask#getMaxParallelCommands()}.
+     * Their result actions are triggered in the order of the commands, after all of them completed.
+     * False by default.
+     */
+    public boolean isIndependent() {
+        return independent;
+    }
 }
@@ -5,7 +5,9 @@ import org.gradle.api.tasks.TaskAction;
 import org.shipkit.internal.gradle.exec.ShipkitExec;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedList;
+import java.util.List;
 
 /**
  * Generic Gradle task that has few advantages over Gradle's stock Exec task.
@@ -15,17 +17,20 @@ import java.util.LinkedList;
 public class ShipkitExecTask extends DefaultTask {
 
     private Collection<ExecCommand> execCommands = new LinkedList<>();
+    private int maxParallelCommands = Runtime.getRuntime().availableProcessors();
+    private List<String> secretValues = Collections.emptyList();
 
     /**
      * Executes all commands
      */
     @TaskAction public void execCommands() {
-        new ShipkitExec().execCommands(this.getExecCommands(), this.getProject(), null);
+        new ShipkitExec().setSecretValues(secretValues).execCommands(this.getExecCommands(), this.getProject(), null, maxParallelCommands);
     }
 
     /**
      * Sequence of command line executions.
-     * Will be executed sequentially in given order.
+     * Will be executed sequentially in given order,
+     * except consecutive commands marked as {@link ExecCommand#isIndependent()} which are executed concurrently.
      */
     public Collection<ExecCommand> getExecCommands() {
         return execCommands;
@@ -38,6 +43,36 @@ public class ShipkitExecTask extends DefaultTask {
         this.execCommands = execCommands;
     }
 
+    /**
+     * Maximum number of independent commands executed at the same time, see {@link ExecCommand#isIndependent()}.
+     * By default, the number of available processors.
+     */
+    public int getMaxParallelCommands() {
+        return maxParallelCommands;
+    }
+
+    /**
+     * See {@link #getMaxParallelCommands()}
+     */
+    public void setMaxParallelCommands(int maxParallelCommands) {
+        this.maxParallelCommands = maxParallelCommands;
+    }
+
+    /**
+     * Values masked in the logged command lines and in the process metrics report, e.g. tokens passed as arguments.
+     * Empty by default.
+     */
+    public List<String> getSecretValues() {
+        return secretValues;
+    }
+
+    /**
+     * See {@link #getSecretValues()}
+     */
+    public void setSecretValues(List<String> secretValues) {
+        this.secretValues = secretValues;
+    }
+
     /**
      * Appends single exec command to the task
      */
@@ -25,6 +25,7 @@ public class GitCommitTask extends DefaultTask {
     @Input String gitUserEmail;
     @Input String commitMessagePostfix;
     @Input @Optional File workingDir;
+    @Input boolean plumbingCommit;
 
     @TaskAction public void commit() {
         new GitCommitImpl().commit(this);
@@ -118,4 +119,23 @@ public class GitCommitTask extends DefaultTask {
     public void setWorkingDir(File workingDir) {
         this.workingDir = workingDir;
     }
+
+    /**
+     * Whether the commit is created with git plumbing commands ('git update-index', 'git write-tree',
+     * 'git commit-tree' and 'git update-ref') instead of 'git add' and 'git commit'.
+     * The commit is the same but git does not compute the summary of changed files,
+     * which is noticeably faster for large generated trees, e.g. Javadoc. Commit hooks are not executed.
+     * Requires git 2.26 or newer, with older git 'git add' and 'git commit' are used.
+     * False by default.
+     */
+    public boolean isPlumbingCommit() {
+        return plumbingCommit;
+    }
+
+    /**
+     * See {@link #isPlumbingCommit()}
+     */
+    public void setPlumbingCommit(boolean plumbingCommit) {
+        this.plumbingCommit = plumbingCommit;
+    }
 }
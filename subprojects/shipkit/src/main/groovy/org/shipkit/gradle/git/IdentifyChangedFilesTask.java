@@ -0,0 +1,92 @@
+package org.shipkit.gradle.git;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.TaskAction;
+import org.shipkit.internal.exec.Exec;
+import org.shipkit.internal.gradle.git.domain.ChangedFiles;
+import org.shipkit.internal.gradle.git.tasks.IdentifyChangedFiles;
+import org.shipkit.internal.notes.util.IOUtil;
+
+import java.io.File;
+
+/**
+ * Identifies files changed in the working copy since given git revision, typically the tag of the previous release,
+ * and writes the result to {@link #getChangedFilesFile()}.
+ * Changes that are not committed yet and untracked files are included, too.
+ * The task is never up-to-date because the working copy is not its input.
+ */
+public class IdentifyChangedFilesTask extends DefaultTask {
+
+    private File workDir = getProject().getRootDir();
+    private String revision;
+    @OutputFile private File changedFilesFile;
+    private ChangedFiles changedFiles;
+
+    public IdentifyChangedFilesTask() {
+        getOutputs().upToDateWhen(t -> false);
+    }
+
+    @TaskAction public void identifyChangedFiles() {
+        changedFiles = new IdentifyChangedFiles(Exec.getProcessRunner(workDir)).identifyChangedFiles(revision);
+        if (changedFiles != null) {
+            changedFiles.write(changedFilesFile);
+        } else {
+            //empty file means that the changes are not known
+            IOUtil.writeFile(changedFilesFile, "");
+        }
+    }
+
+    /**
+     * Files changed since {@link #getRevision()}.
+     * Null when the task was not executed yet or when the changes could not be identified,
+     * for example because the revision does not exist in the repository (shallow clone, first release).
+     */
+    public ChangedFiles getChangedFiles() {
+        return changedFiles;
+    }
+
+    /**
+     * File with the files changed since {@link #getRevision()}, see {@link ChangedFiles#read(File)}.
+     * Tasks that need to know the changes read this file, e.g. using {@link org.shipkit.internal.gradle.git.domain.ProjectChanges}.
+     * The file is empty when the changes could not be identified.
+     */
+    public File getChangedFilesFile() {
+        return changedFilesFile;
+    }
+
+    /**
+     * See {@link #getChangedFilesFile()}
+     */
+    public void setChangedFilesFile(File changedFilesFile) {
+        this.changedFilesFile = changedFilesFile;
+    }
+
+    /**
+     * Git revision to compare the working copy with, for example "v1.0.0"
+     */
+    public String getRevision() {
+        return revision;
+    }
+
+    /**
+     * See {@link #getRevision()}
+     */
+    public void setRevision(String revision) {
+        this.revision = revision;
+    }
+
+    /**
+     * Working dir where git commands are executed
+     */
+    public File getWorkDir() {
+        return workDir;
+    }
+
+    /**
+     * See {@link #getWorkDir()}
+     */
+    public void setWorkDir(File workDir) {
+        this.workDir = workDir;
+    }
+}
@@ -2,15 +2,30 @@ package org.shipkit.gradle.java;
 
 import org.gradle.api.DefaultTask;
 import org.gradle.api.tasks.Input;
-import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.CacheableTask;
 import org.gradle.api.tasks.Optional;
 import org.gradle.api.tasks.OutputFile;
 import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.TaskState;
 import org.gradle.api.tasks.bundling.Jar;
+import org.gradle.workers.IsolationMode;
+import org.gradle.workers.WorkerExecutor;
 import org.shipkit.gradle.release.ReleaseNeededTask;
+import org.shipkit.internal.comparison.HashManifest;
+import org.shipkit.internal.gradle.git.domain.ProjectChanges;
 import org.shipkit.internal.gradle.java.tasks.ComparePublications;
+import org.shipkit.internal.gradle.java.tasks.ComparePublicationsAction;
+import org.shipkit.internal.gradle.java.tasks.ComparePublicationsParameters;
+import org.shipkit.internal.util.HashUtil;
 
+import javax.inject.Inject;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Compares source jars and produces output file with diff.
@@ -19,17 +34,74 @@ import java.io.File;
  * <p>
  * The outputs of this task are used by {@link ReleaseNeededTask} to avoid unnecessary release if nothing has changed.
  * The {@link #getComparisonResult()} should be added to {@link ReleaseNeededTask#getComparisonResults()}.
+ * <p>
+ * The task is cacheable. Its inputs are content hashes of the jars (see {@link HashManifest})
+ * so the results are reused even if jars are rebuilt with different timestamps or located in different directories.
+ * <p>
+ * By default the sources jars are compared. See {@link #getComparisonMode()} for comparison of compiled classes.
+ * <p>
+ * The comparison runs in a Gradle worker which writes the results, the task action only schedules it.
+ * Gradle can then run other tasks while publications are compared.
  */
+@CacheableTask
 public class ComparePublicationsTask extends DefaultTask {
 
     @OutputFile private File comparisonResult;
 
-    @InputFiles private Jar sourcesJar;
+    @OutputFile @Optional private File comparisonSummary;
+
+    //Files below are not inputs on purpose. Their paths are different on every machine
+    // which would prevent reusing the results from the build cache.
+    // Instead, normalized content hashes of the files are inputs, see the getters annotated with @Input.
+    @Internal private Jar sourcesJar;
+
+    @Internal private File previousSourcesJar;
+
+    @Internal private File previousSourcesHashes;
+
+    @Input @Optional private String previousSourcesJarUrl;
+
+    @Internal private File artifactCacheDir;
+
+    @Input private boolean anyChange;
+
+    @Internal private AtomicBoolean differenceFound;
 
-    //Not using @InputFile annotation on purpose below. @InputFile makes Gradle fail early
-    // when the file path specified but file does not exist (@Optional does not help).
-    // Using @Input is enough for this use case
-    @Input @Optional private File previousSourcesJar;
+    @Internal private ProjectChanges projectChanges;
+
+    @Input private ComparisonMode comparisonMode = ComparisonMode.SOURCES;
+
+    @Internal private Jar binaryJar;
+
+    @Internal private File previousBinaryJar;
+
+    @Input @Optional private String previousBinaryJarUrl;
+
+    //Gradle queries the inputs more than once, manifests of the jars are computed once
+    private final ManifestHolder sourcesJarManifest = new ManifestHolder();
+    private final ManifestHolder binaryJarManifest = new ManifestHolder();
+    private final ManifestHolder previousSourcesJarManifest = new ManifestHolder();
+
+    /**
+     * What is compared to find out if the publication changed
+     */
+    public enum ComparisonMode {
+        /**
+         * Content of the sources jars is compared
+         */
+        SOURCES,
+        /**
+         * Compiled classes are compared, ignoring differences that do not change the bytecode,
+         * e.g. timestamps, debug information or the order of the constant pool.
+         * Other files in the jar are compared by content.
+         */
+        BYTECODE,
+        /**
+         * Only the public API of the compiled classes is compared: public classes, their public and protected members
+         * with signatures, constant values and runtime visible annotations. Method bodies and other files are not compared.
+         */
+        ABI
+    }
 
     /**
      * File that stores text result of the comparison.
@@ -48,8 +120,113 @@ public class ComparePublicationsTask extends DefaultTask {
         this.comparisonResult = comparisonResult;
     }
 
+    /**
+     * File that stores machine-readable summary of the comparison as JSON,
+     * see {@link org.shipkit.internal.comparison.ComparisonSummary}.
+     * Unlike {@link #getComparisonResult()}, it does not need to be parsed to find out the number of changed files.
+     * If the file does not exist it means that the task did not run or there was nothing to compare.
+     */
+    public File getComparisonSummary() {
+        return comparisonSummary;
+    }
+
+    /**
+     * See {@link #getComparisonSummary()}
+     */
+    public void setComparisonSummary(File comparisonSummary) {
+        this.comparisonSummary = comparisonSummary;
+    }
+
+    public ComparePublicationsTask() {
+        //result of skipped comparison depends on the outcome of other comparison tasks
+        getOutputs().doNotCacheIf("comparison is skipped because other publication already changed", t ->
+            anyChange && differenceFound != null && differenceFound.get());
+
+        //the result is also available when the task is up-to-date or its outputs were loaded from the build cache
+        getProject().getGradle().getTaskGraph().afterTask(t -> {
+            if (t == this && anyChange && differenceFound != null && hasResult(getState()) && comparisonResult.length() > 0) {
+                differenceFound.set(true);
+            }
+        });
+    }
+
+    private static boolean hasResult(TaskState state) {
+        return state.getFailure() == null && (!state.getSkipped() || state.getUpToDate());
+    }
+
+    /**
+     * Normalized content hash of the currently built sources jar, see {@link HashManifest#getSha256()}.
+     * Used as input of this task instead of the jar file.
+     */
+    @Input @Optional
+    public String getSourcesJarContentHash() {
+        return sourcesJar == null || isUnchangedSincePreviousRelease() ? null : sourcesJarManifest.hash(sourcesJar.getArchivePath(), ComparisonMode.SOURCES);
+    }
+
+    /**
+     * Content hash of dependency-info.md in currently built sources jar.
+     */
+    @Input @Optional
+    public String getDependencyInfoContentHash() {
+        if (sourcesJar == null || isUnchangedSincePreviousRelease()) {
+            return null;
+        }
+        HashManifest manifest = sourcesJarManifest.get(sourcesJar.getArchivePath(), ComparisonMode.SOURCES);
+        HashManifest.Entry entry = manifest == null ? null : manifest.getEntries().get(ComparePublications.DEPENDENCY_INFO_FILEPATH);
+        return entry == null ? null : entry.getSha256();
+    }
+
+    /**
+     * Hash of the fingerprints of compiled classes of the currently built jar, see {@link HashManifest#ofClasses(File, boolean)}.
+     * Null when the sources jars are compared.
+     */
+    @Input @Optional
+    public String getBinaryJarContentHash() {
+        if (binaryJar == null || comparisonMode == ComparisonMode.SOURCES || isUnchangedSincePreviousRelease()) {
+            return null;
+        }
+        return binaryJarManifest.hash(binaryJar.getArchivePath(), comparisonMode);
+    }
+
+    /**
+     * Normalized content hash of previously released sources jar, null if it was not downloaded.
+     */
+    @Input @Optional
+    public String getPreviousSourcesJarContentHash() {
+        return previousSourcesJar == null || isUnchangedSincePreviousRelease() ? null : previousSourcesJarManifest.hash(previousSourcesJar, ComparisonMode.SOURCES);
+    }
+
+    /**
+     * Content hash of {@link #getPreviousSourcesHashes()}, null if it was not downloaded.
+     */
+    @Input @Optional
+    public String getPreviousSourcesHashesContentHash() {
+        if (previousSourcesHashes == null || !previousSourcesHashes.isFile() || isUnchangedSincePreviousRelease()) {
+            return null;
+        }
+        try {
+            return HashUtil.sha256(new FileInputStream(previousSourcesHashes));
+        } catch (IOException e) {
+            throw new RuntimeException("Problems computing hash of file: " + previousSourcesHashes, e);
+        }
+    }
+
+    /**
+     * Executor of the comparison, provided by Gradle
+     */
+    @Inject
+    protected WorkerExecutor getWorkerExecutor() {
+        throw new UnsupportedOperationException();
+    }
+
     @TaskAction public void comparePublications() {
-        new ComparePublications().comparePublications(this);
+        //the task action does not wait for the worker, Gradle completes the task when the worker writes the results
+        //state of the shared differenceFound flag is captured when the comparison is scheduled
+        final ComparePublicationsParameters params = new ComparePublicationsParameters(this);
+        getWorkerExecutor().submit(ComparePublicationsAction.class, config -> {
+            config.setIsolationMode(IsolationMode.NONE);
+            config.setParams(params);
+        });
     }
 
     /**
@@ -65,6 +242,76 @@ public class ComparePublicationsTask extends DefaultTask {
         this.dependsOn(sourcesJar);
     }
 
+    /**
+     * Sets the jar with compiled classes for comparison with {@link #getPreviousBinaryJar()},
+     * used when {@link #getComparisonMode()} is other than {@link ComparisonMode#SOURCES}.
+     * Task dependency on the jar task is added only when the jar is compared.
+     */
+    public void compareBinaryJar(final Jar binaryJar) {
+        this.binaryJar = binaryJar;
+
+        //sources comparison does not need to compile the classes
+        this.dependsOn(new Callable<Object>() {
+            public Object call() {
+                return comparisonMode == ComparisonMode.SOURCES ? Collections.emptyList() : binaryJar;
+            }
+        });
+    }
+
+    /**
+     * Currently built jar with compiled classes, see {@link #compareBinaryJar(Jar)}.
+     */
+    public Jar getBinaryJar() {
+        return binaryJar;
+    }
+
+    /**
+     * Previously released jar with compiled classes. It is downloaded from {@link #getPreviousBinaryJarUrl()}
+     * only when the compiled classes are compared, see {@link #getComparisonMode()}.
+     */
+    public File getPreviousBinaryJar() {
+        return previousBinaryJar;
+    }
+
+    /**
+     * See {@link #getPreviousBinaryJar()}
+     */
+    public void setPreviousBinaryJar(File previousBinaryJar) {
+        this.previousBinaryJar = previousBinaryJar;
+    }
+
+    /**
+     * URL of the previously released jar with compiled classes, see {@link #getPreviousBinaryJar()}
+     */
+    public String getPreviousBinaryJarUrl() {
+        return previousBinaryJarUrl;
+    }
+
+    /**
+     * See {@link #getPreviousBinaryJarUrl()}
+     */
+    public void setPreviousBinaryJarUrl(String previousBinaryJarUrl) {
+        this.previousBinaryJarUrl = previousBinaryJarUrl;
+    }
+
+    /**
+     * What is compared to find out if the publication changed, {@link ComparisonMode#SOURCES} by default.
+     * Comparing the compiled classes avoids releases caused by changes in sources that do not change the compiled code,
+     * e.g. changes in comments, formatting or generated sources.
+     * Changes in declared dependencies are always detected using dependency-info.md file from the sources jar.
+     * When the previously released jar with compiled classes is not available, sources jars are compared.
+     */
+    public ComparisonMode getComparisonMode() {
+        return comparisonMode;
+    }
+
+    /**
+     * See {@link #getComparisonMode()}
+     */
+    public void setComparisonMode(ComparisonMode comparisonMode) {
+        this.comparisonMode = comparisonMode;
+    }
+
     /**
      * Previously released sources jar used for comparison with currently built sources jar.
      */
@@ -85,4 +332,144 @@ public class ComparePublicationsTask extends DefaultTask {
     public Jar getSourcesJar() {
         return sourcesJar;
     }
+
+    /**
+     * Hash manifest of the previously released sources jar, see {@link org.shipkit.internal.comparison.HashManifest}.
+     * When the file exists, publications are compared using the manifest
+     * and {@link #getPreviousSourcesJar()} is downloaded only if it is needed to show the differences.
+     */
+    public File getPreviousSourcesHashes() {
+        return previousSourcesHashes;
+    }
+
+    /**
+     * See {@link #getPreviousSourcesHashes()}
+     */
+    public void setPreviousSourcesHashes(File previousSourcesHashes) {
+        this.previousSourcesHashes = previousSourcesHashes;
+    }
+
+    /**
+     * URL of the previously released sources jar.
+     * Used to download {@link #getPreviousSourcesJar()} when comparison of {@link #getPreviousSourcesHashes()} shows differences.
+     */
+    public String getPreviousSourcesJarUrl() {
+        return previousSourcesJarUrl;
+    }
+
+    /**
+     * See {@link #getPreviousSourcesJarUrl()}
+     */
+    public void setPreviousSourcesJarUrl(String previousSourcesJarUrl) {
+        this.previousSourcesJarUrl = previousSourcesJarUrl;
+    }
+
+    /**
+     * Machine-wide directory where downloaded artifacts are cached, shared by all builds on the machine.
+     * See {@link org.shipkit.internal.comparison.artifact.ArtifactCache}.
+     * If not set, artifacts are downloaded directly without caching.
+     */
+    public File getArtifactCacheDir() {
+        return artifactCacheDir;
+    }
+
+    /**
+     * See {@link #getArtifactCacheDir()}
+     */
+    public void setArtifactCacheDir(File artifactCacheDir) {
+        this.artifactCacheDir = artifactCacheDir;
+    }
+
+    /**
+     * "Any-change" comparison mode, used when we only need to know if publications changed, e.g. by {@link ReleaseNeededTask}.
+     * The comparison stops at the first difference and the {@link #getComparisonResult()} only states that the publication changed,
+     * without the detailed report.
+     * When {@link #getDifferenceFound()} shows that other publication already changed the comparison is skipped entirely.
+     * False by default.
+     */
+    public boolean isAnyChange() {
+        return anyChange;
+    }
+
+    /**
+     * See {@link #isAnyChange()}
+     */
+    public void setAnyChange(boolean anyChange) {
+        this.anyChange = anyChange;
+    }
+
+    /**
+     * Flag shared by comparison tasks of all projects, set when any of the tasks found a difference.
+     * The flag is set after the task completes, also when the result was loaded from the build cache.
+     * In {@link #isAnyChange()} mode, tasks that run after the flag is set skip the comparison.
+     * May be null.
+     */
+    public AtomicBoolean getDifferenceFound() {
+        return differenceFound;
+    }
+
+    /**
+     * See {@link #getDifferenceFound()}
+     */
+    public void setDifferenceFound(AtomicBoolean differenceFound) {
+        this.differenceFound = differenceFound;
+    }
+
+    /**
+     * True when no inputs of the project changed since the previous release, according to git history
+     * (see {@link #getProjectChanges()}).
+     * The publications are then considered identical without downloading and comparing them
+     * and content hashes of the jars are not task inputs.
+     * False when {@link #getProjectChanges()} is not set.
+     */
+    @Input
+    public boolean isUnchangedSincePreviousRelease() {
+        return projectChanges != null && projectChanges.isUnchangedSincePreviousRelease();
+    }
+
+    /**
+     * Changes of the project since the previous release, read from the output of
+     * {@link org.shipkit.gradle.git.IdentifyChangedFilesTask} when the comparison runs. May be null.
+     */
+    public ProjectChanges getProjectChanges() {
+        return projectChanges;
+    }
+
+    /**
+     * See {@link #getProjectChanges()}
+     */
+    public void setProjectChanges(ProjectChanges projectChanges) {
+        this.projectChanges = projectChanges;
+    }
+
+    /**
+     * Gradle queries inputs more than once, the manifest is computed once for given state of the jar
+     */
+    private static class ManifestHolder {
+        private File file;
+        private long length;
+        private long lastModified;
+        private ComparisonMode mode;
+        private HashManifest manifest;
+        private String hash;
+
+        HashManifest get(File zip, ComparisonMode mode) {
+            if (!zip.isFile()) {
+                return null;
+            }
+            if (!zip.equals(file) || zip.length() != length || zip.lastModified() != lastModified || mode != this.mode) {
+                manifest = mode == ComparisonMode.SOURCES ? HashManifest.of(zip) : HashManifest.ofClasses(zip, mode == ComparisonMode.ABI);
+                hash = manifest.getSha256();
+                file = zip;
+                length = zip.length();
+                lastModified = zip.lastModified();
+                this.mode = mode;
+            }
+            return manifest;
+        }
+
+        String hash(File zip, ComparisonMode mode) {
+            return get(zip, mode) == null ? null : hash;
+        }
+    }
 }
@@ -0,0 +1,73 @@
+package org.shipkit.gradle.java;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.TaskAction;
+import org.shipkit.internal.gradle.java.tasks.DownloadAllPreviousPublications;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Downloads previous publications of all modules concurrently.
+ * In multi-module builds this is much faster than running each {@link DownloadPreviousPublicationsTask} in sequence.
+ * Individual {@link DownloadPreviousPublicationsTask}s are skipped when this task is going to run.
+ * <p>
+ * Time spent downloading each artifact is written to {@link #getReportFile()}.
+ */
+public class DownloadAllPreviousPublicationsTask extends DefaultTask {
+
+    @Internal private List<DownloadPreviousPublicationsTask> downloadTasks = new ArrayList<>();
+
+    @Internal private int maxParallelDownloads = 8;
+
+    @Internal private File reportFile;
+
+    @TaskAction
+    public void downloadAllPreviousPublications() {
+        new DownloadAllPreviousPublications().downloadAllPreviousPublications(this);
+    }
+
+    /**
+     * Download tasks of all modules, their artifacts are downloaded by this task.
+     */
+    public List<DownloadPreviousPublicationsTask> getDownloadTasks() {
+        return downloadTasks;
+    }
+
+    /**
+     * See {@link #getDownloadTasks()}
+     */
+    public void setDownloadTasks(List<DownloadPreviousPublicationsTask> downloadTasks) {
+        this.downloadTasks = downloadTasks;
+    }
+
+    /**
+     * Maximum number of concurrent downloads, 8 by default.
+     */
+    public int getMaxParallelDownloads() {
+        return maxParallelDownloads;
+    }
+
+    /**
+     * See {@link #getMaxParallelDownloads()}
+     */
+    public void setMaxParallelDownloads(int maxParallelDownloads) {
+        this.maxParallelDownloads = maxParallelDownloads;
+    }
+
+    /**
+     * File with the time spent downloading each artifact.
+     */
+    public File getReportFile() {
+        return reportFile;
+    }
+
+    /**
+     * See {@link #getReportFile()}
+     */
+    public void setReportFile(File reportFile) {
+        this.reportFile = reportFile;
+    }
+}
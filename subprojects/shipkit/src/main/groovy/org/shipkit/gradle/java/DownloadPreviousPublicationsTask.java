@@ -2,16 +2,29 @@ package org.shipkit.gradle.java;
 
 import org.gradle.api.DefaultTask;
 import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Optional;
 import org.gradle.api.tasks.OutputFile;
 import org.gradle.api.tasks.TaskAction;
-import org.shipkit.internal.gradle.java.tasks.DownloadPreviousPublications;
+import org.gradle.workers.IsolationMode;
+import org.gradle.workers.WorkerExecutor;
+import org.shipkit.internal.gradle.git.domain.ProjectChanges;
+import org.shipkit.internal.gradle.java.tasks.DownloadPreviousPublicationsAction;
+import org.shipkit.internal.gradle.java.tasks.DownloadPreviousPublicationsParameters;
 
+import javax.inject.Inject;
 import java.io.File;
 
 /**
  * Downloads last release source jar given by {@link #getPreviousSourcesJarUrl()}
  * from repositories (eg. Bintray) and stores it to local file, given by {@link #getPreviousSourcesJarFile()}
  * for further comparison.
+ * <p>
+ * If the last release published a hash manifest of the sources jar ({@link #getPreviousSourcesHashesUrl()})
+ * only the manifest is downloaded. The sources jar is then downloaded by {@link ComparePublicationsTask}
+ * only when it is needed to show the differences.
+ *
+ * The task is skipped when the project did not change since the previous release, see {@link #isUnchangedSincePreviousRelease()}.
  *
  * For details of the comparison see {@link ComparePublicationsTask}
  */
@@ -21,9 +34,33 @@ public class DownloadPreviousPublicationsTask extends DefaultTask {
 
     @OutputFile private File previousSourcesJarFile;
 
+    @Input @Optional private String previousSourcesHashesUrl;
+
+    @OutputFile @Optional private File previousSourcesHashesFile;
+
+    @Internal private File artifactCacheDir;
+
+    @Internal private ProjectChanges projectChanges;
+
+    public DownloadPreviousPublicationsTask() {
+        onlyIf(t -> !isUnchangedSincePreviousRelease());
+    }
+
+    /**
+     * Executor of the download, provided by Gradle
+     */
+    @Inject
+    protected WorkerExecutor getWorkerExecutor() {
+        throw new UnsupportedOperationException();
+    }
+
     @TaskAction
     public void downloadPreviousPublications() {
-        new DownloadPreviousPublications().downloadPreviousPublications(this);
+        final DownloadPreviousPublicationsParameters params = new DownloadPreviousPublicationsParameters(this);
+        getWorkerExecutor().submit(DownloadPreviousPublicationsAction.class, config -> {
+            config.setIsolationMode(IsolationMode.NONE);
+            config.setParams(params);
+        });
     }
 
     /**
@@ -53,4 +90,73 @@ public class DownloadPreviousPublicationsTask extends DefaultTask {
     public void setPreviousSourcesJarFile(File previousSourcesJar) {
         this.previousSourcesJarFile = previousSourcesJar;
     }
+
+    /**
+     * URL where the hash manifest of previous version sources jar can be found.
+     * See {@link org.shipkit.internal.comparison.HashManifest}
+     */
+    public String getPreviousSourcesHashesUrl() {
+        return previousSourcesHashesUrl;
+    }
+
+    /**
+     * See {@link #getPreviousSourcesHashesUrl()}
+     */
+    public void setPreviousSourcesHashesUrl(String previousSourcesHashesUrl) {
+        this.previousSourcesHashesUrl = previousSourcesHashesUrl;
+    }
+
+    /**
+     * temporary storage file for downloaded hash manifest of previous version sources jar
+     */
+    public File getPreviousSourcesHashesFile() {
+        return previousSourcesHashesFile;
+    }
+
+    /**
+     * See {@link #getPreviousSourcesHashesFile()}
+     */
+    public void setPreviousSourcesHashesFile(File previousSourcesHashesFile) {
+        this.previousSourcesHashesFile = previousSourcesHashesFile;
+    }
+
+    /**
+     * Machine-wide directory where downloaded artifacts are cached, shared by all builds on the machine.
+     * See {@link org.shipkit.internal.comparison.artifact.ArtifactCache}.
+     * If not set, artifacts are downloaded directly without caching.
+     */
+    public File getArtifactCacheDir() {
+        return artifactCacheDir;
+    }
+
+    /**
+     * See {@link #getArtifactCacheDir()}
+     */
+    public void setArtifactCacheDir(File artifactCacheDir) {
+        this.artifactCacheDir = artifactCacheDir;
+    }
+
+    /**
+     * True when no inputs of the project changed since the previous release, see {@link #getProjectChanges()}.
+     * Previous publications are not needed for comparison then and are not downloaded.
+     */
+    @Internal
+    public boolean isUnchangedSincePreviousRelease() {
+        return projectChanges != null && projectChanges.isUnchangedSincePreviousRelease();
+    }
+
+    /**
+     * Changes of the project since the previous release, read from the output of
+     * {@link org.shipkit.gradle.git.IdentifyChangedFilesTask} when the download runs. May be null.
+     */
+    public ProjectChanges getProjectChanges() {
+        return projectChanges;
+    }
+
+    /**
+     * See {@link #getProjectChanges()}
+     */
+    public void setProjectChanges(ProjectChanges projectChanges) {
+        this.projectChanges = projectChanges;
+    }
 }
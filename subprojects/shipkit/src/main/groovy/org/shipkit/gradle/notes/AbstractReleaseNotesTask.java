@@ -3,6 +3,7 @@ package org.shipkit.gradle.notes;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.Optional;
 import org.shipkit.internal.notes.model.ReleaseNotesData;
 
@@ -32,6 +33,7 @@ public class AbstractReleaseNotesTask extends DefaultTask {
     @Input private String version;
     @Input private String tagPrefix;
     @Input private String header = "Release notes were automatically generated by [Shipkit](http://shipkit.org/)";
+    @Internal private File formattedNotesCacheDir;
 
     /**
      * @return true if task is configured to generate only preview of release notes (without appending them to the file), and false otherwise
@@ -240,6 +242,22 @@ public class AbstractReleaseNotesTask extends DefaultTask {
         return emphasizeVersion;
     }
 
+    /**
+     * Directory where formatted release notes of each release are cached.
+     * Past releases do not change so they are not formatted again when release notes are regenerated.
+     * When not set, all releases are formatted every time.
+     */
+    public File getFormattedNotesCacheDir() {
+        return formattedNotesCacheDir;
+    }
+
+    /**
+     * See {@link #getFormattedNotesCacheDir()}
+     */
+    public void setFormattedNotesCacheDir(File formattedNotesCacheDir) {
+        this.formattedNotesCacheDir = formattedNotesCacheDir;
+    }
+
     public String getHeader() {
         return header;
     }
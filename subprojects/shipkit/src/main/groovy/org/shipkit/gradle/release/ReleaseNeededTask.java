@@ -24,6 +24,7 @@ public class ReleaseNeededTask extends DefaultTask {
     private boolean skipComparePublications;
     private boolean explosive;
     private List<File> comparisonResults = new LinkedList<>();
+    private List<File> comparisonSummaries = new LinkedList<>();
 
     /**
      * The branch we currently operate on
@@ -141,6 +142,22 @@ public class ReleaseNeededTask extends DefaultTask {
         this.comparisonResults = comparisonResults;
     }
 
+    /**
+     * Machine-readable publication comparison summaries, generated by {@link org.shipkit.gradle.java.ComparePublicationsTask}.
+     * When any of the summary files exists, they are used to decide if publications changed instead of {@link #getComparisonResults()}.
+     * Summaries of all projects are aggregated into single JSON file in the build directory.
+     */
+    public List<File> getComparisonSummaries() {
+        return comparisonSummaries;
+    }
+
+    /**
+     * See {@link #getComparisonSummaries()}
+     */
+    public void setComparisonSummaries(List<File> comparisonSummaries) {
+        this.comparisonSummaries = comparisonSummaries;
+    }
+
     @TaskAction public boolean releaseNeeded() {
         return new ReleaseNeeded().releaseNeeded(this);
     }
@@ -17,16 +17,25 @@ public class ComparePublicationsResultFormatter {
 
     public String formatResults(File previousSourcesJar, File currentSourcesJar,
                                 Diff sourcesJarDiff, Diff dependencyInfoFilesDiff) {
+        return formatResults(previousSourcesJar, currentSourcesJar, sourcesJarDiff, previousSourcesJar, currentSourcesJar, dependencyInfoFilesDiff);
+    }
+
+    /**
+     * Formats results when other jars than the sources jars were compared, e.g. jars with compiled classes.
+     * dependency-info.md file is always compared using the sources jars.
+     */
+    public String formatResults(File previousJar, File currentJar, Diff jarDiff,
+                                File previousSourcesJar, File currentSourcesJar, Diff dependencyInfoFilesDiff) {
 
         String result = "";
 
-        // add diff between sources jars
-        if (!sourcesJarDiff.areFilesEqual()) {
-            result += getFileComparisonHeader(previousSourcesJar.getAbsolutePath(), currentSourcesJar.getAbsolutePath());
-            result +=  sourcesJarDiff.getDiffOutput();
+        // add diff between jars
+        if (!jarDiff.areFilesEqual()) {
+            result += getFileComparisonHeader(previousJar.getAbsolutePath(), currentJar.getAbsolutePath());
+            result +=  jarDiff.getDiffOutput();
         }
 
-        if (!sourcesJarDiff.areFilesEqual() && !dependencyInfoFilesDiff.areFilesEqual()) {
+        if (!jarDiff.areFilesEqual() && !dependencyInfoFilesDiff.areFilesEqual()) {
             result += "\n\n";
         }
 
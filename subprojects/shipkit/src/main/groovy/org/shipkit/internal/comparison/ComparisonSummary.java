@@ -0,0 +1,186 @@
+package org.shipkit.internal.comparison;
+
+import org.json.simple.DeserializationException;
+import org.json.simple.JsonArray;
+import org.json.simple.JsonObject;
+import org.json.simple.Jsoner;
+import org.shipkit.internal.notes.util.IOUtil;
+
+import java.io.File;
+import java.util.Collection;
+
+/**
+ * Machine-readable result of publication comparison of a single project, stored as JSON.
+ * Complements the human-readable comparison report so that the results can be aggregated without parsing text.
+ */
+public class ComparisonSummary {
+
+    public enum Status {
+        /**
+         * Publication is the same as previously released
+         */
+        IDENTICAL,
+        /**
+         * Publication changed since previous release
+         */
+        CHANGED,
+        /**
+         * Comparison was skipped because other publication already changed
+         */
+        SKIPPED
+    }
+
+    private final String project;
+    private final Status status;
+    private final boolean complete;
+    private final int addedFiles;
+    private final int removedFiles;
+    private final int changedFiles;
+    private final boolean dependenciesChanged;
+    private final String previousHash;
+    private final String currentHash;
+    private final long durationMillis;
+
+    /**
+     * @param project path of the project
+     * @param status result of the comparison
+     * @param complete false if the comparison stopped at the first difference and the counts of files are not complete
+     * @param addedFiles number of files added to the sources jar
+     * @param removedFiles number of files removed from the sources jar
+     * @param changedFiles number of changed files in the sources jar
+     * @param dependenciesChanged if declared dependencies changed
+     * @param previousHash SHA-256 of hash manifest of previous sources jar, null if not known
+     * @param currentHash SHA-256 of hash manifest of current sources jar, null if not known
+     * @param durationMillis how long the comparison took
+     */
+    public ComparisonSummary(String project, Status status, boolean complete,
+                             int addedFiles, int removedFiles, int changedFiles, boolean dependenciesChanged,
+                             String previousHash, String currentHash, long durationMillis) {
+        this.project = project;
+        this.status = status;
+        this.complete = complete;
+        this.addedFiles = addedFiles;
+        this.removedFiles = removedFiles;
+        this.changedFiles = changedFiles;
+        this.dependenciesChanged = dependenciesChanged;
+        this.previousHash = previousHash;
+        this.currentHash = currentHash;
+        this.durationMillis = durationMillis;
+    }
+
+    public String getProject() {
+        return project;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public int getAddedFiles() {
+        return addedFiles;
+    }
+
+    public int getRemovedFiles() {
+        return removedFiles;
+    }
+
+    public int getChangedFiles() {
+        return changedFiles;
+    }
+
+    public boolean isDependenciesChanged() {
+        return dependenciesChanged;
+    }
+
+    public String getPreviousHash() {
+        return previousHash;
+    }
+
+    public String getCurrentHash() {
+        return currentHash;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * Short description for the build log, e.g. ":api - changed (1 added, 0 removed, 2 changed files) in 15 ms"
+     */
+    public String describe() {
+        StringBuilder sb = new StringBuilder(project).append(" - ").append(status.name().toLowerCase());
+        if (status == Status.CHANGED) {
+            sb.append(" (").append(addedFiles).append(" added, ")
+                .append(removedFiles).append(" removed, ")
+                .append(changedFiles).append(" changed files");
+            if (dependenciesChanged) {
+                sb.append(", dependencies changed");
+            }
+            if (!complete) {
+                sb.append(", stopped at first difference");
+            }
+            sb.append(")");
+        }
+        return sb.append(" in ").append(durationMillis).append(" ms").toString();
+    }
+
+    JsonObject toJsonObject() {
+        JsonObject json = new JsonObject();
+        json.put("project", project);
+        json.put("status", status.name().toLowerCase());
+        json.put("complete", complete);
+        json.put("addedFiles", addedFiles);
+        json.put("removedFiles", removedFiles);
+        json.put("changedFiles", changedFiles);
+        json.put("dependenciesChanged", dependenciesChanged);
+        json.put("previousHash", previousHash);
+        json.put("currentHash", currentHash);
+        json.put("durationMillis", durationMillis);
+        return json;
+    }
+
+    public String toJson() {
+        return Jsoner.serialize(toJsonObject());
+    }
+
+    public static ComparisonSummary fromJson(String json) {
+        try {
+            JsonObject o = (JsonObject) Jsoner.deserialize(json);
+            return new ComparisonSummary(o.getString("project"),
+                Status.valueOf(o.getString("status").toUpperCase()),
+                o.getBoolean("complete"),
+                o.getInteger("addedFiles"),
+                o.getInteger("removedFiles"),
+                o.getInteger("changedFiles"),
+                o.getBoolean("dependenciesChanged"),
+                o.getString("previousHash"),
+                o.getString("currentHash"),
+                o.getLong("durationMillis"));
+        } catch (DeserializationException e) {
+            throw new RuntimeException("Can't deserialize JSON: " + json, e);
+        }
+    }
+
+    public void write(File file) {
+        IOUtil.writeFile(file, toJson());
+    }
+
+    public static ComparisonSummary read(File file) {
+        return fromJson(IOUtil.readFully(file));
+    }
+
+    /**
+     * Writes summaries of all projects to a single file, as JSON array
+     */
+    public static void writeAll(Collection<ComparisonSummary> summaries, File file) {
+        JsonArray array = new JsonArray();
+        for (ComparisonSummary s : summaries) {
+            array.add(s.toJsonObject());
+        }
+        IOUtil.writeFile(file, Jsoner.serialize(array));
+    }
+}
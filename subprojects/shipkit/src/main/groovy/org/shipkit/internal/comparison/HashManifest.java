@@ -0,0 +1,179 @@
+package org.shipkit.internal.comparison;
+
+import org.shipkit.internal.comparison.bytecode.ClassFingerprint;
+import org.shipkit.internal.gradle.util.ZipUtil;
+import org.shipkit.internal.notes.util.IOUtil;
+import org.shipkit.internal.util.HashUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Lists every entry of a zip publication with its uncompressed size and SHA-256 of the content.
+ * The manifest is published next to the sources jar so that the next build can compare publications
+ * by downloading only the small manifest instead of the whole previous sources jar.
+ * <p>
+ * Each line of the manifest file has format: "sha256 size name".
+ */
+public class HashManifest {
+
+    private final Map<String, Entry> entries;
+
+    private HashManifest(Map<String, Entry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * Creates the manifest of given zip file, entries are in the order of the zip
+     */
+    public static HashManifest of(File zipFile) {
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        ZipFile zip = null;
+        try {
+            zip = ZipUtil.openZipFile(zipFile);
+            for (ZipEntry entry : ZipUtil.extractEntriesByName(zip).values()) {
+                String sha256 = HashUtil.sha256(zip.getInputStream(entry));
+                entries.put(entry.getName(), new Entry(entry.getSize(), sha256));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Problems computing hashes of entries of zip file: " + zipFile, e);
+        } finally {
+            ZipUtil.closeZipFile(zip);
+        }
+        return new HashManifest(entries);
+    }
+
+    /**
+     * Creates the manifest of given jar with compiled classes, where class files are hashed by their normalized content,
+     * see {@link ClassFingerprint}. Builds of the same sources on different machines produce the same manifest.
+     * Directories and "META-INF/MANIFEST.MF", that typically contains build environment details, are left out.
+     * Entries are sorted by name so that the order of files in the jar does not matter.
+     *
+     * @param jarFile the jar with compiled classes
+     * @param abiOnly if only the public API of the classes is hashed. Only public classes are listed
+     *                and other files than classes are left out.
+     */
+    public static HashManifest ofClasses(File jarFile, boolean abiOnly) {
+        Map<String, Entry> entries = new TreeMap<>();
+        ZipFile zip = null;
+        try {
+            zip = ZipUtil.openZipFile(jarFile);
+            for (ZipEntry entry : ZipUtil.extractEntriesByName(zip).values()) {
+                String name = entry.getName();
+                if (entry.isDirectory() || name.equals("META-INF/MANIFEST.MF")) {
+                    continue;
+                }
+                if (name.endsWith(".class")) {
+                    ClassFingerprint fingerprint = ClassFingerprint.of(zip.getInputStream(entry), abiOnly);
+                    if (fingerprint != null) {
+                        entries.put(name, new Entry(fingerprint.getSize(), fingerprint.getSha256()));
+                    }
+                } else if (!abiOnly) {
+                    entries.put(name, new Entry(entry.getSize(), HashUtil.sha256(zip.getInputStream(entry))));
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Problems computing fingerprints of classes of jar file: " + jarFile, e);
+        } finally {
+            ZipUtil.closeZipFile(zip);
+        }
+        return new HashManifest(entries);
+    }
+
+    /**
+     * Reads the manifest previously written by {@link #write(File)}
+     */
+    public static HashManifest read(File manifestFile) {
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        for (String line : IOUtil.readFully(manifestFile).split("\n")) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] parts = line.split(" ", 3);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Unexpected line in hash manifest " + manifestFile + ": " + line);
+            }
+            entries.put(parts[2], new Entry(Long.parseLong(parts[1]), parts[0]));
+        }
+        return new HashManifest(entries);
+    }
+
+    /**
+     * Writes the manifest to given file
+     */
+    public void write(File manifestFile) {
+        IOUtil.writeFile(manifestFile, format());
+    }
+
+    /**
+     * SHA-256 of the manifest content. Identifies the content of the zip regardless of timestamps of the entries.
+     */
+    public String getSha256() {
+        return HashUtil.sha256(format());
+    }
+
+    private String format() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            sb.append(e.getValue().getSha256()).append(" ")
+                .append(e.getValue().getSize()).append(" ")
+                .append(e.getKey()).append("\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Entries of the zip mapped by name
+     */
+    public Map<String, Entry> getEntries() {
+        return Collections.unmodifiableMap(entries);
+    }
+
+    public static class Entry {
+
+        private final long size;
+        private final String sha256;
+
+        Entry(long size, String sha256) {
+            this.size = size;
+            this.sha256 = sha256;
+        }
+
+        /**
+         * Uncompressed size of the entry
+         */
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * Hex encoded SHA-256 of the entry content
+         */
+        public String getSha256() {
+            return sha256;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Entry that = (Entry) o;
+            return size == that.size && sha256.equals(that.sha256);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (int) (size ^ (size >>> 32)) + sha256.hashCode();
+        }
+    }
+}
@@ -10,8 +10,14 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
 import static java.lang.String.format;
@@ -19,26 +25,97 @@ import static org.shipkit.internal.util.ArgumentValidation.notNull;
 
 public class ZipComparator {
 
-    private final DirectoryDiffGenerator directoryDiffGenerator;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    //smaller archives are compared sequentially, the gain would not be worth opening extra zip handles
+    static final int PARALLEL_THRESHOLD = 100;
+    private static final int SLICES_PER_THREAD = 4;
 
+    private final DirectoryDiffGenerator directoryDiffGenerator;
+    private final int parallelism;
+    private final int parallelThreshold;
 
     public ZipComparator() {
-        directoryDiffGenerator = new DirectoryDiffGenerator();
+        this(1);
+    }
+
+    /**
+     * @param parallelism number of threads used to compare entries of large archives, 1 compares entries sequentially
+     */
+    public ZipComparator(int parallelism) {
+        this(new DirectoryDiffGenerator(), parallelism);
     }
 
     @ExposedForTesting
     ZipComparator(DirectoryDiffGenerator directoryDiffGenerator) {
+        this(directoryDiffGenerator, 1);
+    }
+
+    @ExposedForTesting
+    ZipComparator(DirectoryDiffGenerator directoryDiffGenerator, int parallelism) {
+        this(directoryDiffGenerator, parallelism, PARALLEL_THRESHOLD);
+    }
+
+    @ExposedForTesting
+    ZipComparator(DirectoryDiffGenerator directoryDiffGenerator, int parallelism, int parallelThreshold) {
         this.directoryDiffGenerator = directoryDiffGenerator;
+        this.parallelism = Math.max(1, parallelism);
+        this.parallelThreshold = parallelThreshold;
     }
 
+    /**
+     * Compares all entries of given zip files and reports all added, removed and changed files.
+     */
     public Diff areEqual(File previousFile, File currentFile) {
+        return compare(previousFile, currentFile, false);
+    }
+
+    /**
+     * Informs if there is any difference between given zip files.
+     * Stops comparing remaining entries after the first difference is found,
+     * use it when the detailed report of {@link #areEqual(File, File)} is not needed.
+     */
+    public boolean anyDifference(File previousFile, File currentFile) {
+        return !compare(previousFile, currentFile, true).areFilesEqual();
+    }
+
+    /**
+     * Compares zip publications using their hash manifests, without opening the zips.
+     * Reports added, removed and changed files the same way as {@link #areEqual(File, File)}.
+     */
+    public Diff areEqual(HashManifest previousManifest, HashManifest currentManifest) {
+        notNull(previousManifest, "previous version manifest to compare", currentManifest, "current version manifest to compare");
+        Map<String, HashManifest.Entry> previous = new LinkedHashMap<>(previousManifest.getEntries());
+        Map<String, HashManifest.Entry> current = new LinkedHashMap<>(currentManifest.getEntries());
+
+        // ignore differences in dependency-info.md
+        previous.remove(ComparePublications.DEPENDENCY_INFO_FILEPATH);
+        current.remove(ComparePublications.DEPENDENCY_INFO_FILEPATH);
+
+        List<String> addedFiles = new ArrayList<>();
+        List<String> removedFiles = new ArrayList<>();
+        List<String> changedFiles = new ArrayList<>();
+
+        for (Map.Entry<String, HashManifest.Entry> entry : previous.entrySet()) {
+            HashManifest.Entry currentEntry = current.remove(entry.getKey());
+            if (currentEntry == null) {
+                removedFiles.add(entry.getKey());
+            } else if (!currentEntry.equals(entry.getValue())) {
+                changedFiles.add(entry.getKey());
+            }
+        }
+        addedFiles.addAll(current.keySet());
+
+        return diffOf(addedFiles, removedFiles, changedFiles);
+    }
+
+    private Diff compare(File previousFile, File currentFile, boolean stopOnFirstDifference) {
         notNull(previousFile, "previous version file to compare", currentFile, "current version file to compare");
         ZipFile previousZip = null;
         ZipFile currentZip = null;
         try {
             previousZip = ZipUtil.openZipFile(previousFile);
             currentZip = ZipUtil.openZipFile(currentFile);
-            return compareZips(previousZip, currentZip);
+            return compareZips(previousFile, previousZip, currentFile, currentZip, stopOnFirstDifference);
         } finally {
             ZipUtil.closeZipFile(previousZip);
             ZipUtil.closeZipFile(currentZip);
@@ -46,57 +123,95 @@ public class ZipComparator {
     }
 
     //TODO: WW refactor this code so that it uses listeners
-    private Diff compareZips(ZipFile previousFile, ZipFile currentFile) {
+    private Diff compareZips(File previousFile, ZipFile previousZip, File currentFile, ZipFile currentZip,
+                             boolean stopOnFirstDifference) {
 
-        Set<String> previous = ZipUtil.extractEntries(previousFile);
-        Set<String> current = ZipUtil.extractEntries(currentFile);
+        Map<String, ZipEntry> previous = ZipUtil.extractEntriesByName(previousZip);
+        Map<String, ZipEntry> current = ZipUtil.extractEntriesByName(currentZip);
 
         // ignore differences in dependency-info.md
         previous.remove(ComparePublications.DEPENDENCY_INFO_FILEPATH);
         current.remove(ComparePublications.DEPENDENCY_INFO_FILEPATH);
 
-        int differences = 0;
-
         List<String> addedFiles = new ArrayList<>();
         List<String> removedFiles = new ArrayList<>();
         List<String> changedFiles = new ArrayList<>();
+        List<String> commonFiles = new ArrayList<>();
 
-        for (String name : previous) {
-            if (!current.contains(name)) {
+        for (String name : previous.keySet()) {
+            if (current.remove(name) == null) {
                 removedFiles.add(name);
-                differences += 1;
-                continue;
-            }
-            try {
-                current.remove(name);
-                if (!streamsEqual(previousFile.getInputStream(previousFile.getEntry(name)),
-                                  currentFile.getInputStream(currentFile.getEntry(name)))) {
-                    changedFiles.add(name);
-                    differences += 1;
-                    continue;
-                }
-            } catch (Exception e) {
-                throw new ZipCompareException(format("Unable to compare zip entry '%s' found in '%s' with '%s'",
-                      name, previousFile.getName(), currentFile.getName()), e);
+            } else {
+                commonFiles.add(name);
             }
         }
-        for (String name : current) {
-            addedFiles.add(name);
-            differences += 1;
+        addedFiles.addAll(current.keySet());
+
+        if (stopOnFirstDifference && (!addedFiles.isEmpty() || !removedFiles.isEmpty())) {
+            return Diff.ofDifferentFiles("");
+        }
+
+        boolean[] changed = new boolean[commonFiles.size()];
+        AtomicBoolean differenceFound = new AtomicBoolean();
+        EntriesComparison comparison = new EntriesComparison(commonFiles, changed, differenceFound, stopOnFirstDifference);
+        if (parallelism > 1 && commonFiles.size() >= parallelThreshold) {
+            comparison.compareInParallel(previousFile, currentFile, parallelism);
+        } else {
+            comparison.compare(previousZip, currentZip, 0, commonFiles.size(), new byte[BUFFER_SIZE], new byte[BUFFER_SIZE]);
+        }
+
+        if (stopOnFirstDifference) {
+            return differenceFound.get() ? Diff.ofDifferentFiles("") : Diff.ofEqualFiles();
         }
 
+        for (int i = 0; i < changed.length; i++) {
+            if (changed[i]) {
+                changedFiles.add(commonFiles.get(i));
+            }
+        }
+
+        return diffOf(addedFiles, removedFiles, changedFiles);
+    }
+
+    private Diff diffOf(List<String> addedFiles, List<String> removedFiles, List<String> changedFiles) {
         String diffOutput = directoryDiffGenerator.generateDiffOutput(addedFiles, removedFiles, changedFiles);
 
-        if (differences > 0) {
-            return Diff.ofDifferentFiles(diffOutput);
+        if (!addedFiles.isEmpty() || !removedFiles.isEmpty() || !changedFiles.isEmpty()) {
+            return Diff.ofDifferentFiles(diffOutput, addedFiles.size(), removedFiles.size(), changedFiles.size());
         }
         return Diff.ofEqualFiles();
     }
 
+    /**
+     * Compares the uncompressed size and CRC-32 from the central directory first.
+     * When they differ the entries are different and nothing needs to be decompressed.
+     * Only when they match (or are unknown) the content is decompressed to confirm that entries are equal.
+     */
+    static boolean entriesEqual(ZipFile previousFile, ZipEntry previousEntry,
+                                ZipFile currentFile, ZipEntry currentEntry) throws IOException {
+        return entriesEqual(previousFile, previousEntry, currentFile, currentEntry, new byte[BUFFER_SIZE], new byte[BUFFER_SIZE]);
+    }
+
+    private static boolean entriesEqual(ZipFile previousFile, ZipEntry previousEntry,
+                                        ZipFile currentFile, ZipEntry currentEntry,
+                                        byte[] buf1, byte[] buf2) throws IOException {
+        if (differ(previousEntry.getSize(), currentEntry.getSize())
+            || differ(previousEntry.getCrc(), currentEntry.getCrc())) {
+            return false;
+        }
+        return streamsEqual(previousFile.getInputStream(previousEntry), currentFile.getInputStream(currentEntry), buf1, buf2);
+    }
+
+    //-1 means that the value is not recorded in the zip
+    private static boolean differ(long previous, long current) {
+        return previous != -1 && current != -1 && previous != current;
+    }
 
     static boolean streamsEqual(InputStream stream1, InputStream stream2) throws IOException {
-        byte[] buf1 = new byte[4096];
-        byte[] buf2 = new byte[4096];
+        return streamsEqual(stream1, stream2, new byte[BUFFER_SIZE], new byte[BUFFER_SIZE]);
+    }
+
+    private static boolean streamsEqual(InputStream stream1, InputStream stream2, byte[] buf1, byte[] buf2) throws IOException {
         boolean done1 = false;
         boolean done2 = false;
 
@@ -137,6 +252,114 @@ public class ZipComparator {
         }
     }
 
+    /**
+     * Compares the entries present in both zips, marking changed entries by their index.
+     * Entries can be compared in slices on a fork-join pool, each worker thread uses its own zip handles and buffers.
+     */
+    private static class EntriesComparison {
+
+        private final List<String> names;
+        private final boolean[] changed;
+        private final AtomicBoolean differenceFound;
+        private final boolean stopOnFirstDifference;
+
+        EntriesComparison(List<String> names, boolean[] changed, AtomicBoolean differenceFound, boolean stopOnFirstDifference) {
+            this.names = names;
+            this.changed = changed;
+            this.differenceFound = differenceFound;
+            this.stopOnFirstDifference = stopOnFirstDifference;
+        }
+
+        void compare(ZipFile previousZip, ZipFile currentZip, int from, int to, byte[] buf1, byte[] buf2) {
+            for (int i = from; i < to; i++) {
+                if (stopOnFirstDifference && differenceFound.get()) {
+                    return;
+                }
+                String name = names.get(i);
+                try {
+                    if (!entriesEqual(previousZip, previousZip.getEntry(name), currentZip, currentZip.getEntry(name), buf1, buf2)) {
+                        changed[i] = true;
+                        differenceFound.set(true);
+                    }
+                } catch (Exception e) {
+                    throw new ZipCompareException(format("Unable to compare zip entry '%s' found in '%s' with '%s'",
+                          name, previousZip.getName(), currentZip.getName()), e);
+                }
+            }
+        }
+
+        void compareInParallel(File previousFile, File currentFile, int parallelism) {
+            Map<Thread, Worker> workers = new ConcurrentHashMap<>();
+            int sliceSize = Math.max(1, names.size() / (parallelism * SLICES_PER_THREAD));
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.invoke(new Slice(previousFile, currentFile, workers, 0, names.size(), sliceSize));
+            } finally {
+                pool.shutdown();
+                for (Worker worker : workers.values()) {
+                    ZipUtil.closeZipFile(worker.previousZip);
+                    ZipUtil.closeZipFile(worker.currentZip);
+                }
+            }
+        }
+
+        private class Slice extends RecursiveAction {
+
+            private final File previousFile;
+            private final File currentFile;
+            private final Map<Thread, Worker> workers;
+            private final int from;
+            private final int to;
+            private final int sliceSize;
+
+            Slice(File previousFile, File currentFile, Map<Thread, Worker> workers, int from, int to, int sliceSize) {
+                this.previousFile = previousFile;
+                this.currentFile = currentFile;
+                this.workers = workers;
+                this.from = from;
+                this.to = to;
+                this.sliceSize = sliceSize;
+            }
+
+            @Override
+            protected void compute() {
+                if (stopOnFirstDifference && differenceFound.get()) {
+                    return;
+                }
+                if (to - from <= sliceSize) {
+                    Worker w = worker();
+                    compare(w.previousZip, w.currentZip, from, to, w.buf1, w.buf2);
+                    return;
+                }
+                int middle = (from + to) >>> 1;
+                invokeAll(new Slice(previousFile, currentFile, workers, from, middle, sliceSize),
+                    new Slice(previousFile, currentFile, workers, middle, to, sliceSize));
+            }
+
+            //each pool thread opens its own zip handles and reuses its buffers across slices
+            private Worker worker() {
+                Worker worker = workers.get(Thread.currentThread());
+                if (worker == null) {
+                    worker = new Worker(ZipUtil.openZipFile(previousFile), ZipUtil.openZipFile(currentFile));
+                    workers.put(Thread.currentThread(), worker);
+                }
+                return worker;
+            }
+        }
+    }
+
+    private static class Worker {
+        private final ZipFile previousZip;
+        private final ZipFile currentZip;
+        private final byte[] buf1 = new byte[BUFFER_SIZE];
+        private final byte[] buf2 = new byte[BUFFER_SIZE];
+
+        Worker(ZipFile previousZip, ZipFile currentZip) {
+            this.previousZip = previousZip;
+            this.currentZip = currentZip;
+        }
+    }
+
     static class ZipCompareException extends RuntimeException {
         public ZipCompareException(String message, Throwable cause) {
             super(message, cause);
@@ -0,0 +1,270 @@
+package org.shipkit.internal.comparison.artifact;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.shipkit.internal.notes.util.IOUtil;
+import org.shipkit.internal.util.HashUtil;
+
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Machine-wide cache of downloaded artifacts, keyed by URL.
+ * Previous release artifacts never change so many builds on the same machine can share a single download.
+ * <p>
+ * Each URL gets its own directory in the cache with:
+ * <ul>
+ *     <li>"artifact" - the downloaded, checksum validated content</li>
+ *     <li>"artifact.part" - partially downloaded content, resumed with HTTP range request by the next download</li>
+ *     <li>"metadata.properties" - URL, ETag and Last-Modified headers used for conditional requests</li>
+ * </ul>
+ * Cached artifact is revalidated with conditional GET and reused when the server responds with "304 Not Modified"
+ * or when the server is not reachable.
+ * When the server did not send ETag nor Last-Modified the artifact cannot be revalidated,
+ * cached release (non-snapshot) artifacts are then reused without contacting the server because released versions never change.
+ * Downloaded content is verified against ".sha1" (or ".md5") checksum published next to the artifact, if available.
+ * Access to the cache directory of given URL is guarded by a file lock so that concurrent builds can share the cache.
+ */
+public class ArtifactCache {
+
+    private static final Logger LOG = Logging.getLogger(ArtifactCache.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String ETAG = "etag";
+    private static final String LAST_MODIFIED = "lastModified";
+    private static final ConcurrentMap<File, Object> JVM_LOCKS = new ConcurrentHashMap<>();
+
+    private final File cacheDir;
+
+    public ArtifactCache(File cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    /**
+     * Gets the artifact from the cache, downloading it if needed, and copies it to the target file.
+     *
+     * @param url location of the artifact
+     * @param target destination file (file or its parent directories don't need to exist)
+     */
+    public void download(String url, File target) {
+        File dir = new File(cacheDir, HashUtil.sha256(url));
+        IOUtil.createDirectory(dir);
+
+        Object jvmLock = JVM_LOCKS.computeIfAbsent(dir, k -> new Object());
+        synchronized (jvmLock) {
+            try (FileChannel channel = FileChannel.open(new File(dir, "lock").toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                File artifact = new File(dir, "artifact");
+                fetch(url, dir, artifact);
+                copy(artifact, target);
+            } catch (IOException e) {
+                throw new RuntimeException("Problems downloading " + url + " using artifact cache " + dir, e);
+            }
+        }
+    }
+
+    private void fetch(String url, File dir, File artifact) throws IOException {
+        File part = new File(dir, "artifact.part");
+        File metadataFile = new File(dir, "metadata.properties");
+        Properties metadata = readMetadata(metadataFile, url);
+
+        if (artifact.isFile() && !hasValidators(metadata) && isRelease(url)) {
+            LOG.lifecycle("  Using cached release artifact {}", artifact);
+            return;
+        }
+
+        URLConnection connection = new URL(url).openConnection();
+        try {
+            fetch(url, dir, artifact, part, metadataFile, metadata, connection);
+        } finally {
+            disconnect(connection);
+        }
+    }
+
+    private void fetch(String url, File dir, File artifact, File part, File metadataFile, Properties metadata,
+                       URLConnection connection) throws IOException {
+        boolean resume = false;
+        if (connection instanceof HttpURLConnection) {
+            if (artifact.isFile()) {
+                addValidators(connection, "If-None-Match", "If-Modified-Since", metadata);
+            } else if (part.length() > 0 && hasValidators(metadata)) {
+                connection.setRequestProperty("Range", "bytes=" + part.length() + "-");
+                String validator = metadata.getProperty(ETAG, metadata.getProperty(LAST_MODIFIED));
+                connection.setRequestProperty("If-Range", validator);
+                resume = true;
+            }
+        }
+
+        int status;
+        try {
+            status = connection instanceof HttpURLConnection ? ((HttpURLConnection) connection).getResponseCode() : HttpURLConnection.HTTP_OK;
+        } catch (IOException e) {
+            if (artifact.isFile()) {
+                LOG.lifecycle("  Unable to revalidate cached artifact, using cached copy. Url: {}", url);
+                LOG.debug("Unable to revalidate cached artifact", e);
+                return;
+            }
+            throw e;
+        }
+
+        if (status == HttpURLConnection.HTTP_NOT_MODIFIED && artifact.isFile()) {
+            LOG.lifecycle("  Using cached artifact {}", artifact);
+            return;
+        }
+        if (status == 416 && resume) {
+            //partial content is not valid anymore, start from scratch
+            LOG.info("Server cannot resume download of {}, starting again", url);
+            part.delete();
+            disconnect(connection);
+            fetch(url, dir, artifact);
+            return;
+        }
+        boolean append = resume && status == HttpURLConnection.HTTP_PARTIAL;
+        if (status != HttpURLConnection.HTTP_OK && !append) {
+            throw new IOException("Unexpected response code " + status + " for " + url);
+        }
+
+        if (!append) {
+            if (resume) {
+                LOG.info("Server does not support resuming download of {}, starting again", url);
+            }
+            //remember validators before downloading so that interrupted download can be resumed
+            metadata.remove(ETAG);
+            metadata.remove(LAST_MODIFIED);
+            putIfNotNull(metadata, ETAG, connection.getHeaderField("ETag"));
+            putIfNotNull(metadata, LAST_MODIFIED, connection.getHeaderField("Last-Modified"));
+            writeMetadata(metadataFile, metadata);
+        } else {
+            LOG.lifecycle("  Resuming download from byte {}", part.length());
+        }
+
+        try (InputStream input = connection.getInputStream();
+             OutputStream output = new FileOutputStream(part, append)) {
+            byte[] buf = new byte[BUFFER_SIZE];
+            int n;
+            while ((n = input.read(buf)) != -1) {
+                output.write(buf, 0, n);
+            }
+        }
+
+        verifyChecksum(url, part);
+        moveAtomically(part, artifact);
+    }
+
+    private static void verifyChecksum(String url, File file) throws IOException {
+        String algorithm = "SHA-1";
+        String expected = remoteChecksum(url + ".sha1");
+        if (expected == null) {
+            algorithm = "MD5";
+            expected = remoteChecksum(url + ".md5");
+        }
+        if (expected == null) {
+            LOG.info("No checksum published for {}, skipping verification", url);
+            return;
+        }
+        String actual = HashUtil.hash(new FileInputStream(file), algorithm);
+        if (!actual.equals(expected)) {
+            file.delete();
+            throw new IOException(algorithm + " checksum of downloaded " + url + " does not match.\n" +
+                "  - expected: " + expected + "\n" +
+                "  - actual: " + actual);
+        }
+    }
+
+    /**
+     * Reads checksum file, returns null if it does not exist. Checksum files may contain file name after the hash.
+     */
+    private static String remoteChecksum(String url) {
+        String content;
+        try {
+            content = IOUtil.readFully(new URL(url).openStream());
+        } catch (Exception e) {
+            LOG.debug("Unable to read checksum " + url, e);
+            return null;
+        }
+        String[] parts = content.trim().split("\\s+");
+        return parts[0].isEmpty() ? null : parts[0].toLowerCase();
+    }
+
+    private static boolean hasValidators(Properties metadata) {
+        return metadata.containsKey(ETAG) || metadata.containsKey(LAST_MODIFIED);
+    }
+
+    private static boolean isRelease(String url) {
+        return !url.contains("-SNAPSHOT");
+    }
+
+    private static void disconnect(URLConnection connection) {
+        if (connection instanceof HttpURLConnection) {
+            ((HttpURLConnection) connection).disconnect();
+        }
+    }
+
+    private static void addValidators(URLConnection connection, String etagHeader, String lastModifiedHeader, Properties metadata) {
+        if (metadata.containsKey(ETAG)) {
+            connection.setRequestProperty(etagHeader, metadata.getProperty(ETAG));
+        }
+        if (metadata.containsKey(LAST_MODIFIED)) {
+            connection.setRequestProperty(lastModifiedHeader, metadata.getProperty(LAST_MODIFIED));
+        }
+    }
+
+    private static void putIfNotNull(Properties properties, String key, String value) {
+        if (value != null) {
+            properties.setProperty(key, value);
+        }
+    }
+
+    private static Properties readMetadata(File metadataFile, String url) throws IOException {
+        Properties metadata = new Properties();
+        if (metadataFile.isFile()) {
+            try (InputStream input = new FileInputStream(metadataFile)) {
+                metadata.load(input);
+            }
+        }
+        metadata.setProperty("url", url);
+        return metadata;
+    }
+
+    private static void writeMetadata(File metadataFile, Properties metadata) throws IOException {
+        File tmp = new File(metadataFile.getPath() + ".tmp");
+        try {
+            try (OutputStream output = new FileOutputStream(tmp)) {
+                metadata.store(output, null);
+            }
+            moveAtomically(tmp, metadataFile);
+        } finally {
+            tmp.delete();
+        }
+    }
+
+    private static void copy(File artifact, File target) throws IOException {
+        IOUtil.createParentDirectory(target);
+        File tmp = new File(target.getPath() + ".tmp");
+        try {
+            Files.copy(artifact.toPath(), tmp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            moveAtomically(tmp, target);
+        } finally {
+            tmp.delete();
+        }
+    }
+
+    private static void moveAtomically(File from, File to) throws IOException {
+        try {
+            Files.move(from.toPath(), to.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(from.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,539 @@
+package org.shipkit.internal.comparison.bytecode;
+
+import org.shipkit.internal.util.HashUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compact fingerprint of a class file that ignores differences which do not change the compiled code.
+ * Two compilations of the same sources, possibly on different machines, should have the same fingerprint.
+ * <p>
+ * The fingerprint is SHA-256 of a normalized form of the class, where:
+ * <ul>
+ *     <li>references to the constant pool are replaced by the referenced values, so the order of the constant pool does not matter</li>
+ *     <li>debug information (source file name, line numbers, local variable names) and stack map frames are left out</li>
+ *     <li>fields and methods are sorted</li>
+ * </ul>
+ * In ABI-only mode, only the public API of the class is included: public and protected members with their signatures,
+ * thrown exceptions, constant values and runtime visible annotations, without the method bodies.
+ * Classes that are not public have no ABI fingerprint.
+ * <p>
+ * The class file is parsed directly, without a bytecode library.
+ * Content of unknown attributes is included as is.
+ */
+public class ClassFingerprint {
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_PROTECTED = 0x0004;
+    private static final int ACC_SYNTHETIC = 0x1000;
+    //access flags that are part of the ABI
+    private static final int CLASS_ABI_FLAGS = 0x0001 | 0x0010 | 0x0200 | 0x0400 | 0x2000 | 0x4000;
+    private static final int FIELD_ABI_FLAGS = 0x0001 | 0x0004 | 0x0008 | 0x0010;
+    private static final int METHOD_ABI_FLAGS = 0x0001 | 0x0004 | 0x0008 | 0x0010 | 0x0080 | 0x0400;
+
+    private static final Set<String> DEBUG_ATTRIBUTES = new HashSet<>(Arrays.asList(
+        "SourceFile", "SourceDebugExtension", "LineNumberTable", "LocalVariableTable", "LocalVariableTypeTable",
+        "StackMapTable", "BootstrapMethods"));
+    private static final Set<String> ABI_ATTRIBUTES = new HashSet<>(Arrays.asList(
+        "Signature", "Exceptions", "ConstantValue", "Deprecated", "AnnotationDefault",
+        "RuntimeVisibleAnnotations", "RuntimeVisibleParameterAnnotations"));
+
+    private final byte[] normalized;
+
+    private ClassFingerprint(byte[] normalized) {
+        this.normalized = normalized;
+    }
+
+    /**
+     * Creates fingerprint of given class file, closes the stream
+     *
+     * @param classFile content of the class file
+     * @param abiOnly if only the public API of the class should be included
+     * @return the fingerprint or null when ABI of the class is requested but the class is not public
+     */
+    public static ClassFingerprint of(InputStream classFile, boolean abiOnly) throws IOException {
+        try {
+            return new Parser(new DataInputStream(classFile), abiOnly).parse();
+        } finally {
+            classFile.close();
+        }
+    }
+
+    /**
+     * Hex encoded SHA-256 of the normalized class
+     */
+    public String getSha256() {
+        return HashUtil.toHex(HashUtil.sha256Digest().digest(normalized));
+    }
+
+    /**
+     * Size of the normalized class in bytes
+     */
+    public long getSize() {
+        return normalized.length;
+    }
+
+    private static class Member implements Comparable<Member> {
+        private final int access;
+        private final String name;
+        private final String descriptor;
+        private final List<Attribute> attributes;
+
+        Member(int access, String name, String descriptor, List<Attribute> attributes) {
+            this.access = access;
+            this.name = name;
+            this.descriptor = descriptor;
+            this.attributes = attributes;
+        }
+
+        public int compareTo(Member o) {
+            int c = name.compareTo(o.name);
+            return c != 0 ? c : descriptor.compareTo(o.descriptor);
+        }
+    }
+
+    private static class Attribute {
+        private final String name;
+        private final byte[] content;
+
+        Attribute(String name, byte[] content) {
+            this.name = name;
+            this.content = content;
+        }
+    }
+
+    private static class Parser {
+        private final DataInputStream in;
+        private final boolean abiOnly;
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+
+        private int[] tags;
+        private Object[] values;
+        private int[][] refs;
+        private List<String> bootstrapMethods = Collections.emptyList();
+
+        Parser(DataInputStream in, boolean abiOnly) {
+            this.in = in;
+            this.abiOnly = abiOnly;
+        }
+
+        ClassFingerprint parse() throws IOException {
+            if (in.readInt() != 0xCAFEBABE) {
+                throw new IOException("Not a class file");
+            }
+            in.readUnsignedShort(); //minor version
+            int majorVersion = in.readUnsignedShort();
+            readConstantPool();
+
+            int access = in.readUnsignedShort();
+            String thisClass = constant(in.readUnsignedShort());
+            String superClass = constant(in.readUnsignedShort());
+            List<String> interfaces = new ArrayList<>();
+            for (int i = in.readUnsignedShort(); i > 0; i--) {
+                interfaces.add(constant(in.readUnsignedShort()));
+            }
+            List<Member> fields = readMembers();
+            List<Member> methods = readMembers();
+            List<Attribute> attributes = readAttributes();
+            for (Attribute a : attributes) {
+                if (a.name.equals("BootstrapMethods")) {
+                    bootstrapMethods = readBootstrapMethods(a.content);
+                }
+            }
+
+            if (abiOnly && ((access & ACC_PUBLIC) == 0 || (access & ACC_SYNTHETIC) != 0)) {
+                return null;
+            }
+
+            out.writeShort(majorVersion);
+            out.writeShort(abiOnly ? access & CLASS_ABI_FLAGS : access);
+            writeString(thisClass);
+            writeString(superClass);
+            out.writeShort(interfaces.size());
+            for (String i : interfaces) {
+                writeString(i);
+            }
+            writeMembers(fields, FIELD_ABI_FLAGS);
+            writeMembers(methods, METHOD_ABI_FLAGS);
+            writeAttributes(attributes);
+            out.flush();
+            return new ClassFingerprint(bytes.toByteArray());
+        }
+
+        private void readConstantPool() throws IOException {
+            int count = in.readUnsignedShort();
+            tags = new int[count];
+            values = new Object[count];
+            refs = new int[count][];
+            for (int i = 1; i < count; i++) {
+                int tag = in.readUnsignedByte();
+                tags[i] = tag;
+                switch (tag) {
+                    case 1: //Utf8
+                        values[i] = in.readUTF();
+                        break;
+                    case 3: //Integer
+                        values[i] = "I" + in.readInt();
+                        break;
+                    case 4: //Float, raw bits so that NaN values are compared exactly
+                        values[i] = "F" + in.readInt();
+                        break;
+                    case 5: //Long, takes two entries
+                        values[i++] = "J" + in.readLong();
+                        break;
+                    case 6: //Double, takes two entries
+                        values[i++] = "D" + in.readLong();
+                        break;
+                    case 7: //Class
+                    case 8: //String
+                    case 16: //MethodType
+                    case 19: //Module
+                    case 20: //Package
+                        refs[i] = new int[]{in.readUnsignedShort()};
+                        break;
+                    case 9: //Fieldref
+                    case 10: //Methodref
+                    case 11: //InterfaceMethodref
+                    case 12: //NameAndType
+                    case 17: //Dynamic
+                    case 18: //InvokeDynamic
+                        refs[i] = new int[]{in.readUnsignedShort(), in.readUnsignedShort()};
+                        break;
+                    case 15: //MethodHandle
+                        refs[i] = new int[]{in.readUnsignedByte(), in.readUnsignedShort()};
+                        break;
+                    default:
+                        throw new IOException("Unknown constant pool tag " + tag + " at index " + i);
+                }
+            }
+        }
+
+        /**
+         * Resolves constant pool entry to a string that does not depend on the constant pool order
+         */
+        private String constant(int index) {
+            if (index == 0) {
+                return "";
+            }
+            int[] r = refs[index];
+            switch (tags[index]) {
+                case 7:
+                    return "C" + constant(r[0]);
+                case 8:
+                    return "S" + constant(r[0]);
+                case 16:
+                    return "MT" + constant(r[0]);
+                case 19:
+                    return "M" + constant(r[0]);
+                case 20:
+                    return "P" + constant(r[0]);
+                case 9:
+                case 10:
+                case 11:
+                    return "R" + tags[index] + constant(r[0]) + "." + constant(r[1]);
+                case 12:
+                    return constant(r[0]) + ":" + constant(r[1]);
+                case 15:
+                    return "MH" + r[0] + constant(r[1]);
+                case 17:
+                case 18:
+                    return "BSM" + tags[index] + (r[0] < bootstrapMethods.size() ? bootstrapMethods.get(r[0]) : "#" + r[0])
+                        + constant(r[1]);
+                default:
+                    return (String) values[index];
+            }
+        }
+
+        private List<String> readBootstrapMethods(byte[] content) throws IOException {
+            DataInputStream a = new DataInputStream(new ByteArrayInputStream(content));
+            List<String> result = new ArrayList<>();
+            for (int i = a.readUnsignedShort(); i > 0; i--) {
+                StringBuilder sb = new StringBuilder(constant(a.readUnsignedShort())).append("(");
+                for (int j = a.readUnsignedShort(); j > 0; j--) {
+                    sb.append(constant(a.readUnsignedShort())).append(",");
+                }
+                result.add(sb.append(")").toString());
+            }
+            return result;
+        }
+
+        private List<Member> readMembers() throws IOException {
+            List<Member> members = new ArrayList<>();
+            for (int i = in.readUnsignedShort(); i > 0; i--) {
+                int access = in.readUnsignedShort();
+                String name = constant(in.readUnsignedShort());
+                String descriptor = constant(in.readUnsignedShort());
+                members.add(new Member(access, name, descriptor, readAttributes()));
+            }
+            return members;
+        }
+
+        private List<Attribute> readAttributes() throws IOException {
+            List<Attribute> attributes = new ArrayList<>();
+            for (int i = in.readUnsignedShort(); i > 0; i--) {
+                String name = constant(in.readUnsignedShort());
+                byte[] content = new byte[in.readInt()];
+                in.readFully(content);
+                attributes.add(new Attribute(name, content));
+            }
+            return attributes;
+        }
+
+        private void writeMembers(List<Member> members, int abiFlags) throws IOException {
+            List<Member> included = new ArrayList<>();
+            for (Member m : members) {
+                if (!abiOnly || ((m.access & (ACC_PUBLIC | ACC_PROTECTED)) != 0 && (m.access & ACC_SYNTHETIC) == 0)) {
+                    included.add(m);
+                }
+            }
+            Collections.sort(included);
+            out.writeShort(included.size());
+            for (Member m : included) {
+                out.writeShort(abiOnly ? m.access & abiFlags : m.access);
+                writeString(m.name);
+                writeString(m.descriptor);
+                writeAttributes(m.attributes);
+            }
+        }
+
+        private void writeAttributes(List<Attribute> attributes) throws IOException {
+            for (Attribute a : attributes) {
+                if (DEBUG_ATTRIBUTES.contains(a.name) || (abiOnly && !ABI_ATTRIBUTES.contains(a.name))) {
+                    continue;
+                }
+                writeString(a.name);
+                DataInputStream content = new DataInputStream(new ByteArrayInputStream(a.content));
+                if (a.name.equals("Code")) {
+                    writeCode(content);
+                } else if (a.name.equals("Signature") || a.name.equals("ConstantValue")
+                    || a.name.equals("NestHost") || a.name.equals("ModuleMainClass")) {
+                    writeConstant(content);
+                } else if (a.name.equals("Exceptions") || a.name.equals("NestMembers") || a.name.equals("PermittedSubclasses")) {
+                    int count = content.readUnsignedShort();
+                    out.writeShort(count);
+                    for (int i = 0; i < count; i++) {
+                        writeConstant(content);
+                    }
+                } else if (a.name.equals("InnerClasses")) {
+                    int count = content.readUnsignedShort();
+                    out.writeShort(count);
+                    for (int i = 0; i < count; i++) {
+                        writeConstant(content);
+                        writeConstant(content);
+                        writeConstant(content);
+                        out.writeShort(content.readUnsignedShort());
+                    }
+                } else if (a.name.equals("EnclosingMethod")) {
+                    writeConstant(content);
+                    writeConstant(content);
+                } else if (a.name.equals("MethodParameters")) {
+                    int count = content.readUnsignedByte();
+                    out.writeByte(count);
+                    for (int i = 0; i < count; i++) {
+                        writeConstant(content);
+                        out.writeShort(content.readUnsignedShort());
+                    }
+                } else if (a.name.equals("RuntimeVisibleAnnotations") || a.name.equals("RuntimeInvisibleAnnotations")) {
+                    writeAnnotations(content);
+                } else if (a.name.equals("RuntimeVisibleParameterAnnotations") || a.name.equals("RuntimeInvisibleParameterAnnotations")) {
+                    int count = content.readUnsignedByte();
+                    out.writeByte(count);
+                    for (int i = 0; i < count; i++) {
+                        writeAnnotations(content);
+                    }
+                } else if (a.name.equals("AnnotationDefault")) {
+                    writeElementValue(content);
+                } else {
+                    out.writeInt(a.content.length);
+                    out.write(a.content);
+                }
+            }
+            //marks the end of the attributes
+            writeString("");
+        }
+
+        private void writeConstant(DataInputStream content) throws IOException {
+            writeString(constant(content.readUnsignedShort()));
+        }
+
+        private void writeAnnotations(DataInputStream content) throws IOException {
+            int count = content.readUnsignedShort();
+            out.writeShort(count);
+            for (int i = 0; i < count; i++) {
+                writeAnnotation(content);
+            }
+        }
+
+        private void writeAnnotation(DataInputStream content) throws IOException {
+            writeConstant(content);
+            int pairs = content.readUnsignedShort();
+            out.writeShort(pairs);
+            for (int i = 0; i < pairs; i++) {
+                writeConstant(content);
+                writeElementValue(content);
+            }
+        }
+
+        private void writeElementValue(DataInputStream content) throws IOException {
+            int tag = content.readUnsignedByte();
+            out.writeByte(tag);
+            switch (tag) {
+                case 'e':
+                    writeConstant(content);
+                    writeConstant(content);
+                    break;
+                case '@':
+                    writeAnnotation(content);
+                    break;
+                case '[':
+                    int count = content.readUnsignedShort();
+                    out.writeShort(count);
+                    for (int i = 0; i < count; i++) {
+                        writeElementValue(content);
+                    }
+                    break;
+                default: //constant values and class literals
+                    writeConstant(content);
+            }
+        }
+
+        private void writeCode(DataInputStream content) throws IOException {
+            out.writeShort(content.readUnsignedShort()); //max stack
+            out.writeShort(content.readUnsignedShort()); //max locals
+            byte[] code = new byte[content.readInt()];
+            content.readFully(code);
+            writeInstructions(code);
+            int exceptionHandlers = content.readUnsignedShort();
+            out.writeShort(exceptionHandlers);
+            for (int i = 0; i < exceptionHandlers; i++) {
+                out.writeShort(content.readUnsignedShort()); //start
+                out.writeShort(content.readUnsignedShort()); //end
+                out.writeShort(content.readUnsignedShort()); //handler
+                writeConstant(content); //catch type
+            }
+            //attributes of the code have the same layout as other attributes
+            List<Attribute> attributes = new ArrayList<>();
+            for (int i = content.readUnsignedShort(); i > 0; i--) {
+                String name = constant(content.readUnsignedShort());
+                byte[] attribute = new byte[content.readInt()];
+                content.readFully(attribute);
+                attributes.add(new Attribute(name, attribute));
+            }
+            writeAttributes(attributes);
+        }
+
+        /**
+         * Writes instructions with constant pool indexes replaced by resolved constants.
+         * Other operands, including branch offsets, are written as is.
+         */
+        private void writeInstructions(byte[] code) throws IOException {
+            int pc = 0;
+            while (pc < code.length) {
+                int opcode = code[pc] & 0xFF;
+                int length = instructionLength(code, pc);
+                switch (opcode) {
+                    case 0x12: //ldc
+                        out.writeByte(0x12);
+                        writeString(constant(code[pc + 1] & 0xFF));
+                        break;
+                    case 0x13: //ldc_w, the same as ldc, wide index depends on the constant pool order
+                        out.writeByte(0x12);
+                        writeString(constant(u2(code, pc + 1)));
+                        break;
+                    case 0x14: //ldc2_w
+                    case 0xb2: //getstatic
+                    case 0xb3: //putstatic
+                    case 0xb4: //getfield
+                    case 0xb5: //putfield
+                    case 0xb6: //invokevirtual
+                    case 0xb7: //invokespecial
+                    case 0xb8: //invokestatic
+                    case 0xb9: //invokeinterface
+                    case 0xba: //invokedynamic
+                    case 0xbb: //new
+                    case 0xbd: //anewarray
+                    case 0xc0: //checkcast
+                    case 0xc1: //instanceof
+                    case 0xc5: //multianewarray
+                        out.writeByte(opcode);
+                        writeString(constant(u2(code, pc + 1)));
+                        out.write(code, pc + 3, length - 3);
+                        break;
+                    case 0xaa: //tableswitch
+                    case 0xab: //lookupswitch
+                        //padding depends on the position of the instruction
+                        int operands = (pc + 4) & ~3;
+                        out.writeByte(opcode);
+                        out.write(code, operands, pc + length - operands);
+                        break;
+                    default:
+                        out.write(code, pc, length);
+                }
+                pc += length;
+            }
+        }
+
+        private static int instructionLength(byte[] code, int pc) throws IOException {
+            int opcode = code[pc] & 0xFF;
+            if (opcode == 0xaa) {
+                int operands = (pc + 4) & ~3;
+                int low = s4(code, operands + 4);
+                int high = s4(code, operands + 8);
+                return operands - pc + 12 + (high - low + 1) * 4;
+            }
+            if (opcode == 0xab) {
+                int operands = (pc + 4) & ~3;
+                return operands - pc + 8 + s4(code, operands + 4) * 8;
+            }
+            if (opcode == 0xc4) { //wide
+                return (code[pc + 1] & 0xFF) == 0x84 ? 6 : 4;
+            }
+            if (opcode == 0x10 || opcode == 0x12 || (opcode >= 0x15 && opcode <= 0x19) || (opcode >= 0x36 && opcode <= 0x3a)
+                || opcode == 0xa9 || opcode == 0xbc) {
+                return 2;
+            }
+            if (opcode == 0x11 || opcode == 0x13 || opcode == 0x14 || opcode == 0x84 || (opcode >= 0x99 && opcode <= 0xa8)
+                || (opcode >= 0xb2 && opcode <= 0xb8) || opcode == 0xbb || opcode == 0xbd || opcode == 0xc0 || opcode == 0xc1
+                || opcode == 0xc6 || opcode == 0xc7) {
+                return 3;
+            }
+            if (opcode == 0xc5) {
+                return 4;
+            }
+            if (opcode == 0xb9 || opcode == 0xba || opcode == 0xc8 || opcode == 0xc9) {
+                return 5;
+            }
+            if (opcode > 0xc9) {
+                throw new IOException("Unknown opcode " + opcode + " at " + pc);
+            }
+            return 1;
+        }
+
+        private static int u2(byte[] code, int i) {
+            return ((code[i] & 0xFF) << 8) | (code[i + 1] & 0xFF);
+        }
+
+        private static int s4(byte[] code, int i) {
+            return ((code[i] & 0xFF) << 24) | ((code[i + 1] & 0xFF) << 16) | ((code[i + 2] & 0xFF) << 8) | (code[i + 3] & 0xFF);
+        }
+
+        private void writeString(String s) throws IOException {
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(b.length);
+            out.write(b);
+        }
+    }
+}
@@ -4,18 +4,31 @@ public class Diff {
 
     private final boolean filesEqual;
     private final String diffOutput;
+    private final int addedFiles;
+    private final int removedFiles;
+    private final int changedFiles;
 
-    private Diff(boolean filesEqual, String diffOutput) {
+    private Diff(boolean filesEqual, String diffOutput, int addedFiles, int removedFiles, int changedFiles) {
         this.filesEqual = filesEqual;
         this.diffOutput = diffOutput;
+        this.addedFiles = addedFiles;
+        this.removedFiles = removedFiles;
+        this.changedFiles = changedFiles;
     }
 
     public static Diff ofEqualFiles() {
-        return new Diff(true, "");
+        return new Diff(true, "", 0, 0, 0);
     }
 
     public static Diff ofDifferentFiles(String diffOutput) {
-        return new Diff(false, diffOutput);
+        return new Diff(false, diffOutput, 0, 0, 0);
+    }
+
+    /**
+     * Difference of directories (or zip files) with number of added, removed and changed files
+     */
+    public static Diff ofDifferentFiles(String diffOutput, int addedFiles, int removedFiles, int changedFiles) {
+        return new Diff(false, diffOutput, addedFiles, removedFiles, changedFiles);
     }
 
     public boolean areFilesEqual() {
@@ -25,4 +38,25 @@ public class Diff {
     public String getDiffOutput() {
         return diffOutput;
     }
+
+    /**
+     * Number of added files when directories are compared, otherwise 0
+     */
+    public int getAddedFiles() {
+        return addedFiles;
+    }
+
+    /**
+     * Number of removed files when directories are compared, otherwise 0
+     */
+    public int getRemovedFiles() {
+        return removedFiles;
+    }
+
+    /**
+     * Number of changed files when directories are compared, otherwise 0
+     */
+    public int getChangedFiles() {
+        return changedFiles;
+    }
 }
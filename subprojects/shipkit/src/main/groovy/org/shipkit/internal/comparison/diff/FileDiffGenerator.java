@@ -1,16 +1,57 @@
 package org.shipkit.internal.comparison.diff;
 
+import difflib.ChangeDelta;
+import difflib.Chunk;
+import difflib.DeleteDelta;
+import difflib.Delta;
 import difflib.DiffUtils;
+import difflib.InsertDelta;
 import difflib.Patch;
 import org.shipkit.internal.gradle.util.StringUtil;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Generates diff of two files.
+ * <p>
+ * Myers diff algorithm can take quadratic time and memory on huge, very different files.
+ * To keep comparison of publications bounded, the common prefix and suffix are stripped before diffing,
+ * and when the files differ in more than {@link #getMaxEditDistance()} lines only a short summary is generated.
+ */
 public class FileDiffGenerator {
 
+    /**
+     * Default maximum number of added and removed lines for which diff is generated
+     */
+    public static final int DEFAULT_MAX_EDIT_DISTANCE = 1000;
+
     private static final String INDENTATION = "    ";
 
+    private final int maxEditDistance;
+
+    public FileDiffGenerator() {
+        this(DEFAULT_MAX_EDIT_DISTANCE);
+    }
+
+    /**
+     * @param maxEditDistance maximum number of added and removed lines for which diff is generated,
+     *                        see {@link #getMaxEditDistance()}
+     */
+    public FileDiffGenerator(int maxEditDistance) {
+        this.maxEditDistance = maxEditDistance;
+    }
+
+    /**
+     * Maximum number of added and removed lines (changed line counts twice) for which diff is generated.
+     * If files differ more, only summary of the difference is generated.
+     */
+    public int getMaxEditDistance() {
+        return maxEditDistance;
+    }
+
     /**
      * See {@link #generateDiff(String, String, int)}
      */
@@ -25,7 +66,28 @@ public class FileDiffGenerator {
         List<String> previousLines = breakIntoLines(previousContent);
         List<String> currentLines = breakIntoLines(currentContent);
 
-        Patch<String> patch = DiffUtils.diff(previousLines, currentLines);
+        //each distinct line gets an id so that lines are hashed and compared only once
+        Map<String, Integer> ids = new HashMap<>();
+        int[] previousIds = lineIds(previousLines, ids);
+        int[] currentIds = lineIds(currentLines, ids);
+
+        int prefix = commonPrefix(previousIds, currentIds);
+        int suffix = commonSuffix(previousIds, currentIds, prefix);
+        if (prefix == previousIds.length && prefix == currentIds.length) {
+            return ""; // no differences found
+        }
+
+        if (!isEditDistanceWithin(previousIds, prefix, previousIds.length - suffix,
+                currentIds, prefix, currentIds.length - suffix, maxEditDistance)) {
+            return INDENTATION + "Files differ in more than " + maxEditDistance + " lines, diff is not generated." + getLineSeparator()
+                + INDENTATION + "Previous file has " + previousLines.size() + " lines, current file has " + currentLines.size()
+                + " lines, first difference is at line " + (prefix + 1) + ".";
+        }
+
+        Patch<String> changedLinesPatch = DiffUtils.diff(
+            previousLines.subList(prefix, previousLines.size() - suffix),
+            currentLines.subList(prefix, currentLines.size() - suffix));
+        Patch<String> patch = shift(changedLinesPatch, prefix);
 
         List<String> unifiedDiff = DiffUtils.generateUnifiedDiff("", "", previousLines, patch, context);
 
@@ -38,6 +100,91 @@ public class FileDiffGenerator {
         return INDENTATION + StringUtil.join(diffWithoutFileNames, getLineSeparator() + INDENTATION);
     }
 
+    private static int[] lineIds(List<String> lines, Map<String, Integer> ids) {
+        int[] result = new int[lines.size()];
+        for (int i = 0; i < result.length; i++) {
+            Integer id = ids.get(lines.get(i));
+            if (id == null) {
+                id = ids.size();
+                ids.put(lines.get(i), id);
+            }
+            result[i] = id;
+        }
+        return result;
+    }
+
+    private static int commonPrefix(int[] a, int[] b) {
+        int i = 0;
+        while (i < a.length && i < b.length && a[i] == b[i]) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int commonSuffix(int[] a, int[] b, int prefix) {
+        int i = 0;
+        while (i < a.length - prefix && i < b.length - prefix && a[a.length - 1 - i] == b[b.length - 1 - i]) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Forward pass of Myers algorithm that gives up after maxD edits.
+     * Uses O(maxD) memory and O((N + M) * maxD) time, as opposed to the full diff which is not bounded.
+     */
+    static boolean isEditDistanceWithin(int[] a, int aStart, int aEnd, int[] b, int bStart, int bEnd, int maxD) {
+        int n = aEnd - aStart;
+        int m = bEnd - bStart;
+        if (Math.abs(n - m) > maxD) {
+            return false;
+        }
+        int offset = maxD + 1;
+        int[] v = new int[2 * maxD + 3];
+        for (int d = 0; d <= maxD; d++) {
+            for (int k = -d; k <= d; k += 2) {
+                int x;
+                if (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])) {
+                    x = v[offset + k + 1];
+                } else {
+                    x = v[offset + k - 1] + 1;
+                }
+                int y = x - k;
+                while (x < n && y < m && a[aStart + x] == b[bStart + y]) {
+                    x++;
+                    y++;
+                }
+                v[offset + k] = x;
+                if (x >= n && y >= m) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static Patch<String> shift(Patch<String> patch, int offset) {
+        if (offset == 0) {
+            return patch;
+        }
+        Patch<String> result = new Patch<>();
+        for (Delta<String> delta : patch.getDeltas()) {
+            Chunk<String> original = new Chunk<>(delta.getOriginal().getPosition() + offset, delta.getOriginal().getLines());
+            Chunk<String> revised = new Chunk<>(delta.getRevised().getPosition() + offset, delta.getRevised().getLines());
+            switch (delta.getType()) {
+                case INSERT:
+                    result.addDelta(new InsertDelta<>(original, revised));
+                    break;
+                case DELETE:
+                    result.addDelta(new DeleteDelta<>(original, revised));
+                    break;
+                default:
+                    result.addDelta(new ChangeDelta<>(original, revised));
+            }
+        }
+        return result;
+    }
+
     private List<String> breakIntoLines(String previousContent) {
         return Arrays.asList(previousContent.split(getLineSeparator()));
     }
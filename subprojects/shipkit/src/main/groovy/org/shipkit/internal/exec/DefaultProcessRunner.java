@@ -6,12 +6,23 @@ import org.gradle.api.logging.Logging;
 import org.shipkit.internal.notes.util.IOUtil;
 import org.shipkit.internal.notes.util.ReleaseNotesException;
 
-import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static java.util.Arrays.asList;
 import static org.shipkit.internal.gradle.util.StringUtil.join;
@@ -48,72 +59,131 @@ public class DefaultProcessRunner implements ProcessRunner {
         return run(LOG, commandLine);
     }
 
+    public void runWithoutOutput(List<String> commandLine) {
+        run(LOG, commandLine, false, null, Collections.<String, String>emptyMap());
+    }
+
+    public String run(List<String> commandLine, String input, Map<String, String> environment) {
+        return run(LOG, commandLine, true, input, environment);
+    }
+
     String run(Logger log, List<String> commandLine) {
+        return run(log, commandLine, true, null, Collections.<String, String>emptyMap());
+    }
+
+    private String run(Logger log, List<String> commandLine, boolean captureOutput, String input, Map<String, String> environment) {
+        SecretMasker masker = new SecretMasker(secretValues);
         // WARNING!!! ensure that masked command line is used for all logging!!!
-        String maskedCommandLine = mask(join(commandLine, " "));
+        String maskedCommandLine = masker.mask(join(commandLine, " "));
         log.lifecycle("  Executing:\n    " + maskedCommandLine);
 
-        ProcessResult result = executeProcess(commandLine, maskedCommandLine);
+        //without the log file, captured output is the only way to report the failure
+        ProcessResult result = executeProcess(commandLine, maskedCommandLine, masker, captureOutput || outputLogFile == null,
+            input, environment);
 
         if (result.getExitValue() != 0) {
             return executionOfCommandFailed(maskedCommandLine, result);
         } else {
             String output = result.getOutput();
-            LOG.info("Output from external process '{}':\n{}", maskedCommandLine, output);
+            if (output != null) {
+                LOG.info("Output from external process '{}':\n{}", maskedCommandLine, output);
+            } else {
+                LOG.info("Output from external process '{}' stored in {}", maskedCommandLine, outputLogFile);
+            }
             return output;
         }
     }
 
-    private ProcessResult executeProcess(List<String> commandLine, String maskedCommandLine) {
+    private ProcessResult executeProcess(List<String> commandLine, String maskedCommandLine, SecretMasker masker, boolean captureOutput,
+                                         String input, Map<String, String> environment) {
         ProcessResult result;
+        long startMillis = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        int exitCode = -1;
+        CountingInputStream processOutput = null;
         try {
-            Process process = new ProcessBuilder(commandLine).directory(workDir).redirectErrorStream(true).start();
-            String output = mask(readFully(new BufferedReader(new InputStreamReader(process.getInputStream()))));
-            storeOutputToFile(output);
+            ProcessBuilder builder = new ProcessBuilder(commandLine).directory(workDir).redirectErrorStream(true);
+            builder.environment().putAll(environment);
+            Process process = builder.start();
+            //written on a separate thread because the process can produce output before it reads all input
+            CompletableFuture<Void> written = input != null ? writeInput(process.getOutputStream(), input) : null;
+            //output is masked as it arrives and written to the log file and/or memory, the secrets are never stored
+            StringWriter captured = captureOutput ? new StringWriter() : null;
+            Writer output = masker.maskingWriter(new TeeWriter(captured, openOutputFile()));
+            processOutput = new CountingInputStream(process.getInputStream());
+            try {
+                copyOutput(new InputStreamReader(processOutput), output);
+            } finally {
+                output.close();
+            }
+            if (written != null) {
+                written.join();
+            }
 
-            process.waitFor();
+            exitCode = process.waitFor();
 
-            result = new ProcessResult(output, process);
+            result = new ProcessResult(captured != null ? captured.toString() : null, process);
         } catch (Exception e) {
             throw new ReleaseNotesException("Problems executing command:\n  " + maskedCommandLine, e);
+        } finally {
+            ProcessMetrics.getInstance().record(maskedCommandLine, startMillis, System.nanoTime() - startNanos, exitCode,
+                processOutput != null ? processOutput.getCount() : 0);
         }
         return result;
     }
 
-    private String mask(String text) {
-        if (secretValues.isEmpty()) {
-            return text;
-        }
-        for (String s : secretValues) {
-            if (s != null) {
-                text = text.replace(s, "[SECRET]");
+    private static CompletableFuture<Void> writeInput(OutputStream stdin, String input) {
+        return CompletableFuture.runAsync(() -> {
+            try (Writer writer = new OutputStreamWriter(stdin)) {
+                writer.write(input);
+            } catch (IOException e) {
+                throw new RuntimeException("Problems writing to standard input of the process", e);
             }
-        }
-        return text;
+        });
     }
 
-    private static String readFully(BufferedReader reader) throws IOException {
+    /**
+     * Copies the output, line separators are normalized to '\n' and the last line is always terminated,
+     * the same way as when the output is read line by line
+     */
+    private static void copyOutput(Reader reader, Writer output) throws IOException {
         try {
-            StringBuilder sb = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                sb.append(line).append("\n");
+            char[] buffer = new char[8192];
+            char[] normalized = new char[buffer.length];
+            boolean afterCarriageReturn = false;
+            boolean lineTerminated = true;
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                int length = 0;
+                for (int i = 0; i < read; i++) {
+                    char c = buffer[i];
+                    if (c == '\n' && afterCarriageReturn) {
+                        afterCarriageReturn = false;
+                        continue;
+                    }
+                    afterCarriageReturn = c == '\r';
+                    normalized[length++] = afterCarriageReturn ? '\n' : c;
+                }
+                if (length > 0) {
+                    lineTerminated = normalized[length - 1] == '\n';
+                    output.write(normalized, 0, length);
+                }
+            }
+            if (!lineTerminated) {
+                output.write('\n');
             }
-            return sb.toString();
         } finally {
             reader.close();
         }
     }
 
-    private void storeOutputToFile(String content) {
-        if (outputLogFile != null) {
-            //TODO ms - can we make sure that the output does not have sensitive secret values
-            //should we mask secret values in the output stored in file, too?
-            //TODO SF - good question. Currently secret values are masked (see invocation of this method)
-            //On Travis CI you can't see files in workspace, but maybe it would be good to publish this outputs somewhere
-            //for example gist.github.com (?), then we should mask secrets
-            IOUtil.writeFile(outputLogFile, content);
+    private Writer openOutputFile() throws IOException {
+        if (outputLogFile == null) {
+            return null;
         }
+        //secret values are masked before the output reaches the file
+        IOUtil.createParentDirectory(outputLogFile);
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputLogFile), StandardCharsets.UTF_8));
     }
 
     private String executionOfCommandFailed(String maskedCommandLine, ProcessResult result) {
@@ -143,6 +213,85 @@ public class DefaultProcessRunner implements ProcessRunner {
         return this;
     }
 
+    /**
+     * Writes to both writers, any of them can be null
+     */
+    private static class TeeWriter extends Writer {
+        private final Writer first;
+        private final Writer second;
+
+        TeeWriter(Writer first, Writer second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            if (first != null) {
+                first.write(cbuf, off, len);
+            }
+            if (second != null) {
+                second.write(cbuf, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (first != null) {
+                first.flush();
+            }
+            if (second != null) {
+                second.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (first != null) {
+                    first.close();
+                }
+            } finally {
+                if (second != null) {
+                    second.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts bytes read from the process output, for {@link ProcessMetrics}
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+
     private static class ProcessResult {
         private final String output;
         private final Process process;
@@ -20,4 +20,12 @@ public class Exec {
     public static ProcessRunner getProcessRunner(File workDir, File outputLogFile) {
         return new DefaultProcessRunner(workDir, outputLogFile);
     }
+
+    /**
+     * Provides git object reader for given work tree, shared by all users of the work tree.
+     * See {@link GitCatFileSession}.
+     */
+    public static GitCatFileSession getGitCatFileSession(File workDir) {
+        return GitCatFileSession.forWorkDir(workDir);
+    }
 }
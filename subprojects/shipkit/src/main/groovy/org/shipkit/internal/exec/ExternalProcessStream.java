@@ -2,6 +2,7 @@ package org.shipkit.internal.exec;
 
 import org.shipkit.internal.util.ArgumentValidation;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
@@ -15,20 +16,44 @@ public class ExternalProcessStream extends OutputStream {
     private final PrintStream output;
     private final String outputPrefix;
 
+    //incomplete line, only when lines are buffered
+    private final ByteArrayOutputStream pendingLine;
+
     private boolean writePrefix = true;
+    //written by the thread that copies the process output, read when the process completed
+    private volatile long writtenBytes;
 
     /**
      * @param outputPrefix the prefix to be used
      * @param output
      */
     public ExternalProcessStream(String outputPrefix, PrintStream output) {
+        this(outputPrefix, output, false);
+    }
+
+    /**
+     * @param outputPrefix the prefix to be used
+     * @param output
+     * @param bufferLines if true, only complete lines are written to the output so that they are not mixed with
+     *                    the output of other processes written at the same time. The last incomplete line is written on {@link #close()}.
+     */
+    public ExternalProcessStream(String outputPrefix, PrintStream output, boolean bufferLines) {
         ArgumentValidation.notNull(outputPrefix, "outputPrefix", output, "output");
         this.outputPrefix = outputPrefix;
         this.output = output;
+        this.pendingLine = bufferLines ? new ByteArrayOutputStream() : null;
     }
 
     @Override
     public void write(int b) throws IOException {
+        writtenBytes++;
+        if (pendingLine != null) {
+            pendingLine.write(b);
+            if (b == '\n') {
+                writePendingLine();
+            }
+            return;
+        }
         //maybe write to output
         maybeOutput(b);
 
@@ -38,6 +63,95 @@ public class ExternalProcessStream extends OutputStream {
         }
     }
 
+    /**
+     * Same output as writing the bytes one by one, but the prefix and each line are written at once
+     * and the output is flushed once the lines are complete.
+     */
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || off + len > b.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        writtenBytes += len;
+        int end = off + len;
+        if (pendingLine != null) {
+            int start = off;
+            while (start < end) {
+                int newLine = indexOfNewLine(b, start, end);
+                int lineEnd = newLine < 0 ? end : newLine + 1;
+                pendingLine.write(b, start, lineEnd - start);
+                if (newLine >= 0) {
+                    writePendingLine();
+                }
+                start = lineEnd;
+            }
+            return;
+        }
+        boolean lineCompleted = false;
+        //prefix and line are not interleaved with output of other threads
+        synchronized (output) {
+            int start = off;
+            while (start < end) {
+                int newLine = indexOfNewLine(b, start, end);
+                int lineEnd = newLine < 0 ? end : newLine + 1;
+                if (writePrefix) {
+                    output.print(outputPrefix);
+                    writePrefix = false;
+                }
+                output.write(b, start, lineEnd - start);
+                if (newLine >= 0) {
+                    writePrefix = true;
+                    lineCompleted = true;
+                }
+                start = lineEnd;
+            }
+            if (lineCompleted) {
+                output.flush();
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        output.flush();
+    }
+
+    /**
+     * Writes the last incomplete line when lines are buffered. Does not close the underlying output.
+     */
+    @Override
+    public void close() throws IOException {
+        if (pendingLine != null && pendingLine.size() > 0) {
+            writePendingLine();
+        }
+        output.flush();
+    }
+
+    /**
+     * Number of bytes written by the process, without the prefixes
+     */
+    public long getWrittenBytes() {
+        return writtenBytes;
+    }
+
+    private void writePendingLine() throws IOException {
+        synchronized (output) {
+            output.print(outputPrefix);
+            pendingLine.writeTo(output);
+            output.flush();
+        }
+        pendingLine.reset();
+    }
+
+    private static int indexOfNewLine(byte[] b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (b[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     private void maybeOutput(int b) {
         //optionally write prefix so that terminal looks clean
         if (writePrefix) {
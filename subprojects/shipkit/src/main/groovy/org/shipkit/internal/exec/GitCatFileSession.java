@@ -0,0 +1,256 @@
+package org.shipkit.internal.exec;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Long-lived 'git cat-file --batch' process for reading git objects, shared by all users of the same work tree.
+ * Starting git for every query costs tens of milliseconds, a query to the running process costs microseconds.
+ * <p>
+ * The process is started on first query and stopped when it is not used for a while,
+ * so that no git processes are left behind in the Gradle daemon. Stopped session starts the process again when needed.
+ * The idle check runs in a daemon thread only while some process is running,
+ * so that no thread keeps the plugin classes loaded in the Gradle daemon.
+ */
+public class GitCatFileSession implements Closeable {
+
+    private static final Logger LOG = Logging.getLogger(GitCatFileSession.class);
+
+    private static final long IDLE_TIMEOUT_MILLIS = 10000;
+    private static final Map<File, GitCatFileSession> SESSIONS = new ConcurrentHashMap<>();
+
+    //guarded by GitCatFileSession.class
+    private static ScheduledExecutorService idleCheck;
+    private static int runningProcesses;
+
+    private final File workDir;
+    private Process process;
+    private OutputStream requests;
+    private InputStream responses;
+    private long lastUsed;
+
+    GitCatFileSession(File workDir) {
+        this.workDir = workDir;
+    }
+
+    /**
+     * Session shared by all users of given work tree
+     */
+    public static GitCatFileSession forWorkDir(File workDir) {
+        File dir;
+        try {
+            dir = workDir.getCanonicalFile();
+        } catch (IOException e) {
+            dir = workDir.getAbsoluteFile();
+        }
+        return SESSIONS.computeIfAbsent(dir, GitCatFileSession::new);
+    }
+
+    /**
+     * Reads the object identified by given revision, e.g. "v1.0.0^{commit}", "HEAD:build.gradle" or full object id.
+     *
+     * @return the object or null if the revision does not identify any object
+     * @throws RuntimeException when git cannot be executed
+     */
+    public synchronized GitObject read(String revision) {
+        if (revision.indexOf('\n') >= 0 || revision.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("Revision must not contain line separators: " + revision);
+        }
+        try {
+            if (process == null) {
+                start();
+            }
+            lastUsed = System.currentTimeMillis();
+            requests.write((revision + "\n").getBytes(StandardCharsets.UTF_8));
+            requests.flush();
+
+            //"<id> <type> <size>", or "<revision> missing" / "<revision> ambiguous"
+            String header = readLine();
+            String[] parts = header.split(" ");
+            if (parts.length != 3 || !parts[0].matches("[0-9a-f]{40,64}") || !parts[2].matches("\\d+")) {
+                return null;
+            }
+            byte[] content = readBytes(Integer.parseInt(parts[2]));
+            //content is followed by line feed
+            responses.read();
+            return new GitObject(parts[0], parts[1], content);
+        } catch (IOException e) {
+            close();
+            throw new RuntimeException("Problems reading git object '" + revision + "' in " + workDir, e);
+        }
+    }
+
+    private void start() throws IOException {
+        LOG.info("Starting 'git cat-file --batch' in {}", workDir);
+        //error output is not merged so that it is not confused with the responses, e.g. when work dir is not a git repository
+        process = new ProcessBuilder("git", "cat-file", "--batch").directory(workDir).start();
+        requests = process.getOutputStream();
+        responses = new BufferedInputStream(process.getInputStream());
+        drainErrors(process.getErrorStream());
+        processStarted();
+    }
+
+    //git would block when the pipe buffer of error output fills up
+    private void drainErrors(final InputStream errors) {
+        Thread t = new Thread(() -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(errors, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    LOG.info("git cat-file in {}: {}", workDir, line);
+                }
+            } catch (IOException e) {
+                LOG.debug("Problems reading git cat-file error output", e);
+            }
+        }, "git cat-file error output");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private static synchronized void processStarted() {
+        if (runningProcesses++ == 0) {
+            idleCheck = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "git cat-file idle check");
+                t.setDaemon(true);
+                return t;
+            });
+            idleCheck.scheduleWithFixedDelay(() -> {
+                for (GitCatFileSession session : SESSIONS.values()) {
+                    session.closeIfIdle(IDLE_TIMEOUT_MILLIS);
+                }
+            }, IDLE_TIMEOUT_MILLIS, IDLE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static synchronized void processStopped() {
+        if (--runningProcesses == 0) {
+            idleCheck.shutdown();
+            idleCheck = null;
+        }
+    }
+
+    /**
+     * Number of running git processes of all sessions, the idle check thread runs only while it is positive
+     */
+    static synchronized int getRunningProcesses() {
+        return runningProcesses;
+    }
+
+    private String readLine() throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = responses.read()) != '\n') {
+            if (b == -1) {
+                throw new IOException("git cat-file process ended unexpectedly: " + new String(line.toByteArray(), StandardCharsets.UTF_8));
+            }
+            line.write(b);
+        }
+        return new String(line.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private byte[] readBytes(int size) throws IOException {
+        byte[] content = new byte[size];
+        int offset = 0;
+        while (offset < size) {
+            int read = responses.read(content, offset, size - offset);
+            if (read == -1) {
+                throw new IOException("git cat-file process ended unexpectedly, read " + offset + " of " + size + " bytes");
+            }
+            offset += read;
+        }
+        return content;
+    }
+
+    private synchronized void closeIfIdle(long timeoutMillis) {
+        if (process != null && System.currentTimeMillis() - lastUsed > timeoutMillis) {
+            close();
+        }
+    }
+
+    /**
+     * Stops the git process. The session can still be used, the process is started again on next query.
+     */
+    public synchronized void close() {
+        if (process == null) {
+            return;
+        }
+        LOG.info("Stopping 'git cat-file --batch' in {}", workDir);
+        try {
+            //git exits when the input is closed
+            requests.close();
+        } catch (IOException e) {
+            LOG.debug("Problems closing git cat-file input", e);
+        }
+        try {
+            if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                process.destroy();
+            }
+        } catch (InterruptedException e) {
+            process.destroy();
+            Thread.currentThread().interrupt();
+        }
+        process = null;
+        requests = null;
+        responses = null;
+        processStopped();
+    }
+
+    /**
+     * Git object read by {@link #read(String)}
+     */
+    public static class GitObject {
+
+        private final String id;
+        private final String type;
+        private final byte[] content;
+
+        GitObject(String id, String type, byte[] content) {
+            this.id = id;
+            this.type = type;
+            this.content = content;
+        }
+
+        /**
+         * Object id, e.g. commit SHA-1
+         */
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * Object type: "commit", "tree", "blob" or "tag"
+         */
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * Raw content of the object
+         */
+        public byte[] getContent() {
+            return content;
+        }
+
+        /**
+         * Content of the object as UTF-8 text
+         */
+        public String getText() {
+            return new String(content, StandardCharsets.UTF_8);
+        }
+    }
+}
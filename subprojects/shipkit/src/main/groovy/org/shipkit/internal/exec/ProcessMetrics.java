@@ -0,0 +1,208 @@
+package org.shipkit.internal.exec;
+
+import org.json.simple.Jsoner;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Records external processes executed during the build: masked command line, wall time, exit code and output size.
+ * Processes started by {@link DefaultProcessRunner} and by Shipkit exec tasks are recorded.
+ * The records are summarised at the end of the build, see {@link #formatReport(List)} and {@link #formatChromeTrace(List)}.
+ * <p>
+ * Recorder is shared by the whole Gradle daemon, it is drained at the end of every build.
+ */
+public class ProcessMetrics {
+
+    private static final ProcessMetrics INSTANCE = new ProcessMetrics();
+    private static final int SLOWEST_PROCESSES = 10;
+
+    private final List<ProcessExecution> executions = new ArrayList<>();
+
+    ProcessMetrics() {
+    }
+
+    /**
+     * Recorder used by the current build
+     */
+    public static ProcessMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Records executed process
+     *
+     * @param maskedCommandLine command line with secret values masked, it is written to the report
+     * @param startMillis when the process was started, milliseconds since epoch
+     * @param durationNanos wall time of the process
+     * @param exitCode exit code or -1 if the process could not be started or waited for
+     * @param outputBytes number of bytes of standard and error output
+     */
+    public synchronized void record(String maskedCommandLine, long startMillis, long durationNanos, int exitCode, long outputBytes) {
+        executions.add(new ProcessExecution(maskedCommandLine, startMillis, durationNanos, exitCode, outputBytes, Thread.currentThread()));
+    }
+
+    /**
+     * Returns executions recorded so far and removes them from the recorder
+     */
+    public synchronized List<ProcessExecution> reset() {
+        List<ProcessExecution> result = new ArrayList<>(executions);
+        executions.clear();
+        return result;
+    }
+
+    /**
+     * Formats report with the time spent in each kind of command, e.g. "git push", and the slowest processes
+     */
+    public static String formatReport(List<ProcessExecution> executions) {
+        Map<String, long[]> commands = new LinkedHashMap<>();
+        long totalNanos = 0;
+        long totalBytes = 0;
+        for (ProcessExecution e : executions) {
+            //count, duration, output bytes
+            long[] stats = commands.computeIfAbsent(e.getCommand(), c -> new long[3]);
+            stats[0]++;
+            stats[1] += e.getDurationNanos();
+            stats[2] += e.getOutputBytes();
+            totalNanos += e.getDurationNanos();
+            totalBytes += e.getOutputBytes();
+        }
+        List<Map.Entry<String, long[]>> byDuration = new ArrayList<>(commands.entrySet());
+        byDuration.sort((a, b) -> Long.compare(b.getValue()[1], a.getValue()[1]));
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Executed %d external processes in %d ms (concurrent processes are counted separately), %d bytes of output%n",
+            executions.size(), millis(totalNanos), totalBytes));
+        sb.append(String.format("Time spent per command:%n"));
+        for (Map.Entry<String, long[]> c : byDuration) {
+            long[] stats = c.getValue();
+            sb.append(String.format("%8d ms  %4dx  %10d bytes  %s%n", millis(stats[1]), stats[0], stats[2], c.getKey()));
+        }
+
+        List<ProcessExecution> slowest = new ArrayList<>(executions);
+        slowest.sort((a, b) -> Long.compare(b.getDurationNanos(), a.getDurationNanos()));
+        sb.append(String.format("Slowest processes:%n"));
+        for (ProcessExecution e : slowest.subList(0, Math.min(SLOWEST_PROCESSES, slowest.size()))) {
+            sb.append(String.format("%8d ms  exit %-3d  %10d bytes  %s%n",
+                millis(e.getDurationNanos()), e.getExitCode(), e.getOutputBytes(), e.getCommandLine()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Formats the executions in Chrome trace event format, the file can be opened in 'chrome://tracing' or Perfetto.
+     * Each process is a complete event on the track of the thread that started it.
+     */
+    public static String formatChromeTrace(List<ProcessExecution> executions) {
+        List<String> events = new ArrayList<>();
+        Map<Long, String> threads = new LinkedHashMap<>();
+        for (ProcessExecution e : executions) {
+            events.add(String.format("{\"name\":\"%s\",\"cat\":\"process\",\"ph\":\"X\",\"ts\":%d,\"dur\":%d,\"pid\":1,\"tid\":%d,"
+                    + "\"args\":{\"commandLine\":\"%s\",\"exitCode\":%d,\"outputBytes\":%d}}",
+                Jsoner.escape(e.getCommand()), e.getStartMillis() * 1000, e.getDurationNanos() / 1000, e.getThreadId(),
+                Jsoner.escape(e.getCommandLine()), e.getExitCode(), e.getOutputBytes()));
+            threads.put(e.getThreadId(), e.getThreadName());
+        }
+        //metadata events name the tracks after the threads
+        for (Map.Entry<Long, String> t : threads.entrySet()) {
+            events.add(String.format("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":%d,\"args\":{\"name\":\"%s\"}}",
+                t.getKey(), Jsoner.escape(t.getValue())));
+        }
+        return "{\"traceEvents\":[\n" + String.join(",\n", events) + "\n]}\n";
+    }
+
+    private static long millis(long nanos) {
+        return nanos / 1000000;
+    }
+
+    /**
+     * External process recorded by {@link #record(String, long, long, int, long)}
+     */
+    public static class ProcessExecution {
+
+        //options of git and Gradle that take the value as the next argument
+        private static final Set<String> OPTIONS_WITH_VALUE = new HashSet<>(asList(
+            "-c", "-C", "--git-dir", "--work-tree", "--namespace", "--config-env", "--exec-path",
+            "-b", "--build-file", "-g", "--gradle-user-home", "-I", "--init-script", "-p", "--project-dir",
+            "--settings-file", "-x", "--exclude-task"));
+
+        private final String commandLine;
+        private final long startMillis;
+        private final long durationNanos;
+        private final int exitCode;
+        private final long outputBytes;
+        private final long threadId;
+        private final String threadName;
+
+        ProcessExecution(String commandLine, long startMillis, long durationNanos, int exitCode, long outputBytes, Thread thread) {
+            this.commandLine = commandLine;
+            this.startMillis = startMillis;
+            this.durationNanos = durationNanos;
+            this.exitCode = exitCode;
+            this.outputBytes = outputBytes;
+            this.threadId = thread.getId();
+            this.threadName = thread.getName();
+        }
+
+        /**
+         * Masked command line
+         */
+        public String getCommandLine() {
+            return commandLine;
+        }
+
+        /**
+         * Executable name and the first argument that is neither an option nor an option value,
+         * e.g. "git push" for "git -c core.quotepath=off push" or "gradlew build".
+         * Used for grouping processes in the report.
+         */
+        public String getCommand() {
+            String[] args = commandLine.split(" ");
+            String executable = args[0].substring(args[0].lastIndexOf('/') + 1);
+            for (int i = 1; i < args.length; i++) {
+                if (OPTIONS_WITH_VALUE.contains(args[i])) {
+                    i++;
+                } else if (!args[i].startsWith("-")) {
+                    return executable + " " + args[i];
+                }
+            }
+            return executable;
+        }
+
+        public long getStartMillis() {
+            return startMillis;
+        }
+
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        /**
+         * Exit code, -1 if the process could not be started or waited for
+         */
+        public int getExitCode() {
+            return exitCode;
+        }
+
+        /**
+         * Number of bytes written by the process to standard and error output
+         */
+        public long getOutputBytes() {
+            return outputBytes;
+        }
+
+        public long getThreadId() {
+            return threadId;
+        }
+
+        public String getThreadName() {
+            return threadName;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package org.shipkit.internal.exec;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Provides ways to execute external processes
@@ -22,4 +23,24 @@ public interface ProcessRunner {
      * @return combined error and standard output.
      */
     String run(List<String> commandLine);
+
+    /**
+     * Executes given command line without keeping the output in memory.
+     * Useful when the output can be large and it is only needed in the log file, e.g. when running a build.
+     * The output is still kept in memory when there is no log file, to report it when the command fails.
+     *
+     * @param commandLine the full command line to execute
+     */
+    void runWithoutOutput(List<String> commandLine);
+
+    /**
+     * Executes given command line with the input written to its standard input and returns the output.
+     * Useful for commands that read large input, e.g. list of paths, that does not fit the command line.
+     *
+     * @param commandLine the full command line to execute
+     * @param input written to the standard input of the process, which is closed afterwards
+     * @param environment additional environment variables of the process
+     * @return combined error and standard output.
+     */
+    String run(List<String> commandLine, String input, Map<String, String> environment);
 }
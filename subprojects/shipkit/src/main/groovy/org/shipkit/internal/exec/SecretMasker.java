@@ -0,0 +1,157 @@
+package org.shipkit.internal.exec;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces secret values with "[SECRET]" so that they are not exposed in logs and files.
+ * All secrets are matched in a single pass, when secrets overlap the longest one is masked.
+ * Streamed text is masked by {@link #maskingWriter(Writer)} which holds back only the characters
+ * that could still turn out to be the beginning of a secret.
+ */
+public class SecretMasker {
+
+    static final String MASK = "[SECRET]";
+
+    //candidate secrets indexed by their first character, longest first
+    private final Map<Character, List<String>> secrets = new HashMap<>();
+    private final int maxLength;
+
+    /**
+     * @param secretValues values to mask, null and empty values are ignored
+     */
+    public SecretMasker(Collection<String> secretValues) {
+        int max = 0;
+        for (String s : secretValues) {
+            if (s == null || s.isEmpty()) {
+                continue;
+            }
+            List<String> candidates = secrets.computeIfAbsent(s.charAt(0), c -> new ArrayList<>());
+            if (!candidates.contains(s)) {
+                candidates.add(s);
+            }
+            max = Math.max(max, s.length());
+        }
+        for (List<String> candidates : secrets.values()) {
+            candidates.sort((a, b) -> b.length() - a.length());
+        }
+        maxLength = max;
+    }
+
+    /**
+     * Returns the text with all secret values masked
+     */
+    public String mask(String text) {
+        if (maxLength == 0) {
+            return text;
+        }
+        StringBuilder out = new StringBuilder(text.length());
+        mask(text, text.length(), out);
+        return out.toString();
+    }
+
+    /**
+     * Returns writer that masks the text before writing it to the target writer.
+     * Up to the length of the longest secret minus one characters are held back until more text arrives.
+     * They are written when the returned writer is closed, {@link Writer#flush()} does not write them
+     * because the secret could be exposed partially.
+     */
+    public Writer maskingWriter(Writer target) {
+        return new MaskingWriter(target);
+    }
+
+    /**
+     * Masks text up to given limit, secrets that start before the limit must be entirely contained in the text.
+     *
+     * @return number of consumed characters, can be greater than the limit if a secret crosses the limit
+     */
+    private int mask(CharSequence text, int limit, StringBuilder out) {
+        int i = 0;
+        while (i < limit) {
+            String secret = secretAt(text, i);
+            if (secret != null) {
+                out.append(MASK);
+                i += secret.length();
+            } else {
+                out.append(text.charAt(i));
+                i++;
+            }
+        }
+        return i;
+    }
+
+    private String secretAt(CharSequence text, int index) {
+        List<String> candidates = secrets.get(text.charAt(index));
+        if (candidates != null) {
+            for (String s : candidates) {
+                if (startsWith(text, index, s)) {
+                    return s;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean startsWith(CharSequence text, int index, String s) {
+        if (index + s.length() > text.length()) {
+            return false;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            if (text.charAt(index + i) != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private class MaskingWriter extends Writer {
+
+        private final Writer target;
+        private final StringBuilder pending = new StringBuilder();
+        private final StringBuilder masked = new StringBuilder();
+
+        MaskingWriter(Writer target) {
+            this.target = target;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            if (maxLength == 0) {
+                target.write(cbuf, off, len);
+                return;
+            }
+            pending.append(cbuf, off, len);
+            //secrets starting before this point are already complete in the pending text
+            drain(pending.length() - (maxLength - 1));
+        }
+
+        private void drain(int limit) throws IOException {
+            if (limit <= 0) {
+                return;
+            }
+            masked.setLength(0);
+            int consumed = mask(pending, limit, masked);
+            pending.delete(0, consumed);
+            target.append(masked);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                drain(pending.length());
+            } finally {
+                target.close();
+            }
+        }
+    }
+}
@@ -20,7 +20,7 @@ public class SilentExecTask extends DefaultTask {
     @TaskAction
     public void runTest() {
         ProcessRunner processRunner = Exec.getProcessRunner(workDir, buildOutput);
-        processRunner.run(command);
+        processRunner.runWithoutOutput(command);
     }
 
     /**
@@ -7,6 +7,7 @@ import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.api.plugins.ObjectConfigurationAction;
 import org.shipkit.gradle.configuration.ShipkitConfiguration;
+import org.shipkit.internal.gradle.exec.ProcessMetricsPlugin;
 import org.shipkit.internal.gradle.init.InitPlugin;
 import org.shipkit.internal.gradle.version.VersioningPlugin;
 import org.shipkit.version.VersionInfo;
@@ -30,6 +31,7 @@ import java.io.File;
  * <ul>
  *     <li>{@link InitPlugin}</li>
  *     <li>{@link VersioningPlugin}</li>
+ *     <li>{@link ProcessMetricsPlugin}</li>
  * </ul>
  */
 public class ShipkitConfigurationPlugin implements Plugin<Project> {
@@ -47,6 +49,8 @@ public class ShipkitConfigurationPlugin implements Plugin<Project> {
     public void apply(final Project project) {
         if (project.getParent() == null) {
             //root project, add the extension
+            //first, so that processes started by other plugins are reported
+            project.getPlugins().apply(ProcessMetricsPlugin.class);
             project.getPlugins().apply(InitPlugin.class);
             project.getPlugins().apply(VersioningPlugin.class);
             VersionInfo info = project.getExtensions().getByType(VersionInfo.class);
@@ -80,6 +80,15 @@ public class ExecCommandFactory {
         return "[" + prefix + "] ";
     }
 
+    /**
+     * Copy of given exec command that can run concurrently with neighbouring independent commands.
+     * See {@link ExecCommand#isIndependent()}.
+     */
+    public static ExecCommand independent(ExecCommand command) {
+        return new ExecCommand(command.getLoggingPrefix(), command.getDescription(), command.getCommandLine(),
+            command.getSetupAction(), command.getResultAction(), true);
+    }
+
     /**
      * Exec command with custom result action.
      * Useful if the user needs custom behavior when command line finishes executing.
@@ -0,0 +1,57 @@
+package org.shipkit.internal.gradle.exec;
+
+import org.gradle.api.Plugin;
+import org.gradle.api.Project;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.shipkit.internal.exec.ProcessMetrics;
+import org.shipkit.internal.exec.ProcessMetrics.ProcessExecution;
+import org.shipkit.internal.gradle.util.BuildConventions;
+import org.shipkit.internal.notes.util.IOUtil;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Reports external processes executed during the build, see {@link ProcessMetrics}.
+ * Intended for root project.
+ * <p>
+ * At the end of the build, when any processes were executed, time spent in each command
+ * and the slowest processes are written to 'build/shipkit/process-metrics.txt'.
+ * Run with '-PprocessTrace' to also write 'build/shipkit/process-trace.json' in Chrome trace format.
+ */
+public class ProcessMetricsPlugin implements Plugin<Project> {
+
+    private final static Logger LOG = Logging.getLogger(ProcessMetricsPlugin.class);
+
+    /**
+     * Project property that enables writing Chrome trace of the executed processes
+     */
+    public static final String PROCESS_TRACE_PROPERTY = "processTrace";
+
+    @Override
+    public void apply(final Project project) {
+        final File report = BuildConventions.processMetricsReport(project);
+        final File trace = project.hasProperty(PROCESS_TRACE_PROPERTY) ? BuildConventions.processTraceFile(project) : null;
+
+        //the recorder lives as long as the daemon, it is drained at the end of every build so that the next build starts empty.
+        //It is not reset here, processes started during configuration before this plugin was applied are reported, too.
+        //'buildStarted' has already fired when plugins are applied.
+        project.getGradle().buildFinished(result -> writeReport(ProcessMetrics.getInstance().reset(), report, trace));
+    }
+
+    static void writeReport(List<ProcessExecution> executions, File report, File trace) {
+        if (executions.isEmpty()) {
+            return;
+        }
+        String content = ProcessMetrics.formatReport(executions);
+        IOUtil.writeFile(report, content);
+        LOG.info(content);
+        if (trace != null) {
+            IOUtil.writeFile(trace, ProcessMetrics.formatChromeTrace(executions));
+            LOG.lifecycle("  Executed {} external processes, report: {}, trace: {}", executions.size(), report, trace);
+        } else {
+            LOG.lifecycle("  Executed {} external processes, report: {}", executions.size(), report);
+        }
+    }
+}
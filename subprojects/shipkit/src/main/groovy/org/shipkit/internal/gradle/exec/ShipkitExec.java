@@ -1,6 +1,7 @@
 package org.shipkit.internal.gradle.exec;
 
 import org.gradle.api.Action;
+import org.gradle.api.GradleException;
 import org.gradle.api.Project;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
@@ -8,41 +9,151 @@ import org.gradle.process.ExecResult;
 import org.gradle.process.ExecSpec;
 import org.shipkit.gradle.exec.ExecCommand;
 import org.shipkit.internal.exec.ExternalProcessStream;
+import org.shipkit.internal.exec.ProcessMetrics;
+import org.shipkit.internal.exec.SecretMasker;
 import org.shipkit.internal.gradle.util.StringUtil;
+import org.shipkit.internal.notes.util.IOUtil;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class ShipkitExec {
 
     private final static Logger LOG = Logging.getLogger(ShipkitExec.class);
 
+    private List<String> secretValues = Collections.emptyList();
+
     /**
-     * Execute commands and print execution summary.
+     * @param secretValues all values will be masked in the logged and recorded command lines
+     * @return this exec
+     */
+    public ShipkitExec setSecretValues(List<String> secretValues) {
+        this.secretValues = secretValues;
+        return this;
+    }
+
+    /**
+     * Execute commands sequentially and print execution summary.
      * @param execCommands  Commands to execute
      * @param project       Gradle Project instance
      * @param workingDir    Working directory where command will be executed, it may be null
      */
     public void execCommands(Collection<ExecCommand> execCommands, Project project, File workingDir) {
-        for (final ExecCommand execCommand : execCommands) {
-            ExecResult result = project.exec(new Action<ExecSpec>() {
+        execCommands(execCommands, project, workingDir, 1);
+    }
+
+    /**
+     * Execute commands and print execution summary.
+     * Consecutive independent commands (see {@link ExecCommand#isIndependent()}) are executed concurrently,
+     * their result actions are triggered in the order of the commands after all of them completed.
+     * @param execCommands  Commands to execute
+     * @param project       Gradle Project instance
+     * @param workingDir    Working directory where command will be executed, it may be null
+     * @param maxParallelCommands maximum number of independent commands executed at the same time
+     */
+    public void execCommands(Collection<ExecCommand> execCommands, Project project, File workingDir, int maxParallelCommands) {
+        List<ExecCommand> independent = new ArrayList<>();
+        for (ExecCommand execCommand : execCommands) {
+            if (execCommand.isIndependent() && maxParallelCommands > 1) {
+                independent.add(execCommand);
+                continue;
+            }
+            execConcurrently(independent, project, workingDir, maxParallelCommands);
+            independent.clear();
+
+            ExecResult result = exec(execCommand, project, workingDir, false);
+            execCommand.getResultAction().execute(result);
+        }
+        execConcurrently(independent, project, workingDir, maxParallelCommands);
+    }
+
+    private void execConcurrently(List<ExecCommand> commands, Project project, File workingDir, int maxParallelCommands) {
+        if (commands.isEmpty()) {
+            return;
+        }
+        LOG.lifecycle("  Executing {} independent commands, at most {} at the same time.", commands.size(), maxParallelCommands);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(maxParallelCommands, commands.size()));
+        List<Future<ExecResult>> results = new ArrayList<>();
+        try {
+            for (final ExecCommand execCommand : commands) {
+                results.add(executor.submit(() -> exec(execCommand, project, workingDir, true)));
+            }
+            //wait for all commands before triggering result actions, so that they run in a deterministic order
+            for (Future<ExecResult> result : results) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    //reported below, in the order of the commands
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new GradleException("Interrupted while executing external processes", e);
+                }
+            }
+            for (int i = 0; i < commands.size(); i++) {
+                commands.get(i).getResultAction().execute(getResult(results.get(i)));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static ExecResult getResult(Future<ExecResult> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GradleException("Interrupted while executing external processes", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new GradleException("Problems executing external process", e.getCause());
+        }
+    }
+
+    /**
+     * @param bufferLines when commands run concurrently, only complete lines are printed so that the output is not mixed
+     */
+    private ExecResult exec(final ExecCommand execCommand, Project project, final File workingDir, boolean bufferLines) {
+        final ExternalProcessStream standardOutput = new ExternalProcessStream(execCommand.getLoggingPrefix(), System.out, bufferLines);
+        final ExternalProcessStream errorOutput = new ExternalProcessStream(execCommand.getLoggingPrefix(), System.err, bufferLines);
+        //the same masking as in DefaultProcessRunner, the command line is printed in the process metrics report
+        final String maskedCommandLine = new SecretMasker(secretValues).mask(StringUtil.join(execCommand.getCommandLine(), " "));
+        ExecResult result = null;
+        long startMillis = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        try {
+            result = project.exec(new Action<ExecSpec>() {
                 @Override
                 public void execute(ExecSpec spec) {
                     spec.setIgnoreExitValue(true);
                     spec.commandLine(execCommand.getCommandLine());
-                    spec.setStandardOutput(new ExternalProcessStream(execCommand.getLoggingPrefix(), System.out));
-                    spec.setErrorOutput(new ExternalProcessStream(execCommand.getLoggingPrefix(), System.err));
+                    spec.setStandardOutput(standardOutput);
+                    spec.setErrorOutput(errorOutput);
                     if (workingDir != null) {
                         spec.setWorkingDir(workingDir);
                     }
 
                     execCommand.getSetupAction().execute(spec);
 
-                    LOG.lifecycle("  " + execCommand.getDescription() + ":\n    " + StringUtil.join(execCommand.getCommandLine(), " "));
+                    LOG.lifecycle("  " + execCommand.getDescription() + ":\n    " + maskedCommandLine);
                 }
             });
-            LOG.lifecycle("  External process {} completed.", execCommand.getLoggingPrefix().trim());
-            execCommand.getResultAction().execute(result);
+        } finally {
+            IOUtil.close(standardOutput);
+            IOUtil.close(errorOutput);
+            ProcessMetrics.getInstance().record(maskedCommandLine, startMillis,
+                System.nanoTime() - startNanos, result != null ? result.getExitValue() : -1,
+                standardOutput.getWrittenBytes() + errorOutput.getWrittenBytes());
         }
+        LOG.lifecycle("  External process {} completed.", execCommand.getLoggingPrefix().trim());
+        return result;
     }
 }
@@ -34,6 +34,7 @@ public class CloneGitRepositoryTaskFactory {
                     task.setDescription("Clones consumer repo " + consumerRepository + " into a temporary directory.");
                     task.setRepositoryUrl(gitHubUrl + "/" + consumerRepository);
                     task.setTargetDir(getConsumerRepoCloneDir(project, consumerRepository));
+                    task.setMirrorCacheDir(getMirrorCacheDir(project));
                 }
             });
     }
@@ -44,4 +45,11 @@ public class CloneGitRepositoryTaskFactory {
     public static File getConsumerRepoCloneDir(Project project, String consumerRepository) {
         return new File(project.getRootProject().getBuildDir().getAbsolutePath() + "/downstream/" + repositoryNameToCamelCase(consumerRepository));
     }
+
+    /**
+     * Mirrors of cloned repositories are kept in Gradle user home so that all builds on the machine can reuse them
+     */
+    public static File getMirrorCacheDir(Project project) {
+        return new File(project.getGradle().getGradleUserHomeDir(), "caches/shipkit/git-mirrors");
+    }
 }
@@ -0,0 +1,132 @@
+package org.shipkit.internal.gradle.git.domain;
+
+import org.shipkit.internal.notes.util.IOUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Files changed in the working copy since some git revision, e.g. since the tag of the previous release.
+ * Used to find out cheaply if inputs of a project changed, without building and comparing publications.
+ */
+public class ChangedFiles {
+
+    private final String revision;
+    private final List<File> files;
+
+    /**
+     * @param revision git revision the changes are relative to
+     * @param files absolute paths of changed files
+     */
+    public ChangedFiles(String revision, Collection<File> files) {
+        this.revision = revision;
+        this.files = new ArrayList<>(files);
+    }
+
+    /**
+     * Git revision the changes are relative to
+     */
+    public String getRevision() {
+        return revision;
+    }
+
+    /**
+     * Absolute paths of changed files
+     */
+    public List<File> getFiles() {
+        return Collections.unmodifiableList(files);
+    }
+
+    /**
+     * Build logic can change the published content of any project, e.g. by changing declared dependencies.
+     * Build logic is considered changed when any Gradle script, "gradle.properties",
+     * or any file in "gradle" or "buildSrc" directory of the root project changed.
+     *
+     * @param rootDir root directory of the build
+     */
+    public boolean isBuildLogicChanged(File rootDir) {
+        List<File> buildLogicDirs = canonical(new File(rootDir, "gradle"), new File(rootDir, "buildSrc"));
+        for (File f : files) {
+            String name = f.getName();
+            if (name.endsWith(".gradle") || name.endsWith(".gradle.kts") || name.equals("gradle.properties")
+                || isUnderAny(f, buildLogicDirs)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if any changed file is one of the given files or is located in one of the given directories
+     */
+    public boolean isAnyChangedIn(Collection<File> filesOrDirs) {
+        List<File> roots = canonical(filesOrDirs.toArray(new File[0]));
+        for (File f : files) {
+            if (isUnderAny(f, roots)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isUnderAny(File file, List<File> roots) {
+        String path = file.getPath();
+        for (File root : roots) {
+            String rootPath = root.getPath();
+            if (path.equals(rootPath) || path.startsWith(rootPath.endsWith(File.separator) ? rootPath : rootPath + File.separator)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<File> canonical(File... files) {
+        List<File> result = new ArrayList<>(files.length);
+        for (File f : files) {
+            try {
+                result.add(f.getCanonicalFile());
+            } catch (IOException e) {
+                throw new RuntimeException("Unable to resolve canonical path of " + f, e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes the changed files to given file: the revision in the first line, followed by absolute paths of changed files.
+     * See {@link #read(File)}.
+     */
+    public void write(File file) {
+        StringBuilder sb = new StringBuilder(revision).append('\n');
+        for (File f : files) {
+            sb.append(f.getPath()).append('\n');
+        }
+        IOUtil.writeFile(file, sb.toString());
+    }
+
+    /**
+     * Reads changed files written by {@link #write(File)}.
+     * Returns null if the file does not exist or is empty, which means that the changes could not be identified.
+     */
+    public static ChangedFiles read(File file) {
+        String content = IOUtil.readFullyOrDefault(file, "");
+        if (content.isEmpty()) {
+            return null;
+        }
+        String[] lines = content.split("\n");
+        List<File> files = new ArrayList<>(lines.length - 1);
+        for (int i = 1; i < lines.length; i++) {
+            files.add(new File(lines[i]));
+        }
+        return new ChangedFiles(lines[0], files);
+    }
+
+    @Override
+    public String toString() {
+        return "ChangedFiles{revision='" + revision + "', files=" + files + '}';
+    }
+}
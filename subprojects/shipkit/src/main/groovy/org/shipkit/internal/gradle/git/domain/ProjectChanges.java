@@ -0,0 +1,48 @@
+package org.shipkit.internal.gradle.git.domain;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Tells if inputs of a project changed since the previous release,
+ * based on the changed files written by {@link org.shipkit.gradle.git.IdentifyChangedFilesTask}.
+ * The file is read when the information is needed, i.e. after the changed files were identified.
+ */
+public class ProjectChanges {
+
+    private final File changedFilesFile;
+    private final File rootDir;
+    private final List<File> inputs;
+
+    private long length = -1;
+    private long lastModified = -1;
+    private boolean unchanged;
+
+    /**
+     * @param changedFilesFile see {@link org.shipkit.gradle.git.IdentifyChangedFilesTask#getChangedFilesFile()}
+     * @param rootDir root directory of the build, see {@link ChangedFiles#isBuildLogicChanged(File)}
+     * @param inputs files and directories that determine content of project's publications
+     */
+    public ProjectChanges(File changedFilesFile, File rootDir, Collection<File> inputs) {
+        this.changedFilesFile = changedFilesFile;
+        this.rootDir = rootDir;
+        this.inputs = new ArrayList<>(inputs);
+    }
+
+    /**
+     * True when the changed files were identified and neither the build logic nor any of the project inputs changed.
+     * False when the changed files are not known, e.g. the revision of the previous release is not available.
+     * Gradle queries task inputs more than once, the file is read again only when it changed.
+     */
+    public synchronized boolean isUnchangedSincePreviousRelease() {
+        if (changedFilesFile.length() != length || changedFilesFile.lastModified() != lastModified) {
+            length = changedFilesFile.length();
+            lastModified = changedFilesFile.lastModified();
+            ChangedFiles changedFiles = ChangedFiles.read(changedFilesFile);
+            unchanged = changedFiles != null && !changedFiles.isBuildLogicChanged(rootDir) && !changedFiles.isAnyChangedIn(inputs);
+        }
+        return unchanged;
+    }
+}
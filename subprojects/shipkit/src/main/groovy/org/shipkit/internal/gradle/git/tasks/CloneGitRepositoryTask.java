@@ -4,6 +4,7 @@ import org.gradle.api.DefaultTask;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.Optional;
 import org.gradle.api.tasks.OutputDirectory;
 import org.gradle.api.tasks.TaskAction;
@@ -20,7 +21,11 @@ import static java.lang.String.valueOf;
 /**
  * This task clones git project from {@link #getRepositoryUrl()} to {@link #getTargetDir()}.
  * It supports clone from remote server and from local filesystem.
- * The task execution is skipped if {@link #getTargetDir()} exists and is not empty.
+ * Remote repositories are cloned through a machine-wide mirror, see {@link #getMirrorCacheDir()},
+ * so that repeated clones only fetch new commits.
+ * If {@link #getTargetDir()} already contains a clone of the repository, the clone is updated to the state
+ * of a fresh clone: remote branches and tags are fetched and the current branch is reset to its remote branch.
+ * The task execution is skipped if {@link #getTargetDir()} is not empty and does not contain a clone of the repository.
  * If you want to always execute it, use clean task before calling this one.
  * Note that it's a heavy operation and therefore multiple executions in the same build should be avoided.
  *
@@ -37,24 +42,103 @@ public class CloneGitRepositoryTask extends DefaultTask {
     private String repositoryUrl;
     private File targetDir;
     private int depth;
+    private File mirrorCacheDir;
+    private boolean partialClone;
+    private List<String> sparseCheckoutPaths = new ArrayList<>();
+    //false when the installed git does not support partial clone with sparse checkout
+    private boolean sparseSupported = true;
+
+    public CloneGitRepositoryTask() {
+        //remote repository can change at any time, existing clone is updated on every execution
+        getOutputs().upToDateWhen(t -> false);
+    }
 
     @TaskAction
     public void cloneRepository() {
+        if ((partialClone || !sparseCheckoutPaths.isEmpty()) && !GitVersion.isAtLeast(Exec.getProcessRunner(getProject().getRootDir()), 2, 25)) {
+            LOG.lifecycle("  Partial clone with sparse checkout requires git 2.25 or newer, cloning all files");
+            sparseSupported = false;
+        }
+
         if (!isTargetEmpty()) {
-            LOG.lifecycle("{} - target directory already exists and is not empty. Skipping execution of the task. Exists: {}", getPath(), targetDir);
+            updateClone();
             return;
         }
 
+        File mirror = updateMirror();
         LOG.lifecycle("  Cloning repository {}\n    into {}", repositoryUrl, targetDir);
 
         getProject().getBuildDir().mkdirs();    // build dir can be not created yet
         ProcessRunner processRunner = Exec.getProcessRunner(getProject().getBuildDir());
-        processRunner.run(getCloneCommand());
+        processRunner.run(getCloneCommand(mirror));
+        if (mirror != null) {
+            //the clone should push to and fetch from the repository, not the mirror
+            Exec.getProcessRunner(targetDir).run("git", "remote", "set-url", "origin", repositoryUrl);
+        }
+        if (isSparseCheckout()) {
+            Exec.getProcessRunner(targetDir).run(getSparseCheckoutCommand());
+        }
+    }
+
+    private void updateClone() {
+        //reader would find the repository of parent directories, e.g. the project itself
+        GitRepositoryReader repository = new File(targetDir, ".git").exists() ? GitRepositoryReader.find(targetDir) : null;
+        if (repository == null || !repositoryUrl.equals(getOriginUrl(repository))) {
+            LOG.lifecycle("{} - target directory already exists, is not empty and is not a clone of {}. Skipping execution of the task. Exists: {}",
+                getPath(), repositoryUrl, targetDir);
+            return;
+        }
+
+        File mirror = updateMirror();
+        LOG.lifecycle("  Updating clone of repository {}\n    in {}", repositoryUrl, targetDir);
+        ProcessRunner processRunner = Exec.getProcessRunner(targetDir);
+        processRunner.run(getFetchCommand(mirror));
+        if (isSparseCheckout()) {
+            processRunner.run(getSparseCheckoutCommand());
+        }
+
+        String branch = repository.getCurrentBranch();
+        if (branch == null || branch.equals("HEAD") || repository.resolveRef("refs/remotes/origin/" + branch) == null) {
+            LOG.lifecycle("  Current branch in {} does not track a remote branch, working tree is not updated", targetDir);
+            return;
+        }
+        //the same working tree as in a fresh clone
+        processRunner.run("git", "reset", "--hard", "--quiet", "origin/" + branch);
+        processRunner.run("git", "clean", "-fd", "--quiet");
+    }
+
+    /**
+     * Updates the mirror of the repository, only called when the clone is going to be created or updated.
+     * Returns git directory of the mirror or null if the repository is not mirrored.
+     */
+    private File updateMirror() {
+        return isMirrored() ? new GitMirrorCache(mirrorCacheDir).update(repositoryUrl) : null;
+    }
+
+    private String getOriginUrl(GitRepositoryReader repository) {
+        String url = repository.getRemoteUrl("origin");
+        if (url != null) {
+            return url;
+        }
+        try {
+            return Exec.getProcessRunner(targetDir).run("git", "remote", "get-url", "origin").trim();
+        } catch (RuntimeException e) {
+            LOG.info("Unable to read url of 'origin' remote in " + targetDir, e);
+            return null;
+        }
     }
 
     //TODO: WW investigate if this method can be removed from public API
     @ExposedForTesting
     List<String> getCloneCommand() {
+        return getCloneCommand(null);
+    }
+
+    /**
+     * @param mirror git directory of the mirror to clone from, or null to clone directly from the repository
+     */
+    @ExposedForTesting
+    List<String> getCloneCommand(File mirror) {
         List<String> result = new ArrayList<>();
         result.add("git");
         result.add("clone");
@@ -62,11 +146,75 @@ public class CloneGitRepositoryTask extends DefaultTask {
             result.add("--depth");
             result.add(valueOf(depth));
         }
-        result.add(repositoryUrl);
+        if (isPartial()) {
+            result.add("--filter=blob:none");
+        }
+        if (isSparseCheckout()) {
+            //only files in the root directory are checked out, see getSparseCheckoutCommand()
+            result.add("--sparse");
+        }
+        if (mirror == null) {
+            result.add(repositoryUrl);
+        } else if (depth != 0) {
+            //git ignores depth for local paths, objects are not hardlinked anyway because the clone is shallow
+            result.add(mirror.toPath().toUri().toString());
+        } else {
+            //local path, git hardlinks the objects
+            result.add(mirror.getAbsolutePath());
+        }
         result.add(targetDir.getAbsolutePath());
         return result;
     }
 
+    /**
+     * @param mirror git directory of the mirror to fetch from, or null to fetch directly from the repository
+     */
+    @ExposedForTesting
+    List<String> getFetchCommand(File mirror) {
+        List<String> result = new ArrayList<>();
+        result.add("git");
+        result.add("fetch");
+        result.add("--prune");
+        if (depth != 0) {
+            result.add("--depth");
+            result.add(valueOf(depth));
+        }
+        result.add(mirror == null ? "origin" : mirror.getAbsolutePath());
+        //the same refs as in a fresh clone
+        result.add("+refs/heads/*:refs/remotes/origin/*");
+        result.add("+refs/tags/*:refs/tags/*");
+        return result;
+    }
+
+    /**
+     * Limits the work tree to {@link #getSparseCheckoutPaths()}, uses "cone" mode initialized by 'git clone --sparse':
+     * given directories are checked out recursively, files in their parent directories are also checked out.
+     */
+    @ExposedForTesting
+    List<String> getSparseCheckoutCommand() {
+        List<String> result = new ArrayList<>();
+        result.add("git");
+        result.add("sparse-checkout");
+        result.add("set");
+        result.addAll(sparseCheckoutPaths);
+        return result;
+    }
+
+    private boolean isMirrored() {
+        //local repositories are cloned with hardlinks anyway
+        //partial clone downloads only what is needed, the mirror would download everything
+        return mirrorCacheDir != null && !isPartial()
+            && repositoryUrl.contains("://") && !repositoryUrl.startsWith("file:");
+    }
+
+    private boolean isPartial() {
+        return partialClone && sparseSupported;
+    }
+
+    private boolean isSparseCheckout() {
+        return !sparseCheckoutPaths.isEmpty() && sparseSupported;
+    }
+
     //TODO ms - when we make this task public, let's put javadoc on all public methods of the task
     // No need to put it on "cloneRepository" method because it is not intended to be used by end users.
     // It's nice if javadoc for 'repository' demonstrates an example value
@@ -130,6 +278,62 @@ public class CloneGitRepositoryTask extends DefaultTask {
         this.depth = depth;
     }
 
+    /**
+     * Machine-wide directory with mirrors of cloned repositories, shared by all builds on the machine.
+     * See {@link GitMirrorCache}. Only remote repositories are mirrored.
+     * If not set, repositories are cloned directly.
+     */
+    public File getMirrorCacheDir() {
+        return mirrorCacheDir;
+    }
+
+    /**
+     * See {@link #getMirrorCacheDir()}
+     */
+    @Internal
+    public void setMirrorCacheDir(File mirrorCacheDir) {
+        this.mirrorCacheDir = mirrorCacheDir;
+    }
+
+    /**
+     * Makes a blob-less partial clone ('git clone --filter=blob:none'):
+     * history and directory structure are cloned, file contents are downloaded when they are checked out.
+     * Useful together with {@link #getSparseCheckoutPaths()} for repositories with many large files,
+     * e.g. Javadoc of all released versions. The mirror is not used for partial clones.
+     * Requires git 2.25 or newer, with older git a full clone is made.
+     * Default is false, a full clone.
+     */
+    public boolean isPartialClone() {
+        return partialClone;
+    }
+
+    /**
+     * See {@link #isPartialClone()}
+     */
+    @Input
+    public void setPartialClone(boolean partialClone) {
+        this.partialClone = partialClone;
+    }
+
+    /**
+     * Directories to check out, relative to the repository root, e.g. "docs/current".
+     * Other directories are not checked out ('git sparse-checkout'), files in the root directory
+     * and in the parent directories of the given ones are always checked out.
+     * Commits still contain all files. Empty by default, all files are checked out.
+     * Requires git 2.25 or newer, with older git all files are checked out.
+     */
+    public List<String> getSparseCheckoutPaths() {
+        return sparseCheckoutPaths;
+    }
+
+    /**
+     * See {@link #getSparseCheckoutPaths()}
+     */
+    @Input
+    public void setSparseCheckoutPaths(List<String> sparseCheckoutPaths) {
+        this.sparseCheckoutPaths = sparseCheckoutPaths;
+    }
+
     private boolean isTargetEmpty() {
         return !targetDir.exists() || targetDir.list().length == 0;
     }
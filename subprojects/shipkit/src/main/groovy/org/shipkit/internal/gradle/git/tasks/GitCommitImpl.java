@@ -1,7 +1,11 @@
 package org.shipkit.internal.gradle.git.tasks;
 
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
 import org.shipkit.gradle.exec.ExecCommand;
 import org.shipkit.gradle.git.GitCommitTask;
+import org.shipkit.internal.exec.Exec;
+import org.shipkit.internal.exec.ProcessRunner;
 import org.shipkit.internal.gradle.exec.ShipkitExec;
 import org.shipkit.internal.gradle.util.GitUtil;
 
@@ -15,7 +19,20 @@ import static org.shipkit.internal.gradle.exec.ExecCommandFactory.execCommand;
 
 public class GitCommitImpl {
 
+    private final static Logger LOG = Logging.getLogger(GitCommitImpl.class);
+
     public void commit(GitCommitTask task) {
+        if (task.isPlumbingCommit()) {
+            File workDir = task.getWorkingDir() != null ? task.getWorkingDir() : task.getProject().getProjectDir();
+            ProcessRunner runner = Exec.getProcessRunner(workDir);
+            //'update-index --ignore-skip-worktree-entries' is needed to keep files outside of sparse checkout
+            if (GitVersion.isAtLeast(runner, 2, 26)) {
+                String message = GitUtil.getCommitMessage(getAggregatedCommitMessage(task.getDescriptions()), task.getCommitMessagePostfix());
+                new GitPlumbingCommit(workDir, runner).commit(task.getFilesToCommit(), task.getGitUserName(), task.getGitUserEmail(), message);
+                return;
+            }
+            LOG.lifecycle("  Commit with git plumbing commands requires git 2.26 or newer, using 'git add' and 'git commit'");
+        }
         Collection<ExecCommand> commands = new LinkedList<>();
         commands.add(execCommand("Adding files to git",
             getAddCommand(task.getFilesToCommit())));
@@ -0,0 +1,104 @@
+package org.shipkit.internal.gradle.git.tasks;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.shipkit.internal.exec.Exec;
+import org.shipkit.internal.exec.ProcessRunner;
+import org.shipkit.internal.notes.util.IOUtil;
+import org.shipkit.internal.util.HashUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+
+/**
+ * Machine-wide cache of bare git repositories mirroring remote repositories, keyed by repository url.
+ * The first use clones the remote repository, every next use only fetches new commits.
+ * Clones are then created locally from the mirror, which is fast because git hardlinks the objects.
+ * <p>
+ * Mirrors keep branches in "refs/heads" and tags in "refs/tags", exactly as in the remote repository.
+ * Access to the mirror is guarded by a file lock so that concurrent builds can share the cache.
+ */
+public class GitMirrorCache {
+
+    private static final Logger LOG = Logging.getLogger(GitMirrorCache.class);
+
+    private static final ConcurrentMap<File, Object> JVM_LOCKS = new ConcurrentHashMap<>();
+
+    private final File cacheDir;
+
+    public GitMirrorCache(File cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    /**
+     * Creates or fetches the mirror of given repository.
+     *
+     * @return git directory of the up-to-date mirror
+     */
+    public File update(String repositoryUrl) {
+        File mirror = getMirrorDir(repositoryUrl);
+        IOUtil.createDirectory(cacheDir);
+
+        Object jvmLock = JVM_LOCKS.computeIfAbsent(mirror, k -> new Object());
+        synchronized (jvmLock) {
+            try (FileChannel channel = FileChannel.open(new File(cacheDir, mirror.getName() + ".lock").toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                if (new File(mirror, "HEAD").isFile()) {
+                    LOG.lifecycle("  Fetching {}\n    into mirror {}", repositoryUrl, mirror);
+                    Exec.getProcessRunner(mirror).run("git", "fetch", "--prune", "--quiet", "origin");
+                } else {
+                    createMirror(repositoryUrl, mirror);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Problems updating mirror of " + repositoryUrl + " in " + mirror, e);
+            }
+        }
+        return mirror;
+    }
+
+    private void createMirror(String repositoryUrl, File mirror) throws IOException {
+        LOG.lifecycle("  Creating mirror of {}\n    in {}", repositoryUrl, mirror);
+        //cloned under a temporary name so that interrupted clone does not leave broken mirror behind
+        File tmp = new File(cacheDir, mirror.getName() + ".tmp");
+        deleteDirectory(tmp);
+        Exec.getProcessRunner(cacheDir).run("git", "clone", "--bare", "--quiet", repositoryUrl, tmp.getName());
+
+        //bare clone has no fetch refspec, branches and tags are fetched to the same refs as in the remote
+        ProcessRunner runner = Exec.getProcessRunner(tmp);
+        runner.run("git", "config", "remote.origin.fetch", "+refs/heads/*:refs/heads/*");
+        runner.run("git", "config", "--add", "remote.origin.fetch", "+refs/tags/*:refs/tags/*");
+        Files.move(tmp.toPath(), mirror.toPath());
+    }
+
+    private static void deleteDirectory(File dir) throws IOException {
+        if (!dir.exists()) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir.toPath())) {
+            //children first
+            for (Path p : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    /**
+     * Directory of the mirror of given repository, e.g. "shipkit-example-1f2e3d4c5b6a.git".
+     * The hash of the whole url distinguishes repositories with the same name.
+     */
+    File getMirrorDir(String repositoryUrl) {
+        String name = repositoryUrl.replaceAll("/+$", "").replaceAll(".*[/:\\\\]", "").replaceAll("\\.git$", "")
+            .replaceAll("[^A-Za-z0-9._-]", "-");
+        return new File(cacheDir, name + "-" + HashUtil.sha256(repositoryUrl).substring(0, 12) + ".git");
+    }
+}
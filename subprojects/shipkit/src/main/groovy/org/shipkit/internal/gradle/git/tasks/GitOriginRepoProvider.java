@@ -2,15 +2,25 @@ package org.shipkit.internal.gradle.git.tasks;
 
 import org.shipkit.internal.exec.ProcessRunner;
 
+import java.io.File;
 import java.util.Arrays;
 import java.util.List;
 
 class GitOriginRepoProvider {
 
     private final ProcessRunner processRunner;
+    private final File workDir;
 
     public GitOriginRepoProvider(ProcessRunner processRunner) {
+        this(processRunner, null);
+    }
+
+    /**
+     * @param workDir used to read origin url from git config without starting git process, may be null
+     */
+    public GitOriginRepoProvider(ProcessRunner processRunner, File workDir) {
         this.processRunner = processRunner;
+        this.workDir = workDir;
     }
 
     /**
@@ -18,8 +28,11 @@ class GitOriginRepoProvider {
      */
     public String getOriginGitRepo() {
         // for GitHub returns git@github.com:user/repo.git or https://github.com/user/repo.git
-        List<String> command = Arrays.asList("git", "remote", "get-url", "origin");
-        String output = processRunner.run(command).trim();
+        String output = readOriginUrl();
+        if (output == null) {
+            List<String> command = Arrays.asList("git", "remote", "get-url", "origin");
+            output = processRunner.run(command).trim();
+        }
 
         if (output.startsWith("git")) {
             return output
@@ -31,4 +44,12 @@ class GitOriginRepoProvider {
                 .replaceFirst(".git$", ""); // remove .git suffix
         }
     }
+
+    private String readOriginUrl() {
+        if (workDir == null) {
+            return null;
+        }
+        GitRepositoryReader repository = GitRepositoryReader.find(workDir);
+        return repository == null ? null : repository.getRemoteUrl("origin");
+    }
 }
@@ -0,0 +1,157 @@
+package org.shipkit.internal.gradle.git.tasks;
+
+import org.gradle.api.GradleException;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.shipkit.internal.exec.Exec;
+import org.shipkit.internal.exec.ProcessRunner;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Commits files using git plumbing commands instead of 'git add' and 'git commit':
+ * the index is updated with 'git update-index', the tree is written with 'git write-tree',
+ * the commit is created with 'git commit-tree' and the current branch is moved with 'git update-ref'.
+ * <p>
+ * The commit is the same as the one created by 'git commit --author', but git does not compute
+ * the summary of changed files, which takes long for large generated trees like Javadoc.
+ * Commit hooks are not executed.
+ * <p>
+ * The commit takes six short git processes. Only 'git ls-files' and 'git update-index' do work proportional
+ * to the size of committed files, the rest only read or write single objects and refs.
+ * 'git ls-files' cannot be folded into 'git update-index', only the former finds new and deleted files.
+ * Requires git 2.26 or newer because of 'update-index --ignore-skip-worktree-entries', see {@link GitVersion}.
+ */
+class GitPlumbingCommit {
+
+    private static final Logger LOG = Logging.getLogger(GitPlumbingCommit.class);
+    private static final Map<String, String> NO_ENVIRONMENT = Collections.emptyMap();
+
+    private final File workDir;
+    private final ProcessRunner runner;
+
+    GitPlumbingCommit(File workDir) {
+        this(workDir, Exec.getProcessRunner(workDir));
+    }
+
+    GitPlumbingCommit(File workDir, ProcessRunner runner) {
+        this.workDir = workDir;
+        this.runner = runner;
+    }
+
+    /**
+     * Commits current content of given files and directories, including deleted files, to the current branch.
+     *
+     * @return id of the new commit
+     * @throws GradleException when there is nothing to commit or git fails
+     */
+    String commit(List<File> files, String authorName, String authorEmail, String message) {
+        //quoted paths are plain ASCII, 'git update-index' unquotes them
+        List<String> listFiles = new ArrayList<>(asList("git", "-c", "core.quotePath=true",
+            "ls-files", "--cached", "--others", "--exclude-standard", "--"));
+        for (File file : files) {
+            listFiles.add(file.getAbsolutePath());
+        }
+        String paths = runner.run(listFiles);
+        if (!paths.trim().isEmpty()) {
+            //files outside of sparse checkout are missing in the work tree, they must not be removed from the index
+            runner.run(asList("git", "update-index", "--add", "--remove", "--ignore-skip-worktree-entries", "--stdin"),
+                paths, NO_ENVIRONMENT);
+        }
+        String tree = id(asList("git", "write-tree"), runner.run("git", "write-tree"));
+
+        String parent = null;
+        String parentTree = null;
+        List<String> head = readHead();
+        if (head != null) {
+            parent = head.get(0);
+            parentTree = head.get(1);
+        }
+        if (tree.equals(parentTree)) {
+            throw new GradleException("Nothing to commit in " + workDir + ", files are not changed: " + files);
+        }
+
+        List<String> commitTree = new ArrayList<>(asList("git", "commit-tree", tree));
+        if (parent != null) {
+            commitTree.addAll(asList("-p", parent));
+        }
+        commitTree.addAll(asList("-F", "-"));
+        Map<String, String> author = new HashMap<>();
+        author.put("GIT_AUTHOR_NAME", authorName);
+        author.put("GIT_AUTHOR_EMAIL", authorEmail);
+        String cleanMessage = cleanupMessage(message);
+        String commit = id(commitTree, runner.run(commitTree, cleanMessage, author));
+
+        //reflog message is the same as the one written by 'git commit'
+        String subject = cleanMessage.isEmpty() ? "" : cleanMessage.substring(0, cleanMessage.indexOf('\n'));
+        List<String> updateRef = new ArrayList<>(asList("git", "update-ref", "-m",
+            (parent == null ? "commit (initial): " : "commit: ") + subject, "HEAD", commit));
+        //old value makes the update fail if the branch was moved concurrently
+        updateRef.add(parent == null ? "" : parent);
+        runner.run(updateRef);
+
+        LOG.lifecycle("  Committed {} using git plumbing commands in {}", commit, workDir);
+        return commit;
+    }
+
+    /**
+     * Current commit and its tree, or null when the branch has no commits yet
+     */
+    private List<String> readHead() {
+        List<String> revParse = asList("git", "rev-parse", "HEAD", "HEAD^{tree}");
+        String output;
+        try {
+            output = runner.run(revParse);
+        } catch (GradleException e) {
+            LOG.info("Current branch in {} has no commits, creating root commit", workDir);
+            return null;
+        }
+        String[] ids = output.trim().split("\\s+");
+        if (ids.length != 2) {
+            throw unexpectedOutput(revParse, output);
+        }
+        return asList(id(revParse, ids[0]), id(revParse, ids[1]));
+    }
+
+    /**
+     * Cleans up commit message like 'git commit -m' does by default ("whitespace" mode):
+     * strips trailing whitespace from lines, leading and trailing empty lines,
+     * collapses consecutive empty lines and terminates the message with line feed.
+     */
+    static String cleanupMessage(String message) {
+        StringBuilder result = new StringBuilder();
+        boolean pendingEmptyLine = false;
+        for (String line : message.replace("\r\n", "\n").split("\n")) {
+            String stripped = line.replaceAll("\\s+$", "");
+            if (stripped.isEmpty()) {
+                pendingEmptyLine = result.length() > 0;
+                continue;
+            }
+            if (pendingEmptyLine) {
+                result.append("\n");
+                pendingEmptyLine = false;
+            }
+            result.append(stripped).append("\n");
+        }
+        return result.toString();
+    }
+
+    private String id(List<String> commandLine, String output) {
+        String id = output.trim();
+        if (!id.matches("[0-9a-f]{40,64}")) {
+            throw unexpectedOutput(commandLine, output);
+        }
+        return id;
+    }
+
+    private GradleException unexpectedOutput(List<String> commandLine, String output) {
+        return new GradleException("Unexpected output of '" + String.join(" ", commandLine) + "' in " + workDir + ": " + output);
+    }
+}
@@ -0,0 +1,310 @@
+package org.shipkit.internal.gradle.git.tasks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Reads basic information about git repository directly from the files in git directory, without starting git process:
+ * current branch from HEAD, refs from loose ref files and packed-refs, and remote urls from repository config.
+ * Supports work trees created by 'git worktree add' and '.git' files pointing to the git directory ("gitdir: ...").
+ * <p>
+ * Methods return null when the information cannot be read reliably, e.g. the config includes other files.
+ * Callers should run git in this case.
+ */
+public class GitRepositoryReader {
+
+    private final File gitDir;
+    private final File commonDir;
+
+    GitRepositoryReader(File gitDir, File commonDir) {
+        this.gitDir = gitDir;
+        this.commonDir = commonDir;
+    }
+
+    /**
+     * Finds git directory of given work dir or any of its parents.
+     *
+     * @return reader or null if the work dir is not in a git repository
+     */
+    public static GitRepositoryReader find(File workDir) {
+        File dir = workDir.getAbsoluteFile();
+        while (dir != null) {
+            File dotGit = new File(dir, ".git");
+            if (dotGit.isDirectory()) {
+                return forGitDir(dotGit);
+            }
+            if (dotGit.isFile()) {
+                //work trees and submodules have '.git' file pointing to the git directory
+                String content = read(dotGit);
+                if (content == null || !content.startsWith("gitdir:")) {
+                    return null;
+                }
+                return forGitDir(resolve(dir, content.substring("gitdir:".length()).trim()));
+            }
+            dir = dir.getParentFile();
+        }
+        return null;
+    }
+
+    private static GitRepositoryReader forGitDir(File gitDir) {
+        if (!new File(gitDir, "HEAD").isFile()) {
+            return null;
+        }
+        //git directory of a work tree keeps HEAD, other refs and config are in the common directory
+        String commonDir = read(new File(gitDir, "commondir"));
+        return new GitRepositoryReader(gitDir, commonDir != null ? resolve(gitDir, commonDir.trim()) : gitDir);
+    }
+
+    /**
+     * Git directory, for work trees it is the work tree specific directory
+     */
+    public File getGitDir() {
+        return gitDir;
+    }
+
+    /**
+     * Current branch name, like 'git rev-parse --abbrev-ref HEAD': short name of the branch, e.g. "master",
+     * or "HEAD" when HEAD is detached. Null if HEAD cannot be read.
+     */
+    public String getCurrentBranch() {
+        String head = read(new File(gitDir, "HEAD"));
+        if (head == null) {
+            return null;
+        }
+        if (!head.startsWith("ref:")) {
+            return "HEAD";
+        }
+        String ref = head.substring("ref:".length()).trim();
+        return ref.startsWith("refs/heads/") ? ref.substring("refs/heads/".length()) : ref;
+    }
+
+    /**
+     * Resolves full ref name, e.g. "HEAD" or "refs/tags/v1.0.0", to object id.
+     * Symbolic refs are followed. Returns null if the ref does not exist.
+     */
+    public String resolveRef(String ref) {
+        for (int depth = 0; depth < 5 && ref != null; depth++) {
+            String value = readRef(ref);
+            if (value == null || !value.startsWith("ref:")) {
+                return value;
+            }
+            ref = value.substring("ref:".length()).trim();
+        }
+        return null;
+    }
+
+    private String readRef(String ref) {
+        //HEAD and per-worktree refs are in git directory, shared refs in the common directory
+        String loose = read(new File(gitDir, ref));
+        if (loose == null && commonDir != gitDir) {
+            loose = read(new File(commonDir, ref));
+        }
+        if (loose != null) {
+            return loose.trim();
+        }
+        String packed = read(new File(commonDir, "packed-refs"));
+        if (packed != null) {
+            for (String line : packed.split("\n")) {
+                //skip header and peeled values of annotated tags
+                if (line.startsWith("#") || line.startsWith("^")) {
+                    continue;
+                }
+                int space = line.indexOf(' ');
+                if (space > 0 && line.substring(space + 1).trim().equals(ref)) {
+                    return line.substring(0, space);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Url of given remote from repository config, like 'git remote get-url', e.g. "https://github.com/mockito/shipkit.git".
+     * "url.*.insteadOf" rewrites from repository, global and system config are applied.
+     * Returns null when the remote is not configured in repository config, when any of the config files includes other files,
+     * when config is also passed in environment variables, e.g. GIT_CONFIG_GLOBAL, or when the url is not absolute,
+     * e.g. "gh:mockito/shipkit" that could be rewritten by config in a location not known to this reader.
+     */
+    public String getRemoteUrl(String remote) {
+        return getRemoteUrl(remote, getGlobalConfigFiles(System.getenv()));
+    }
+
+    /**
+     * @param globalConfigFiles global and system config files, or null when they are not known
+     */
+    String getRemoteUrl(String remote, List<File> globalConfigFiles) {
+        Map<String, List<String>> config = readConfig(new File(commonDir, "config"));
+        if (config == null || globalConfigFiles == null) {
+            return null;
+        }
+        List<String> urls = config.get("remote." + remote + ".url");
+        if (urls == null) {
+            return null;
+        }
+        List<Map<String, List<String>>> configs = new ArrayList<>();
+        configs.add(config);
+        for (File file : globalConfigFiles) {
+            if (file.exists()) {
+                Map<String, List<String>> global = readConfig(file);
+                if (global == null) {
+                    return null;
+                }
+                configs.add(global);
+            }
+        }
+        String url = rewriteUrl(urls.get(0), configs);
+        return isAbsolute(url) ? url : null;
+    }
+
+    /**
+     * Global and system config files read by git, null when git config is passed in environment variables
+     */
+    static List<File> getGlobalConfigFiles(Map<String, String> env) {
+        for (String variable : asList("GIT_CONFIG", "GIT_CONFIG_GLOBAL", "GIT_CONFIG_SYSTEM", "GIT_CONFIG_COUNT", "GIT_CONFIG_PARAMETERS")) {
+            if (env.containsKey(variable)) {
+                return null;
+            }
+        }
+        String home = env.containsKey("HOME") ? env.get("HOME") : System.getProperty("user.home");
+        String xdgConfigHome = env.containsKey("XDG_CONFIG_HOME") ? env.get("XDG_CONFIG_HOME") : home + "/.config";
+        List<File> result = new ArrayList<>(asList(new File(xdgConfigHome, "git/config"), new File(home, ".gitconfig")));
+        if (!env.containsKey("GIT_CONFIG_NOSYSTEM")) {
+            result.add(new File("/etc/gitconfig"));
+        }
+        return result;
+    }
+
+    private static String rewriteUrl(String url, List<Map<String, List<String>>> configs) {
+        String base = null;
+        String prefix = "";
+        for (Map<String, List<String>> config : configs) {
+            for (Map.Entry<String, List<String>> e : config.entrySet()) {
+                String key = e.getKey();
+                if (key.startsWith("url.") && key.endsWith(".insteadof")) {
+                    for (String insteadOf : e.getValue()) {
+                        //the longest match wins
+                        if (url.startsWith(insteadOf) && insteadOf.length() > prefix.length()) {
+                            base = key.substring("url.".length(), key.length() - ".insteadof".length());
+                            prefix = insteadOf;
+                        }
+                    }
+                }
+            }
+        }
+        return base == null ? url : base + url.substring(prefix.length());
+    }
+
+    /**
+     * Url with protocol, e.g. "https://github.com/mockito/shipkit.git", ssh url with user, e.g. "git@github.com:mockito/shipkit.git"
+     * or absolute path
+     */
+    private static boolean isAbsolute(String url) {
+        int colon = url.indexOf(':');
+        return url.contains("://") || (colon > 0 && url.lastIndexOf('@', colon) > 0) || new File(url).isAbsolute();
+    }
+
+    /**
+     * Reads git config file into map of keys to values, e.g. "remote.origin.url".
+     * Section and key names are lower case, subsection names are kept as is.
+     * Returns null if the file cannot be read or includes other files.
+     */
+    static Map<String, List<String>> readConfig(File file) {
+        String content = read(file);
+        if (content == null) {
+            return null;
+        }
+        Map<String, List<String>> result = new LinkedHashMap<>();
+        String section = null;
+        for (String rawLine : content.split("\n")) {
+            String line = rawLine.trim();
+            if (line.isEmpty() || line.startsWith("#") || line.startsWith(";")) {
+                continue;
+            }
+            if (line.startsWith("[")) {
+                int end = line.indexOf(']');
+                if (end < 0) {
+                    return null;
+                }
+                section = parseSection(line.substring(1, end));
+                if (section == null || section.equals("include") || section.startsWith("includeif.")) {
+                    return null;
+                }
+                continue;
+            }
+            if (section == null) {
+                return null;
+            }
+            int eq = line.indexOf('=');
+            String key = (eq < 0 ? line : line.substring(0, eq)).trim().toLowerCase();
+            String value = eq < 0 ? "true" : parseValue(line.substring(eq + 1));
+            if (value == null) {
+                return null;
+            }
+            result.computeIfAbsent(section + "." + key, k -> new ArrayList<>()).add(value);
+        }
+        return result;
+    }
+
+    private static String parseSection(String header) {
+        int quote = header.indexOf('"');
+        if (quote < 0) {
+            //legacy [section.subsection] syntax, subsection is lower case
+            return header.trim().toLowerCase();
+        }
+        int endQuote = header.lastIndexOf('"');
+        if (endQuote <= quote) {
+            return null;
+        }
+        String subsection = header.substring(quote + 1, endQuote).replace("\\\"", "\"").replace("\\\\", "\\");
+        return header.substring(0, quote).trim().toLowerCase() + "." + subsection;
+    }
+
+    /**
+     * Parses value: strips comments and quotes, handles escapes. Returns null for values continued on next line.
+     */
+    private static String parseValue(String raw) {
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == '\\') {
+                if (i + 1 >= raw.length()) {
+                    return null;
+                }
+                char next = raw.charAt(++i);
+                value.append(next == 'n' ? '\n' : next == 't' ? '\t' : next == 'b' ? '\b' : next);
+            } else if ((c == '#' || c == ';') && !quoted) {
+                break;
+            } else {
+                value.append(c);
+            }
+        }
+        return value.toString().trim();
+    }
+
+    private static File resolve(File base, String path) {
+        File f = new File(path);
+        return f.isAbsolute() ? f : new File(base, path);
+    }
+
+    private static String read(File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).replace("\r\n", "\n");
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
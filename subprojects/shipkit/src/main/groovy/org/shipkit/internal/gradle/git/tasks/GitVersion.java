@@ -0,0 +1,57 @@
+package org.shipkit.internal.gradle.git.tasks;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.shipkit.internal.exec.ProcessRunner;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Version of git installed on the machine, needed by features that require recent git.
+ * The version is detected with 'git --version' once per JVM.
+ */
+class GitVersion {
+
+    private static final Logger LOG = Logging.getLogger(GitVersion.class);
+    private static final Pattern VERSION = Pattern.compile("git version (\\d+)\\.(\\d+)");
+
+    private static volatile int[] detected;
+
+    /**
+     * Returns true when the installed git is given version or newer, false when it is older or cannot be detected
+     */
+    static boolean isAtLeast(ProcessRunner runner, int major, int minor) {
+        int[] version = detected;
+        if (version == null) {
+            version = detect(runner);
+            detected = version;
+        }
+        return isAtLeast(version, major, minor);
+    }
+
+    static boolean isAtLeast(int[] version, int major, int minor) {
+        return version[0] > major || (version[0] == major && version[1] >= minor);
+    }
+
+    /**
+     * Parses output of 'git --version', e.g. "git version 2.24.3 (Apple Git-128)" or "git version 2.37.1.windows.1".
+     * Returns {0, 0} when the output is not recognized.
+     */
+    static int[] parse(String versionOutput) {
+        Matcher matcher = VERSION.matcher(versionOutput);
+        if (!matcher.find()) {
+            return new int[]{0, 0};
+        }
+        return new int[]{Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))};
+    }
+
+    private static int[] detect(ProcessRunner runner) {
+        try {
+            return parse(runner.run("git", "--version"));
+        } catch (RuntimeException e) {
+            LOG.info("Unable to detect git version", e);
+            return new int[]{0, 0};
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.shipkit.internal.gradle.git.tasks;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.shipkit.gradle.git.IdentifyChangedFilesTask;
+import org.shipkit.internal.exec.ProcessRunner;
+import org.shipkit.internal.gradle.git.domain.ChangedFiles;
+
+import java.io.File;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static java.util.Arrays.asList;
+
+public class IdentifyChangedFiles {
+
+    private final static Logger LOG = Logging.getLogger(IdentifyChangedFilesTask.class);
+
+    private final ProcessRunner runner;
+
+    public IdentifyChangedFiles(ProcessRunner runner) {
+        this.runner = runner;
+    }
+
+    /**
+     * Returns files changed since given revision, including uncommitted and untracked files.
+     * Returns null when the changes cannot be identified, e.g. the revision is not available in the local repository.
+     */
+    public ChangedFiles identifyChangedFiles(String revision) {
+        if (revision == null) {
+            LOG.lifecycle("  Revision to compare with is not known, unable to identify changed files.");
+            return null;
+        }
+        String output;
+        String untracked;
+        File topLevel;
+        try {
+            //fails fast with descriptive message when revision is not available, e.g. shallow clone
+            runner.run("git", "rev-parse", "--verify", "--quiet", revision + "^{commit}");
+            topLevel = new File(runner.run("git", "rev-parse", "--show-toplevel").trim());
+            //quoting of paths is disabled so that non-ASCII file names are printed as is.
+            //Without rename detection a moved file is reported with both old and new path, both modules are changed
+            output = runner.run(asList("git", "-c", "core.quotepath=off", "diff", "--name-only", "--no-renames", revision));
+            //'ls-files' prints paths relative to the working dir, unlike 'diff', full names are relative to the top level
+            untracked = runner.run(asList("git", "-c", "core.quotepath=off", "ls-files", "--others", "--exclude-standard", "--full-name"));
+        } catch (RuntimeException e) {
+            LOG.lifecycle("  Unable to identify files changed since '{}', all projects are considered changed.", revision);
+            LOG.info("Unable to identify changed files", e);
+            return null;
+        }
+
+        Set<File> files = new LinkedHashSet<>();
+        addFiles(topLevel, output, files);
+        addFiles(topLevel, untracked, files);
+        LOG.lifecycle("  Identified {} files changed since '{}'.", files.size(), revision);
+        return new ChangedFiles(revision, files);
+    }
+
+    private static void addFiles(File topLevel, String output, Set<File> files) {
+        for (String line : output.split("\n")) {
+            if (!line.trim().isEmpty()) {
+                files.add(new File(topLevel, line));
+            }
+        }
+    }
+}
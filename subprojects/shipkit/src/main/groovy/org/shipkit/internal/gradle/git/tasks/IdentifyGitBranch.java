@@ -5,19 +5,45 @@ import org.gradle.api.logging.Logging;
 import org.shipkit.gradle.git.IdentifyGitBranchTask;
 import org.shipkit.internal.exec.Exec;
 
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.unmodifiableList;
+
 public class IdentifyGitBranch {
 
+    /**
+     * Default command line of {@link IdentifyGitBranchTask}
+     */
+    public static final List<String> DEFAULT_COMMAND_LINE = unmodifiableList(asList("git", "rev-parse", "--abbrev-ref", "HEAD"));
+
     private final Logger LOG = Logging.getLogger(IdentifyGitBranchTask.class);
 
     public void identifyBranch(IdentifyGitBranchTask task, String branch) {
         if (branch == null) {
-            task.setBranch(Exec.getProcessRunner(task.getWorkDir())
-                .run(task.getCommandLine())
-                .trim());
+            String currentBranch = readCurrentBranch(task);
+            if (currentBranch == null) {
+                currentBranch = Exec.getProcessRunner(task.getWorkDir())
+                    .run(task.getCommandLine())
+                    .trim();
+            }
+            task.setBranch(currentBranch);
         }
         LOG.lifecycle("  Identified current branch: " + task.getBranch());
     }
 
+    /**
+     * Reads the branch from git directory without starting git process.
+     * Returns null if the command line was customized or the branch cannot be read.
+     */
+    private String readCurrentBranch(IdentifyGitBranchTask task) {
+        if (!DEFAULT_COMMAND_LINE.equals(task.getCommandLine())) {
+            return null;
+        }
+        GitRepositoryReader repository = GitRepositoryReader.find(task.getWorkDir());
+        return repository == null ? null : repository.getCurrentBranch();
+    }
+
     public String getBranch(String branch) {
         if (branch == null) {
             throw new IdentifyGitBranchTask.BranchNotAvailableException("Don't know the branch yet because the task was not executed yet!");
@@ -27,7 +27,7 @@ public class IdentifyGitOriginRepoTask extends DefaultTask {
 
     @Inject
     public IdentifyGitOriginRepoTask() {
-        originRepoProvider = new GitOriginRepoProvider(new DefaultProcessRunner(getProject().getProjectDir()));
+        originRepoProvider = new GitOriginRepoProvider(new DefaultProcessRunner(getProject().getProjectDir()), getProject().getProjectDir());
     }
 
     @TaskAction
@@ -5,6 +5,7 @@ import org.gradle.api.Plugin;
 import org.gradle.api.Project;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.api.publish.maven.MavenPublication;
 import org.gradle.api.tasks.bundling.Jar;
 import org.shipkit.gradle.configuration.ShipkitConfiguration;
 import org.shipkit.gradle.java.ComparePublicationsTask;
@@ -14,6 +15,8 @@ import org.shipkit.internal.comparison.artifact.DefaultArtifactUrlResolverFactor
 import org.shipkit.internal.gradle.configuration.DeferredConfiguration;
 import org.shipkit.internal.gradle.configuration.ShipkitConfigurationPlugin;
 import org.shipkit.internal.gradle.java.tasks.CreateDependencyInfoFileTask;
+import org.shipkit.internal.gradle.java.tasks.CreateHashManifestTask;
+import org.shipkit.internal.gradle.util.GradleDSLHelper;
 import org.shipkit.internal.gradle.util.TaskMaker;
 
 import java.io.File;
@@ -26,6 +29,10 @@ import java.io.File;
  * The file is included in META-INF directory of sources jar.
  * It is later used for comparing publications. Shipkit considers adding/changing version/removing a dependency
  * as an important change after which release is necessary.
+ * Additionally, SHA-256 hashes of all sources jar entries are published as "sources-hashes" artifact.
+ * When the previous release has the hashes published, they are used for comparison
+ * and the previous sources jar is downloaded only if dependency-info.md changed.
+ * Instead of the sources, compiled classes can be compared, see {@link ComparePublicationsTask#getComparisonMode()}.
  *
  * <p>
  * Applies:
@@ -39,6 +46,7 @@ import java.io.File;
  *
  * <ul>
  *     <li>createDependencyInfoFile - {@link CreateDependencyInfoFileTask}</li>
+ *     <li>createSourcesHashes - {@link CreateHashManifestTask}</li>
  *     <li>downloadPreviousReleaseArtifacts - {@link DownloadPreviousPublicationsTask}</li>
  *     <li>comparePublications - {@link ComparePublicationsTask}</li>
  * </ul>
@@ -47,9 +55,16 @@ public class ComparePublicationsPlugin implements Plugin<Project> {
 
     private static final Logger LOG = Logging.getLogger(ComparePublicationsPlugin.class);
 
-    final static String DOWNLOAD_PUBLICATIONS_TASK = "downloadPreviousReleaseArtifacts";
+    public final static String DOWNLOAD_PUBLICATIONS_TASK = "downloadPreviousReleaseArtifacts";
     public final static String COMPARE_PUBLICATIONS_TASK = "comparePublications";
+    public final static String DEPENDENCY_INFO_TASK = "createDependencyInfoFile";
     public static final String DEPENDENCY_INFO_FILENAME = "dependency-info.md";
+    /**
+     * Project property that disables "any-change" comparison mode, see {@link ComparePublicationsTask#isAnyChange()}
+     */
+    public static final String DETAILED_COMPARISON_PROPERTY = "detailedComparison";
+    final static String SOURCES_HASHES_TASK = "createSourcesHashes";
+    final static String SOURCES_HASHES_CLASSIFIER = "sources-hashes";
 
     final static String PREVIOUS_ARTIFACTS_DIR = "/previous-release-artifacts";
 
@@ -62,8 +77,11 @@ public class ComparePublicationsPlugin implements Plugin<Project> {
 
         String basePreviousVersionArtifactPath = getBasePreviousVersionArtifactPath(project, conf, sourcesJar);
         final File previousSourcesJar = new File(basePreviousVersionArtifactPath + "-sources.jar");
+        final File artifactCacheDir = getArtifactCacheDir(project);
+        final File previousSourcesHashes = new File(basePreviousVersionArtifactPath + "-" + SOURCES_HASHES_CLASSIFIER + ".txt");
+        final File previousBinaryJar = new File(basePreviousVersionArtifactPath + ".jar");
 
-        final CreateDependencyInfoFileTask dependencyInfoTask = TaskMaker.task(project, "createDependencyInfoFile", CreateDependencyInfoFileTask.class, new Action<CreateDependencyInfoFileTask>() {
+        final CreateDependencyInfoFileTask dependencyInfoTask = TaskMaker.task(project, DEPENDENCY_INFO_TASK, CreateDependencyInfoFileTask.class, new Action<CreateDependencyInfoFileTask>() {
             @Override
             public void execute(final CreateDependencyInfoFileTask task) {
                 task.setDescription("Creates a file with all declared runtime dependencies.");
@@ -83,10 +101,36 @@ public class ComparePublicationsPlugin implements Plugin<Project> {
         sourcesJar.getMetaInf().from(dependencyInfoTask.getOutputFile());
         sourcesJar.dependsOn(dependencyInfoTask);
 
+        final CreateHashManifestTask sourcesHashesTask = TaskMaker.task(project, SOURCES_HASHES_TASK, CreateHashManifestTask.class, new Action<CreateHashManifestTask>() {
+            @Override
+            public void execute(final CreateHashManifestTask task) {
+                task.setDescription("Creates a file with SHA-256 hashes of all entries of the sources jar.");
+                task.setOutputFile(new File(project.getBuildDir(), SOURCES_HASHES_CLASSIFIER + ".txt"));
+                task.dependsOn(sourcesJar);
+
+                DeferredConfiguration.deferredConfiguration(project, new Runnable() {
+                    @Override
+                    public void run() {
+                        task.setZipFile(sourcesJar.getArchivePath());
+                    }
+                });
+            }
+        });
+
+        GradleDSLHelper.publications(project, publications -> {
+            MavenPublication publication = (MavenPublication) publications.getByName(JavaPublishPlugin.PUBLICATION_NAME);
+            publication.artifact(sourcesHashesTask.getOutputFile(), artifact -> {
+                artifact.setClassifier(SOURCES_HASHES_CLASSIFIER);
+                artifact.setExtension("txt");
+                artifact.builtBy(sourcesHashesTask);
+            });
+        });
+
         TaskMaker.task(project, DOWNLOAD_PUBLICATIONS_TASK, DownloadPreviousPublicationsTask.class, new Action<DownloadPreviousPublicationsTask>() {
             @Override
             public void execute(final DownloadPreviousPublicationsTask t) {
                 t.setDescription("Downloads artifacts of last released version and stores it locally for comparison");
+                t.setArtifactCacheDir(artifactCacheDir);
 
                 DeferredConfiguration.deferredConfiguration(project, new Runnable() {
                     @Override
@@ -97,6 +141,11 @@ public class ComparePublicationsPlugin implements Plugin<Project> {
                         String previousVersionSourcesJarUrl = getDefaultIfNull(t.getPreviousSourcesJarUrl(), "previousSourcesJarUrl", "-sources.jar", artifactUrlResolver);
                         t.setPreviousSourcesJarUrl(previousVersionSourcesJarUrl);
                         t.setPreviousSourcesJarFile(previousSourcesJar);
+
+                        String previousVersionSourcesHashesUrl = getDefaultIfNull(t.getPreviousSourcesHashesUrl(), "previousSourcesHashesUrl",
+                            "-" + SOURCES_HASHES_CLASSIFIER + ".txt", artifactUrlResolver);
+                        t.setPreviousSourcesHashesUrl(previousVersionSourcesHashesUrl);
+                        t.setPreviousSourcesHashesFile(previousSourcesHashes);
                     }
                 });
             }
@@ -109,14 +158,41 @@ public class ComparePublicationsPlugin implements Plugin<Project> {
                 t.dependsOn(DOWNLOAD_PUBLICATIONS_TASK);
 
                 t.setComparisonResult(new File(project.getBuildDir(), "publications-comparison.txt"));
+                t.setComparisonSummary(new File(project.getBuildDir(), "publications-comparison.json"));
                 t.setPreviousSourcesJar(previousSourcesJar);
+                t.setPreviousSourcesHashes(previousSourcesHashes);
+                t.setArtifactCacheDir(artifactCacheDir);
+
+                //Previous sources jar is downloaded lazily, only when hashes show that dependency-info.md changed
+                final DownloadPreviousPublicationsTask download = (DownloadPreviousPublicationsTask) project.getTasks().getByName(DOWNLOAD_PUBLICATIONS_TASK);
+                DeferredConfiguration.deferredConfiguration(project, new Runnable() {
+                    @Override
+                    public void run() {
+                        t.setPreviousSourcesJarUrl(download.getPreviousSourcesJarUrl());
+
+                        DefaultArtifactUrlResolver artifactUrlResolver =
+                                new DefaultArtifactUrlResolverFactory().getDefaultResolver(project, sourcesJar.getBaseName(), conf.getPreviousReleaseVersion());
+                        t.setPreviousBinaryJarUrl(getDefaultIfNull(t.getPreviousBinaryJarUrl(), "previousBinaryJarUrl", ".jar", artifactUrlResolver));
+                    }
+                });
 
                 //Set local sources jar for comparison with previously released
                 t.compareSourcesJar(sourcesJar);
+
+                //Jar with compiled classes is compared only when configured, see ComparePublicationsTask.getComparisonMode()
+                t.setPreviousBinaryJar(previousBinaryJar);
+                t.compareBinaryJar((Jar) project.getTasks().getByName("jar"));
             }
         });
     }
 
+    /**
+     * Previous release artifacts are cached in Gradle user home so that all builds on the machine can reuse them
+     */
+    static File getArtifactCacheDir(Project project) {
+        return new File(project.getGradle().getGradleUserHomeDir(), "caches/shipkit/artifacts");
+    }
+
     private String getBasePreviousVersionArtifactPath(Project project, ShipkitConfiguration conf, Jar sourcesJar) {
         return project.getBuildDir().getAbsolutePath() + PREVIOUS_ARTIFACTS_DIR
                 + File.separator + sourcesJar.getBaseName() + "-" + conf.getPreviousReleaseVersion();
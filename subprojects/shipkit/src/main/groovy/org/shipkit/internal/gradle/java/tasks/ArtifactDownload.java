@@ -0,0 +1,49 @@
+package org.shipkit.internal.gradle.java.tasks;
+
+import java.io.File;
+
+/**
+ * Outcome of a single artifact download, used for reporting download timings
+ */
+public class ArtifactDownload {
+
+    private final String url;
+    private final File file;
+    private final boolean successful;
+    private final long durationMillis;
+
+    ArtifactDownload(String url, File file, boolean successful, long durationMillis) {
+        this.url = url;
+        this.file = file;
+        this.successful = successful;
+        this.durationMillis = durationMillis;
+    }
+
+    /**
+     * Location of downloaded artifact
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Local file where the artifact was stored
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * False if the artifact could not be downloaded, e.g. it was not published
+     */
+    public boolean isSuccessful() {
+        return successful;
+    }
+
+    /**
+     * How long the download took
+     */
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+}
@@ -4,6 +4,8 @@ import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.shipkit.gradle.java.ComparePublicationsTask;
 import org.shipkit.internal.comparison.ComparePublicationsResultFormatter;
+import org.shipkit.internal.comparison.ComparisonSummary;
+import org.shipkit.internal.comparison.HashManifest;
 import org.shipkit.internal.comparison.StringComparator;
 import org.shipkit.internal.comparison.ZipComparator;
 import org.shipkit.internal.comparison.diff.Diff;
@@ -17,48 +19,209 @@ public class ComparePublications {
 
     private final static Logger LOG = Logging.getLogger(ComparePublications.class);
     public static final String DEPENDENCY_INFO_FILEPATH = "META-INF/" + ComparePublicationsPlugin.DEPENDENCY_INFO_FILENAME;
+    static final String ANY_CHANGE_RESULT = ComparePublicationsResultFormatter.LONG_INDENT
+        + "Publication changed since previous release. Comparison stopped at the first difference,\n"
+        + ComparePublicationsResultFormatter.LONG_INDENT
+        + "run with '-P" + ComparePublicationsPlugin.DETAILED_COMPARISON_PROPERTY + "' to get the detailed report.\n";
 
     //TODO: WW create unit tests
-    public void comparePublications(ComparePublicationsTask task) {
-        if (!task.getPreviousSourcesJar().exists()) {
-            LOG.lifecycle("{} - previous publications not found, nothing to compare, skipping", task.getPath());
+    public void comparePublications(ComparePublicationsParameters params) {
+        long start = System.currentTimeMillis();
+        if (params.isUnchangedSincePreviousRelease()) {
+            LOG.lifecycle("{} - no changes in project inputs since previous release, publications are considered identical", params.getPath());
+            IOUtil.writeFile(params.getComparisonResult(), "");
+            writeSummary(params, new ComparisonSummary(params.getProjectPath(), ComparisonSummary.Status.IDENTICAL, true,
+                0, 0, 0, false, null, null, System.currentTimeMillis() - start));
+            return;
+        }
+
+        boolean previousHashesExist = params.getPreviousSourcesHashes() != null && params.getPreviousSourcesHashes().isFile();
+        if (!previousHashesExist && !params.getPreviousSourcesJar().exists()) {
+            LOG.lifecycle("{} - previous publications not found, nothing to compare, skipping", params.getPath());
+            if (params.getComparisonSummary() != null) {
+                params.getComparisonSummary().delete();
+            }
+            return;
+        }
+
+        if (params.isAnyChange() && params.isDifferenceAlreadyFound()) {
+            LOG.lifecycle("{} - other publication already changed, skipping comparison", params.getPath());
+            //the result would be stale, other publication's result is enough to decide that release is needed
+            params.getComparisonResult().delete();
+            writeSummary(params, new ComparisonSummary(params.getProjectPath(), ComparisonSummary.Status.SKIPPED, false,
+                0, 0, 0, false, null, null, System.currentTimeMillis() - start));
             return;
         }
 
         //TODO let's add decent validation and descriptive error messages to the user
-        assert task.getSourcesJar().getArchivePath().isFile();
+        assert params.getSourcesJar().isFile();
 
-        File currentVersionSourcesJarFile = task.getSourcesJar().getArchivePath();
+        File currentVersionSourcesJarFile = params.getSourcesJar();
 
         LOG.lifecycle("{} - about to compare publications",
-                task.getPath());
+                params.getPath());
+
+        if (params.isAnyChange()) {
+            ComparisonSummary summary = anyChange(params, currentVersionSourcesJarFile, previousHashesExist, start);
+            boolean changed = summary.getStatus() == ComparisonSummary.Status.CHANGED;
+            LOG.lifecycle("{} - publications changed: {}", params.getPath(), changed);
+            IOUtil.writeFile(params.getComparisonResult(), changed ? ANY_CHANGE_RESULT : "");
+            writeSummary(params, summary);
+            return;
+        }
+
+        Diff depInfoDiff;
+        Diff jarsDiff;
+        String previousHash = null;
+        String currentHash = null;
+        HashManifest previousClasses = getPreviousClasses(params);
+        if (previousClasses != null) {
+            depInfoDiff = previousHashesExist
+                ? getDependencyInfoDiff(params, HashManifest.read(params.getPreviousSourcesHashes()),
+                    HashManifest.of(currentVersionSourcesJarFile), currentVersionSourcesJarFile)
+                : getDependencyInfoDiff(params, currentVersionSourcesJarFile);
+            HashManifest currentClasses = getCurrentClasses(params);
+            jarsDiff = new ZipComparator().areEqual(previousClasses, currentClasses);
+            previousHash = previousClasses.getSha256();
+            currentHash = currentClasses.getSha256();
+        } else if (previousHashesExist) {
+            LOG.lifecycle("{} - comparing hashes of sources jar entries with {}", params.getPath(), params.getPreviousSourcesHashes());
+            HashManifest previousHashes = HashManifest.read(params.getPreviousSourcesHashes());
+            HashManifest currentHashes = HashManifest.of(currentVersionSourcesJarFile);
+            depInfoDiff = getDependencyInfoDiff(params, previousHashes, currentHashes, currentVersionSourcesJarFile);
+            jarsDiff = new ZipComparator().areEqual(previousHashes, currentHashes);
+            previousHash = previousHashes.getSha256();
+            currentHash = currentHashes.getSha256();
+        } else {
+            depInfoDiff = getDependencyInfoDiff(params, currentVersionSourcesJarFile);
+            ZipComparator sourcesJarComparator = new ZipComparator(Runtime.getRuntime().availableProcessors());
+            jarsDiff = sourcesJarComparator.areEqual(params.getPreviousSourcesJar(), currentVersionSourcesJarFile);
+        }
 
-        Diff depInfoDiff = getDependencyInfoDiff(task, currentVersionSourcesJarFile);
+        LOG.lifecycle("{} - {} files equal: {}", params.getPath(), DEPENDENCY_INFO_FILEPATH, depInfoDiff.areFilesEqual());
+        LOG.lifecycle("{} - {} equal: {}", params.getPath(), previousClasses != null ? "compiled classes" : "source jars", jarsDiff.areFilesEqual());
 
-        LOG.lifecycle("{} - {} files equal: {}", task.getPath(), DEPENDENCY_INFO_FILEPATH, depInfoDiff.areFilesEqual());
+        ComparePublicationsResultFormatter formatter = new ComparePublicationsResultFormatter();
+        String comparisonResult = previousClasses != null
+            ? formatter.formatResults(params.getPreviousBinaryJar(), params.getBinaryJar(), jarsDiff,
+                params.getPreviousSourcesJar(), currentVersionSourcesJarFile, depInfoDiff)
+            : formatter.formatResults(params.getPreviousSourcesJar(), currentVersionSourcesJarFile, jarsDiff, depInfoDiff);
 
-        ZipComparator sourcesJarComparator = new ZipComparator();
-        Diff jarsDiff = sourcesJarComparator.areEqual(task.getPreviousSourcesJar(), currentVersionSourcesJarFile);
-        LOG.lifecycle("{} - source jars equal: {}", task.getPath(), jarsDiff.areFilesEqual());
+        LOG.lifecycle("{} - You can find detailed publication comparison results in file {}.", params.getPath(), params.getComparisonResult());
 
-        String comparisonResult = new ComparePublicationsResultFormatter().formatResults(
-            task.getPreviousSourcesJar(), currentVersionSourcesJarFile, jarsDiff, depInfoDiff);
+        IOUtil.writeFile(params.getComparisonResult(), comparisonResult);
+        writeSummary(params, summaryOf(params, jarsDiff, !depInfoDiff.areFilesEqual(), true, previousHash, currentHash, start));
+    }
 
-        LOG.lifecycle("{} - You can find detailed publication comparison results in file {}.", task.getPath(), task.getComparisonResult());
+    /**
+     * Stops at the first difference, entries of the jars are compared only when the dependencies did not change
+     */
+    private ComparisonSummary anyChange(ComparePublicationsParameters params, File currentVersionSourcesJarFile, boolean previousHashesExist, long start) {
+        HashManifest previousClasses = getPreviousClasses(params);
+        if (previousClasses != null) {
+            boolean dependenciesChanged = previousHashesExist
+                ? dependencyInfoChanged(HashManifest.read(params.getPreviousSourcesHashes()), HashManifest.of(currentVersionSourcesJarFile))
+                : !getDependencyInfoDiff(params, currentVersionSourcesJarFile).areFilesEqual();
+            HashManifest currentClasses = getCurrentClasses(params);
+            Diff jarsDiff = new ZipComparator().areEqual(previousClasses, currentClasses);
+            return summaryOf(params, jarsDiff, dependenciesChanged, true, previousClasses.getSha256(), currentClasses.getSha256(), start);
+        }
+        if (previousHashesExist) {
+            //comparing hashes is cheap, no need to stop early
+            HashManifest previousHashes = HashManifest.read(params.getPreviousSourcesHashes());
+            HashManifest currentHashes = HashManifest.of(currentVersionSourcesJarFile);
+            boolean dependenciesChanged = dependencyInfoChanged(previousHashes, currentHashes);
+            Diff jarsDiff = new ZipComparator().areEqual(previousHashes, currentHashes);
+            return summaryOf(params, jarsDiff, dependenciesChanged, true, previousHashes.getSha256(), currentHashes.getSha256(), start);
+        }
+        boolean dependenciesChanged = !getDependencyInfoDiff(params, currentVersionSourcesJarFile).areFilesEqual();
+        boolean jarsChanged = !dependenciesChanged
+            && new ZipComparator(Runtime.getRuntime().availableProcessors()).anyDifference(params.getPreviousSourcesJar(), currentVersionSourcesJarFile);
+        Diff jarsDiff = jarsChanged ? Diff.ofDifferentFiles("") : Diff.ofEqualFiles();
+        return summaryOf(params, jarsDiff, dependenciesChanged, !jarsChanged && !dependenciesChanged, null, null, start);
+    }
 
-        IOUtil.writeFile(task.getComparisonResult(), comparisonResult);
+    private static boolean dependencyInfoChanged(HashManifest previousHashes, HashManifest currentHashes) {
+        HashManifest.Entry previousDepInfo = previousHashes.getEntries().get(DEPENDENCY_INFO_FILEPATH);
+        return previousDepInfo != null && !previousDepInfo.equals(currentHashes.getEntries().get(DEPENDENCY_INFO_FILEPATH));
+    }
+
+    /**
+     * Fingerprints of previously released compiled classes, downloaded when needed.
+     * Null when sources are compared or when the previously released jar is not available.
+     */
+    private static HashManifest getPreviousClasses(ComparePublicationsParameters params) {
+        if (params.getComparisonMode() == ComparePublicationsTask.ComparisonMode.SOURCES || params.getBinaryJar() == null
+            || params.getPreviousBinaryJar() == null) {
+            return null;
+        }
+        if (!params.getPreviousBinaryJar().exists() && params.getPreviousBinaryJarUrl() != null) {
+            DownloadPreviousPublications.downloadRemoteFile(params.getPreviousBinaryJarUrl(), params.getPreviousBinaryJar(), params.getArtifactCacheDir());
+        }
+        if (!params.getPreviousBinaryJar().exists()) {
+            LOG.lifecycle("{} - previously released jar with compiled classes is not available, comparing sources jars", params.getPath());
+            return null;
+        }
+        LOG.lifecycle("{} - comparing fingerprints of compiled classes ({}) with {}",
+            params.getPath(), params.getComparisonMode().name().toLowerCase(), params.getPreviousBinaryJar());
+        return HashManifest.ofClasses(params.getPreviousBinaryJar(), params.getComparisonMode() == ComparePublicationsTask.ComparisonMode.ABI);
+    }
+
+    private static HashManifest getCurrentClasses(ComparePublicationsParameters params) {
+        return HashManifest.ofClasses(params.getBinaryJar(), params.getComparisonMode() == ComparePublicationsTask.ComparisonMode.ABI);
+    }
+
+    private static ComparisonSummary summaryOf(ComparePublicationsParameters params, Diff jarsDiff, boolean dependenciesChanged, boolean complete,
+                                               String previousHash, String currentHash, long start) {
+        boolean changed = !jarsDiff.areFilesEqual() || dependenciesChanged;
+        return new ComparisonSummary(params.getProjectPath(),
+            changed ? ComparisonSummary.Status.CHANGED : ComparisonSummary.Status.IDENTICAL, complete,
+            jarsDiff.getAddedFiles(), jarsDiff.getRemovedFiles(), jarsDiff.getChangedFiles(), dependenciesChanged,
+            previousHash, currentHash, System.currentTimeMillis() - start);
+    }
+
+    private static void writeSummary(ComparePublicationsParameters params, ComparisonSummary summary) {
+        LOG.info("{} - comparison summary: {}", params.getPath(), summary.describe());
+        if (params.getComparisonSummary() != null) {
+            summary.write(params.getComparisonSummary());
+        }
+    }
+
+    /**
+     * Uses hashes to find out if dependency-info.md changed.
+     * Only when it did, the previous sources jar is downloaded to show the differences.
+     */
+    private Diff getDependencyInfoDiff(ComparePublicationsParameters params, HashManifest previousHashes, HashManifest currentHashes,
+                                       File currentVersionSourcesJarFile) {
+        HashManifest.Entry previous = previousHashes.getEntries().get(DEPENDENCY_INFO_FILEPATH);
+        if (previous == null) {
+            LOG.lifecycle("{} - previous {} file not found, nothing to compare", params.getPath(), DEPENDENCY_INFO_FILEPATH);
+            return Diff.ofEqualFiles();
+        }
+        if (previous.equals(currentHashes.getEntries().get(DEPENDENCY_INFO_FILEPATH))) {
+            return Diff.ofEqualFiles();
+        }
+
+        if (!params.getPreviousSourcesJar().exists() && params.getPreviousSourcesJarUrl() != null) {
+            DownloadPreviousPublications.downloadRemoteFile(params.getPreviousSourcesJarUrl(), params.getPreviousSourcesJar(), params.getArtifactCacheDir());
+        }
+        if (!params.getPreviousSourcesJar().exists()) {
+            return Diff.ofDifferentFiles(ComparePublicationsResultFormatter.LONG_INDENT
+                + "File changed. Previous sources jar is not available to show the differences.\n");
+        }
+        return getDependencyInfoDiff(params, currentVersionSourcesJarFile);
     }
 
-    private Diff getDependencyInfoDiff(ComparePublicationsTask task, File currentVersionSourcesJarFile) {
-        if (!ZipUtil.fileContainsEntry(task.getPreviousSourcesJar(), DEPENDENCY_INFO_FILEPATH)) {
-            LOG.lifecycle("{} - previous {} file not found, nothing to compare", task.getPath(), DEPENDENCY_INFO_FILEPATH);
+    private Diff getDependencyInfoDiff(ComparePublicationsParameters params, File currentVersionSourcesJarFile) {
+        if (!ZipUtil.fileContainsEntry(params.getPreviousSourcesJar(), DEPENDENCY_INFO_FILEPATH)) {
+            LOG.lifecycle("{} - previous {} file not found, nothing to compare", params.getPath(), DEPENDENCY_INFO_FILEPATH);
             return Diff.ofEqualFiles();
         }
 
         StringComparator stringComparator = new StringComparator();
 
         return stringComparator.areEqual(
-            ZipUtil.readEntryContent(task.getPreviousSourcesJar(), DEPENDENCY_INFO_FILEPATH),
+            ZipUtil.readEntryContent(params.getPreviousSourcesJar(), DEPENDENCY_INFO_FILEPATH),
             ZipUtil.readEntryContent(currentVersionSourcesJarFile, DEPENDENCY_INFO_FILEPATH));
     }
 }
@@ -0,0 +1,21 @@
+package org.shipkit.internal.gradle.java.tasks;
+
+import javax.inject.Inject;
+
+/**
+ * Compares publications in a Gradle worker, see {@link org.shipkit.gradle.java.ComparePublicationsTask}
+ */
+public class ComparePublicationsAction implements Runnable {
+
+    private final ComparePublicationsParameters params;
+
+    @Inject
+    public ComparePublicationsAction(ComparePublicationsParameters params) {
+        this.params = params;
+    }
+
+    @Override
+    public void run() {
+        new ComparePublications().comparePublications(params);
+    }
+}
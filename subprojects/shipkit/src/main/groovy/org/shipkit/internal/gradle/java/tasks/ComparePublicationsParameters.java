@@ -0,0 +1,162 @@
+package org.shipkit.internal.gradle.java.tasks;
+
+import org.shipkit.gradle.java.ComparePublicationsTask;
+import org.shipkit.gradle.java.ComparePublicationsTask.ComparisonMode;
+
+import java.io.File;
+import java.io.Serializable;
+
+/**
+ * Serializable snapshot of {@link ComparePublicationsTask} configuration, passed to {@link ComparePublicationsAction}.
+ * Captured on the task thread so that the comparison does not access Gradle model objects from a worker thread.
+ */
+public class ComparePublicationsParameters implements Serializable {
+
+    private final String path;
+    private final String projectPath;
+    private final boolean unchangedSincePreviousRelease;
+    private final boolean anyChange;
+    private final boolean differenceAlreadyFound;
+    private final ComparisonMode comparisonMode;
+    private final File comparisonResult;
+    private final File comparisonSummary;
+    private final File sourcesJar;
+    private final File previousSourcesJar;
+    private final String previousSourcesJarUrl;
+    private final File previousSourcesHashes;
+    private final File binaryJar;
+    private final File previousBinaryJar;
+    private final String previousBinaryJarUrl;
+    private final File artifactCacheDir;
+
+    public ComparePublicationsParameters(ComparePublicationsTask task) {
+        path = task.getPath();
+        projectPath = task.getProject().getPath();
+        unchangedSincePreviousRelease = task.isUnchangedSincePreviousRelease();
+        anyChange = task.isAnyChange();
+        differenceAlreadyFound = task.getDifferenceFound() != null && task.getDifferenceFound().get();
+        comparisonMode = task.getComparisonMode();
+        comparisonResult = task.getComparisonResult();
+        comparisonSummary = task.getComparisonSummary();
+        sourcesJar = task.getSourcesJar() == null ? null : task.getSourcesJar().getArchivePath();
+        previousSourcesJar = task.getPreviousSourcesJar();
+        previousSourcesJarUrl = task.getPreviousSourcesJarUrl();
+        previousSourcesHashes = task.getPreviousSourcesHashes();
+        binaryJar = task.getBinaryJar() == null ? null : task.getBinaryJar().getArchivePath();
+        previousBinaryJar = task.getPreviousBinaryJar();
+        previousBinaryJarUrl = task.getPreviousBinaryJarUrl();
+        artifactCacheDir = task.getArtifactCacheDir();
+    }
+
+    /**
+     * Path of the comparison task, used in log messages
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Path of the project whose publications are compared
+     */
+    public String getProjectPath() {
+        return projectPath;
+    }
+
+    /**
+     * See {@link ComparePublicationsTask#isUnchangedSincePreviousRelease()}
+     */
+    public boolean isUnchangedSincePreviousRelease() {
+        return unchangedSincePreviousRelease;
+    }
+
+    /**
+     * See {@link ComparePublicationsTask#isAnyChange()}
+     */
+    public boolean isAnyChange() {
+        return anyChange;
+    }
+
+    /**
+     * State of {@link ComparePublicationsTask#getDifferenceFound()} when the comparison was scheduled
+     */
+    public boolean isDifferenceAlreadyFound() {
+        return differenceAlreadyFound;
+    }
+
+    /**
+     * See {@link ComparePublicationsTask#getComparisonMode()}
+     */
+    public ComparisonMode getComparisonMode() {
+        return comparisonMode;
+    }
+
+    /**
+     * See {@link ComparePublicationsTask#getComparisonResult()}
+     */
+    public File getComparisonResult() {
+        return comparisonResult;
+    }
+
+    /**
+     * See {@link ComparePublicationsTask#getComparisonSummary()}
+     */
+    public File getComparisonSummary() {
+        return comparisonSummary;
+    }
+
+    /**
+     * Archive path of {@link ComparePublicationsTask#getSourcesJar()}
+     */
+    public File getSourcesJar() {
+        return sourcesJar;
+    }
+
+    /**
+     * See {@link ComparePublicationsTask#getPreviousSourcesJar()}
+     */
+    public File getPreviousSourcesJar() {
+        return previousSourcesJar;
+    }
+
+    /**
+     * See {@link ComparePublicationsTask#getPreviousSourcesJarUrl()}
+     */
+    public String getPreviousSourcesJarUrl() {
+        return previousSourcesJarUrl;
+    }
+
+    /**
+     * See {@link ComparePublicationsTask#getPreviousSourcesHashes()}
+     */
+    public File getPreviousSourcesHashes() {
+        return previousSourcesHashes;
+    }
+
+    /**
+     * Archive path of {@link ComparePublicationsTask#getBinaryJar()}
+     */
+    public File getBinaryJar() {
+        return binaryJar;
+    }
+
+    /**
+     * See {@link ComparePublicationsTask#getPreviousBinaryJar()}
+     */
+    public File getPreviousBinaryJar() {
+        return previousBinaryJar;
+    }
+
+    /**
+     * See {@link ComparePublicationsTask#getPreviousBinaryJarUrl()}
+     */
+    public String getPreviousBinaryJarUrl() {
+        return previousBinaryJarUrl;
+    }
+
+    /**
+     * See {@link ComparePublicationsTask#getArtifactCacheDir()}
+     */
+    public File getArtifactCacheDir() {
+        return artifactCacheDir;
+    }
+}
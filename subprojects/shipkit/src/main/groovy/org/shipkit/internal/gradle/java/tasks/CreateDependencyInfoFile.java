@@ -6,6 +6,8 @@ import org.gradle.api.artifacts.ModuleDependency;
 import org.shipkit.internal.gradle.util.StringUtil;
 import org.shipkit.internal.notes.util.IOUtil;
 
+import java.io.File;
+import java.util.Collection;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
@@ -19,11 +21,11 @@ public class CreateDependencyInfoFile {
     private static final String DESCRIPTION = "This file was generated by Shipkit Gradle plugin. " +
         "It contains all declared runtime dependencies of the project. See http://dependency-info.shipkit.org." + NEWLINE;
 
-    public void createDependencyInfoFile(CreateDependencyInfoFileTask task) {
-        String result = "# Description" + NEWLINE
-            + DESCRIPTION + NEWLINE
-            + "# Dependencies";
-
+    /**
+     * Declared dependencies of the task's configuration, formatted and sorted.
+     * Reads the Gradle model so it needs to be called on the task thread.
+     */
+    public SortedSet<String> getDependencies(CreateDependencyInfoFileTask task) {
         //sorting dependencies to assure that they are always in the same order
         //without depending on Gradle implementation
         SortedSet<String> dependencies = new TreeSet<>();
@@ -33,10 +35,20 @@ public class CreateDependencyInfoFile {
                 dependencies.add(dep);
             }
         }
+        return dependencies;
+    }
+
+    /**
+     * Writes the file with given dependencies, see {@link #getDependencies(CreateDependencyInfoFileTask)}
+     */
+    public void writeDependencyInfoFile(File outputFile, Collection<String> dependencies) {
+        String result = "# Description" + NEWLINE
+            + DESCRIPTION + NEWLINE
+            + "# Dependencies";
 
         result += DEPENDENCY_INDENT + StringUtil.join(dependencies, DEPENDENCY_INDENT);
 
-        IOUtil.writeFile(task.getOutputFile(), result.toString());
+        IOUtil.writeFile(outputFile, result);
     }
 
     private String getDependencyWithArtifacts(CreateDependencyInfoFileTask task, ModuleDependency dependency) {
@@ -0,0 +1,26 @@
+package org.shipkit.internal.gradle.java.tasks;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.util.List;
+
+/**
+ * Writes dependency info file in a Gradle worker, see {@link CreateDependencyInfoFileTask}.
+ * The dependencies are read from the Gradle model on the task thread and passed as plain strings.
+ */
+public class CreateDependencyInfoFileAction implements Runnable {
+
+    private final File outputFile;
+    private final List<String> dependencies;
+
+    @Inject
+    public CreateDependencyInfoFileAction(File outputFile, List<String> dependencies) {
+        this.outputFile = outputFile;
+        this.dependencies = dependencies;
+    }
+
+    @Override
+    public void run() {
+        new CreateDependencyInfoFile().writeDependencyInfoFile(outputFile, dependencies);
+    }
+}
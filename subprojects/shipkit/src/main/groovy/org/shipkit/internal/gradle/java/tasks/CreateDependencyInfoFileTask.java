@@ -6,8 +6,13 @@ import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.InputFiles;
 import org.gradle.api.tasks.OutputFile;
 import org.gradle.api.tasks.TaskAction;
+import org.gradle.workers.IsolationMode;
+import org.gradle.workers.WorkerExecutor;
 
+import javax.inject.Inject;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Creates a file {@link #getOutputFile()} with information about all declared dependencies of the project.
@@ -27,8 +32,21 @@ public class CreateDependencyInfoFileTask extends DefaultTask {
     @OutputFile
     private File outputFile;
 
+    /**
+     * Executor of the file generation, provided by Gradle
+     */
+    @Inject
+    protected WorkerExecutor getWorkerExecutor() {
+        throw new UnsupportedOperationException();
+    }
+
     @TaskAction public void createFile() {
-        new CreateDependencyInfoFile().createDependencyInfoFile(this);
+        //configuration is a Gradle model object, it is read here and the worker gets plain strings
+        final List<String> dependencies = new ArrayList<>(new CreateDependencyInfoFile().getDependencies(this));
+        getWorkerExecutor().submit(CreateDependencyInfoFileAction.class, config -> {
+            config.setIsolationMode(IsolationMode.NONE);
+            config.setParams(outputFile, dependencies);
+        });
     }
 
     /**
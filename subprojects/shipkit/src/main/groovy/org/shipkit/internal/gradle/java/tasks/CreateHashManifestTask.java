@@ -0,0 +1,55 @@
+package org.shipkit.internal.gradle.java.tasks;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.TaskAction;
+import org.shipkit.internal.comparison.HashManifest;
+
+import java.io.File;
+
+/**
+ * Creates a file {@link #getOutputFile()} listing all entries of {@link #getZipFile()}
+ * together with their size and SHA-256, see {@link HashManifest}.
+ * The manifest is published with the release so that the next build can compare publications
+ * without downloading the previous sources jar.
+ */
+public class CreateHashManifestTask extends DefaultTask {
+
+    @InputFile
+    private File zipFile;
+    @OutputFile
+    private File outputFile;
+
+    @TaskAction public void createManifest() {
+        HashManifest.of(zipFile).write(outputFile);
+    }
+
+    /**
+     * Zip file, typically the sources jar, for which the manifest is created.
+     */
+    public File getZipFile() {
+        return zipFile;
+    }
+
+    /**
+     * See {@link #getZipFile()}
+     */
+    public void setZipFile(File zipFile) {
+        this.zipFile = zipFile;
+    }
+
+    /**
+     * File to which the manifest will be saved.
+     */
+    public File getOutputFile() {
+        return outputFile;
+    }
+
+    /**
+     * See {@link #getOutputFile()}
+     */
+    public void setOutputFile(File outputFile) {
+        this.outputFile = outputFile;
+    }
+}
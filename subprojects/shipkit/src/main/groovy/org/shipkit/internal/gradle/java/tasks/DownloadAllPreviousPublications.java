@@ -0,0 +1,49 @@
+package org.shipkit.internal.gradle.java.tasks;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.shipkit.gradle.java.DownloadAllPreviousPublicationsTask;
+import org.shipkit.gradle.java.DownloadPreviousPublicationsTask;
+import org.shipkit.internal.notes.util.IOUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DownloadAllPreviousPublications {
+
+    private static final Logger LOG = Logging.getLogger(DownloadAllPreviousPublications.class);
+
+    public void downloadAllPreviousPublications(DownloadAllPreviousPublicationsTask task) {
+        List<DownloadPreviousPublicationsTask> downloadTasks = new ArrayList<>();
+        for (DownloadPreviousPublicationsTask t : task.getDownloadTasks()) {
+            if (t.isUnchangedSincePreviousRelease()) {
+                LOG.lifecycle("{} - no changes since previous release, skipping download of {}", task.getPath(), t.getPath());
+            } else {
+                downloadTasks.add(t);
+            }
+        }
+        LOG.lifecycle("{} - downloading previous publications of {} projects, using up to {} parallel downloads",
+            task.getPath(), downloadTasks.size(), task.getMaxParallelDownloads());
+
+        DownloadPreviousPublications downloader = new DownloadPreviousPublications();
+        long start = System.currentTimeMillis();
+        downloader.downloadPreviousPublications(downloadTasks, task.getMaxParallelDownloads());
+        long duration = System.currentTimeMillis() - start;
+
+        List<ArtifactDownload> downloads = downloader.getDownloads();
+        IOUtil.writeFile(task.getReportFile(), formatReport(downloads, duration));
+        LOG.lifecycle("{} - finished {} downloads in {} ms, timings of each download: {}",
+            task.getPath(), downloads.size(), duration, task.getReportFile());
+    }
+
+    static String formatReport(List<ArtifactDownload> downloads, long totalMillis) {
+        StringBuilder sb = new StringBuilder();
+        long sum = 0;
+        for (ArtifactDownload d : downloads) {
+            sum += d.getDurationMillis();
+            sb.append(String.format("%8d ms  %-7s  %s%n", d.getDurationMillis(), d.isSuccessful() ? "ok" : "missing", d.getUrl()));
+        }
+        sb.append(String.format("Downloaded %d artifacts in %d ms (%d ms if downloaded sequentially)%n", downloads.size(), totalMillis, sum));
+        return sb.toString();
+    }
+}
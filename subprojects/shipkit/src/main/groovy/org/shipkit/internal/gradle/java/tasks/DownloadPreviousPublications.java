@@ -3,31 +3,100 @@ package org.shipkit.internal.gradle.java.tasks;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.shipkit.gradle.java.DownloadPreviousPublicationsTask;
+import org.shipkit.internal.comparison.artifact.ArtifactCache;
 import org.shipkit.internal.notes.util.IOUtil;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class DownloadPreviousPublications {
 
     private static final Logger LOG = Logging.getLogger(DownloadPreviousPublications.class);
 
-    public void downloadPreviousPublications(DownloadPreviousPublicationsTask task) {
-        downloadRemoteFile(task.getPreviousSourcesJarUrl(), task.getPreviousSourcesJarFile());
+    private final List<ArtifactDownload> downloads = Collections.synchronizedList(new ArrayList<ArtifactDownload>());
+
+    public void downloadPreviousPublications(DownloadPreviousPublicationsParameters params) {
+        if (params.getPreviousSourcesHashesUrl() != null
+            && download(params.getPreviousSourcesHashesUrl(), params.getPreviousSourcesHashesFile(), params.getArtifactCacheDir())) {
+            LOG.lifecycle("  Previous sources jar will be downloaded only if hashes show differences.");
+            return;
+        }
+        download(params.getPreviousSourcesJarUrl(), params.getPreviousSourcesJarFile(), params.getArtifactCacheDir());
+    }
+
+    /**
+     * Downloads previous publications of all given tasks concurrently, using at most given number of threads.
+     * Artifacts of a single task are downloaded sequentially because the sources jar is needed only if hashes are not available.
+     */
+    public void downloadPreviousPublications(Collection<DownloadPreviousPublicationsTask> tasks, int parallelism) {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, tasks.size())));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (DownloadPreviousPublicationsTask task : tasks) {
+                //tasks are read on the calling thread, download threads only get plain values
+                final DownloadPreviousPublicationsParameters params = new DownloadPreviousPublicationsParameters(task);
+                futures.add(executor.submit(() -> downloadPreviousPublications(params)));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while downloading previous publications", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Problems downloading previous publications", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * All downloads performed so far, in order of completion
+     */
+    public List<ArtifactDownload> getDownloads() {
+        synchronized (downloads) {
+            return new ArrayList<>(downloads);
+        }
+    }
+
+    private boolean download(String remoteUrl, File localFile, File artifactCacheDir) {
+        long start = System.currentTimeMillis();
+        boolean successful = downloadRemoteFile(remoteUrl, localFile, artifactCacheDir);
+        downloads.add(new ArtifactDownload(remoteUrl, localFile, successful, System.currentTimeMillis() - start));
+        return successful;
     }
 
-    private void downloadRemoteFile(String remoteUrl, File localFile) {
+    /**
+     * Downloads the file, returns false if the file could not be downloaded
+     *
+     * @param artifactCacheDir machine-wide cache of artifacts, see {@link ArtifactCache}, may be null
+     */
+    static boolean downloadRemoteFile(String remoteUrl, File localFile, File artifactCacheDir) {
         LOG.lifecycle("  Downloading remote artifact\n" +
                 "  - from {}\n" +
                 "  - and saving it to {}", remoteUrl, localFile);
 
         try {
-            IOUtil.downloadToFile(remoteUrl, localFile);
+            if (artifactCacheDir != null) {
+                new ArtifactCache(artifactCacheDir).download(remoteUrl, localFile);
+            } else {
+                IOUtil.downloadToFile(remoteUrl, localFile);
+            }
+            return true;
         } catch (Exception e) {
             LOG.lifecycle("  Unable to download, ignoring. Run with '-d' for stack trace.\n " +
                 "  If the download URL is incorrect you may need to configure the URL manually.\n" +
                 "  See DownloadPreviousPublicationTask for details.\n" +
                 "  Url: {}", remoteUrl);
             LOG.debug("Unable to download, ignoring.", e);
+            return false;
         }
     }
 }
@@ -0,0 +1,21 @@
+package org.shipkit.internal.gradle.java.tasks;
+
+import javax.inject.Inject;
+
+/**
+ * Downloads previous publications in a Gradle worker, see {@link org.shipkit.gradle.java.DownloadPreviousPublicationsTask}
+ */
+public class DownloadPreviousPublicationsAction implements Runnable {
+
+    private final DownloadPreviousPublicationsParameters params;
+
+    @Inject
+    public DownloadPreviousPublicationsAction(DownloadPreviousPublicationsParameters params) {
+        this.params = params;
+    }
+
+    @Override
+    public void run() {
+        new DownloadPreviousPublications().downloadPreviousPublications(params);
+    }
+}
@@ -0,0 +1,62 @@
+package org.shipkit.internal.gradle.java.tasks;
+
+import org.shipkit.gradle.java.DownloadPreviousPublicationsTask;
+
+import java.io.File;
+import java.io.Serializable;
+
+/**
+ * Serializable snapshot of {@link DownloadPreviousPublicationsTask} configuration,
+ * so that the download does not access the task from a worker thread.
+ */
+public class DownloadPreviousPublicationsParameters implements Serializable {
+
+    private final String previousSourcesJarUrl;
+    private final File previousSourcesJarFile;
+    private final String previousSourcesHashesUrl;
+    private final File previousSourcesHashesFile;
+    private final File artifactCacheDir;
+
+    public DownloadPreviousPublicationsParameters(DownloadPreviousPublicationsTask task) {
+        previousSourcesJarUrl = task.getPreviousSourcesJarUrl();
+        previousSourcesJarFile = task.getPreviousSourcesJarFile();
+        previousSourcesHashesUrl = task.getPreviousSourcesHashesUrl();
+        previousSourcesHashesFile = task.getPreviousSourcesHashesFile();
+        artifactCacheDir = task.getArtifactCacheDir();
+    }
+
+    /**
+     * See {@link DownloadPreviousPublicationsTask#getPreviousSourcesJarUrl()}
+     */
+    public String getPreviousSourcesJarUrl() {
+        return previousSourcesJarUrl;
+    }
+
+    /**
+     * See {@link DownloadPreviousPublicationsTask#getPreviousSourcesJarFile()}
+     */
+    public File getPreviousSourcesJarFile() {
+        return previousSourcesJarFile;
+    }
+
+    /**
+     * See {@link DownloadPreviousPublicationsTask#getPreviousSourcesHashesUrl()}
+     */
+    public String getPreviousSourcesHashesUrl() {
+        return previousSourcesHashesUrl;
+    }
+
+    /**
+     * See {@link DownloadPreviousPublicationsTask#getPreviousSourcesHashesFile()}
+     */
+    public File getPreviousSourcesHashesFile() {
+        return previousSourcesHashesFile;
+    }
+
+    /**
+     * See {@link DownloadPreviousPublicationsTask#getArtifactCacheDir()}
+     */
+    public File getArtifactCacheDir() {
+        return artifactCacheDir;
+    }
+}
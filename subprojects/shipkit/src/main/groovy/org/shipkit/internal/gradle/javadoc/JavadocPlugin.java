@@ -17,14 +17,19 @@ import org.shipkit.internal.gradle.git.GitPlugin;
 import org.shipkit.internal.gradle.git.GitUrlInfo;
 import org.shipkit.internal.gradle.git.tasks.CloneGitRepositoryTask;
 import org.shipkit.internal.gradle.git.tasks.GitCheckOutTask;
+import org.shipkit.internal.gradle.javadoc.tasks.SyncJavadocTask;
 import org.shipkit.internal.gradle.util.TaskMaker;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
 
 import static java.util.Collections.singletonList;
 import static java.util.Objects.isNull;
@@ -45,7 +50,8 @@ import static org.shipkit.internal.gradle.release.ReleasePlugin.PERFORM_RELEASE_
  *
  * <ul>
  *      <li>cloneJavadocRepo - clones Javadoc repository into a temporary directory. Javadoc will be published in this
- *          repository.</li>
+ *          repository. Blob-less partial clone with sparse checkout is used so that only the directories
+ *          updated by the release are downloaded and checked out (git 2.25 or newer).</li>
  *      <li>checkoutJavadocRepoBranch - checkouts a branch in Javadoc repository, where Javadoc will be published.</li>
  *      <li>copyJavadocToStageVersionDir - extracts and copies Javadoc from Javadoc jar to stage directory to version
  *          (eg.: "/1.2.3") subdirectory. This task is added to each subproject.</li>
@@ -53,7 +59,8 @@ import static org.shipkit.internal.gradle.release.ReleasePlugin.PERFORM_RELEASE_
  *          current directory. This task is added to each subproject.</li>
  *      <li>refreshVersionJavadoc - aggregates all copyJavadocToStageVersionDir tasks.</li>
  *      <li>refreshCurrentJavadoc - aggregates all copyJavadocToStageCurrentDir tasks.</li>
- *      <li>copyJavadocStageToRepoDir - copies all Javadocs from stage directory to Javadoc repository directory.</li>
+ *      <li>copyJavadocStageToRepoDir - copies all Javadocs from stage directory to Javadoc repository directory.
+ *          Only changed files are written, files that are no longer generated are removed.</li>
  *      <li>commitJavadoc - commits all changes in Javadoc repository.</li>
  *      <li>pushJavadoc - pushes Javadocs to remote Javadoc repository.</li>
  *      <li>releaseJavadoc - aggregate all tasks needed to release Javadocs: clone, checkout, copy, commit, push.</li>
@@ -90,9 +97,12 @@ public class JavadocPlugin implements Plugin<Project> {
         Task refreshCurrentJavadocTask = createRefreshCurrentJavadocTask(project, copyTasks.copyToCurrentTasks);
 
         //refresh javadoc first so that if there is no javadoc we will avoid cloning
-        cloneJavadocTask.mustRunAfter(refreshVersionJavadocTask);
+        cloneJavadocTask.mustRunAfter(refreshVersionJavadocTask, refreshCurrentJavadocTask);
+        // Javadoc of previous versions is neither downloaded nor checked out, only directories updated by this release
+        List<String> stagedDirs = getStagedDirs(new File(getJavadocStageDir(project)), copyTasks.getDestinationDirs());
+        cloneJavadocTask.setSparseCheckoutPaths(getJavadocRepoDirs(stagedDirs, conf.getLenient().getJavadoc().getRepositoryDirectory()));
 
-        Copy copyStageToRepoDir = createCopyStageToRepoDirTask(project, conf);
+        SyncJavadocTask copyStageToRepoDir = createCopyStageToRepoDirTask(project, conf, stagedDirs);
         copyStageToRepoDir.dependsOn(checkoutJavadocRepoBranch, refreshVersionJavadocTask, refreshCurrentJavadocTask);
 
         GitCommitTask commitJavadocTask = createGitCommitTask(project, conf);
@@ -122,6 +132,7 @@ public class JavadocPlugin implements Plugin<Project> {
                 task.setDescription("Clones Javadoc repo " + javadocRepository + " into a temporary directory.");
                 task.setRepositoryUrl(gitHubUrl + "/" + javadocRepository);
                 task.setTargetDir(new File(getJavadocRepoCloneDir(project)));
+                task.setPartialClone(true);
                 // onlyIf { stagingDir not empty }
                 task.onlyIf(t -> containsFileInDir(getJavadocStageDir(project)));
             });
@@ -185,14 +196,17 @@ public class JavadocPlugin implements Plugin<Project> {
         });
     }
 
-    private Copy createCopyStageToRepoDirTask(Project project,
-                                              ShipkitConfiguration conf) {
+    private SyncJavadocTask createCopyStageToRepoDirTask(Project project,
+                                                         ShipkitConfiguration conf,
+                                                         List<String> stagedDirs) {
         String directory = conf.getLenient().getJavadoc().getRepositoryDirectory();
 
-        return TaskMaker.task(project, COPY_JAVADOC_STAGE_TO_REPO_DIR_TASK, Copy.class, task -> {
-            task.setDescription("Copy prepared Javadocs from stage directory to the repository directory");
-            task.from(getJavadocStageDir(project));
-            task.into(getJavadocRepoCloneDir(project, directory));
+        return TaskMaker.task(project, COPY_JAVADOC_STAGE_TO_REPO_DIR_TASK, SyncJavadocTask.class, task -> {
+            task.setDescription("Copy prepared Javadocs from stage directory to the repository directory, only changed files are written");
+            task.setStageDir(new File(getJavadocStageDir(project)));
+            task.setStagedDirectories(stagedDirs);
+            task.setRepositoryDir(new File(getJavadocRepoCloneDir(project, directory)));
+            task.onlyIf(t -> containsFileInDir(getJavadocStageDir(project)));
         });
     }
 
@@ -206,6 +220,8 @@ public class JavadocPlugin implements Plugin<Project> {
         File file = new File(getJavadocRepoCloneDir(project, directory));
         commitJavadocTask.addChange(singletonList(file), commitMessage, null);
         commitJavadocTask.setWorkingDir(new File(getJavadocRepoCloneDir(project)));
+        //generated Javadoc has many files, summary of changes computed by 'git commit' takes long
+        commitJavadocTask.setPlumbingCommit(true);
         return commitJavadocTask;
     }
 
@@ -250,6 +266,32 @@ public class JavadocPlugin implements Plugin<Project> {
             + "/" + (subdirectory != null ? subdirectory : ".");
     }
 
+    /**
+     * Directories staged by the copy tasks, relative to the stage directory, e.g. "shipkit/1.2.3" and "shipkit/current".
+     * Computed from the destination directories of the copy tasks and not from the content of the stage directory,
+     * because the clone can run before Javadoc is staged and the stage directory can contain leftovers of earlier builds.
+     */
+    static List<String> getStagedDirs(File stageDir, Collection<File> destinationDirs) {
+        Set<String> result = new TreeSet<>();
+        for (File dir : destinationDirs) {
+            result.add(stageDir.toPath().relativize(dir.toPath()).toString().replace(File.separatorChar, '/'));
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Directories of Javadoc repository that staged Javadoc is copied to, e.g. "docs/shipkit/1.2.3" and "docs/shipkit/current"
+     */
+    static List<String> getJavadocRepoDirs(List<String> stagedDirs, String subdirectory) {
+        String prefix = subdirectory == null ? "" : subdirectory.replaceAll("^(\\./)+|/+$", "");
+        prefix = prefix.isEmpty() || prefix.equals(".") ? "" : prefix + "/";
+        List<String> result = new ArrayList<>();
+        for (String dir : stagedDirs) {
+            result.add(prefix + dir);
+        }
+        return result;
+    }
+
     private String getJavadocStageDir(Project project) {
         return project.getRootProject().getBuildDir().getAbsolutePath() + "/javadoc-stage";
     }
@@ -287,5 +329,16 @@ public class JavadocPlugin implements Plugin<Project> {
             this.copyToVersionTasks = copyToVersionTasks;
             this.copyToCurrentTasks = copyToCurrentTasks;
         }
+
+        private List<File> getDestinationDirs() {
+            List<File> result = new ArrayList<>();
+            for (Copy copy : copyToVersionTasks) {
+                result.add(copy.getDestinationDir());
+            }
+            for (Copy copy : copyToCurrentTasks) {
+                result.add(copy.getDestinationDir());
+            }
+            return result;
+        }
     }
 }
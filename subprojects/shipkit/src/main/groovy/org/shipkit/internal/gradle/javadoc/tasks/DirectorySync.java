@@ -0,0 +1,109 @@
+package org.shipkit.internal.gradle.javadoc.tasks;
+
+import org.shipkit.internal.util.HashUtil;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Makes target directory content the same as source directory content, touching only the files that differ:
+ * files with different size or SHA-256 are copied, files missing in the source are removed,
+ * identical files are left intact so that their timestamps do not change.
+ * Git then does not need to hash the unchanged files again when the directory is committed.
+ */
+class DirectorySync {
+
+    private int written;
+    private int removed;
+    private int unchanged;
+
+    /**
+     * Synchronizes target directory with source directory, target directory does not need to exist.
+     */
+    void sync(File source, File target) throws IOException {
+        Set<String> sourceFiles = new HashSet<>(relativePaths(source, true));
+        Set<String> sourceDirs = new HashSet<>(relativePaths(source, false));
+
+        if (target.isDirectory()) {
+            for (String file : relativePaths(target, true)) {
+                if (!sourceFiles.contains(file)) {
+                    Files.delete(new File(target, file).toPath());
+                    removed++;
+                }
+            }
+            //children first, they are longer
+            List<String> targetDirs = relativePaths(target, false);
+            Collections.sort(targetDirs, Collections.reverseOrder());
+            for (String dir : targetDirs) {
+                if (!sourceDirs.contains(dir)) {
+                    Files.delete(new File(target, dir).toPath());
+                }
+            }
+        }
+
+        for (String file : sourceFiles) {
+            File from = new File(source, file);
+            File to = new File(target, file);
+            if (to.isFile() && sameContent(from, to)) {
+                unchanged++;
+                continue;
+            }
+            Files.createDirectories(to.getParentFile().toPath());
+            Files.copy(from.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            written++;
+        }
+    }
+
+    private static boolean sameContent(File a, File b) throws IOException {
+        return a.length() == b.length()
+            && HashUtil.sha256(new FileInputStream(a)).equals(HashUtil.sha256(new FileInputStream(b)));
+    }
+
+    /**
+     * Paths of all files or all subdirectories, relative to given directory and separated with '/'
+     */
+    private static List<String> relativePaths(File dir, boolean files) throws IOException {
+        if (!dir.isDirectory()) {
+            return new ArrayList<>();
+        }
+        Path root = dir.toPath();
+        try (Stream<Path> paths = Files.walk(root)) {
+            return paths
+                .filter(p -> !p.equals(root) && (files ? Files.isRegularFile(p) : Files.isDirectory(p)))
+                .map(p -> root.relativize(p).toString().replace(File.separatorChar, '/'))
+                .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Number of files copied because they were missing or different
+     */
+    int getWritten() {
+        return written;
+    }
+
+    /**
+     * Number of files removed because they are missing in the source
+     */
+    int getRemoved() {
+        return removed;
+    }
+
+    /**
+     * Number of files left intact because they are the same as in the source
+     */
+    int getUnchanged() {
+        return unchanged;
+    }
+}
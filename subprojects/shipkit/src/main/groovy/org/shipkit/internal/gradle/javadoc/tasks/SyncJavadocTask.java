@@ -0,0 +1,91 @@
+package org.shipkit.internal.gradle.javadoc.tasks;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputDirectory;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.TaskAction;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Copies staged Javadoc from {@link #getStageDir()} to Javadoc repository directory {@link #getRepositoryDir()}.
+ * Stage directory contains a directory per module with version directories, e.g. "shipkit/1.2.3" and "shipkit/current".
+ * Only {@link #getStagedDirectories()} are copied, other directories left in the stage directory by earlier builds are ignored.
+ * Each staged version directory replaces the one in the repository, see {@link DirectorySync}:
+ * only changed files are written and files that are no longer generated are removed.
+ * Other directories in the repository, e.g. Javadoc of previous versions, are not touched.
+ */
+public class SyncJavadocTask extends DefaultTask {
+
+    private static final Logger LOG = Logging.getLogger(SyncJavadocTask.class);
+
+    @InputDirectory
+    private File stageDir;
+    @Internal
+    private File repositoryDir;
+    @Input
+    private List<String> stagedDirectories = new ArrayList<>();
+
+    @TaskAction public void sync() throws IOException {
+        DirectorySync sync = new DirectorySync();
+        for (String dir : stagedDirectories) {
+            File source = new File(stageDir, dir);
+            if (!source.isDirectory()) {
+                LOG.info("{} - nothing staged in {}, the directory in Javadoc repository is not changed", getPath(), source);
+                continue;
+            }
+            sync.sync(source, new File(repositoryDir, dir));
+        }
+        LOG.lifecycle("{} - synchronized Javadoc in {}: {} files written, {} removed, {} unchanged",
+            getPath(), repositoryDir, sync.getWritten(), sync.getRemoved(), sync.getUnchanged());
+    }
+
+    /**
+     * Directory with staged Javadoc of all modules
+     */
+    public File getStageDir() {
+        return stageDir;
+    }
+
+    /**
+     * See {@link #getStageDir()}
+     */
+    public void setStageDir(File stageDir) {
+        this.stageDir = stageDir;
+    }
+
+    /**
+     * Version directories staged by this build, relative to {@link #getStageDir()},
+     * e.g. "shipkit/1.2.3" and "shipkit/current"
+     */
+    public List<String> getStagedDirectories() {
+        return stagedDirectories;
+    }
+
+    /**
+     * See {@link #getStagedDirectories()}
+     */
+    public void setStagedDirectories(List<String> stagedDirectories) {
+        this.stagedDirectories = stagedDirectories;
+    }
+
+    /**
+     * Directory in the clone of Javadoc repository where Javadoc is published
+     */
+    public File getRepositoryDir() {
+        return repositoryDir;
+    }
+
+    /**
+     * See {@link #getRepositoryDir()}
+     */
+    public void setRepositoryDir(File repositoryDir) {
+        this.repositoryDir = repositoryDir;
+    }
+}
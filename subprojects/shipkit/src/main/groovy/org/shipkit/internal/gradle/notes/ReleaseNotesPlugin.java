@@ -9,6 +9,7 @@ import org.shipkit.internal.gradle.configuration.LazyConfiguration;
 import org.shipkit.internal.gradle.configuration.ShipkitConfigurationPlugin;
 import org.shipkit.internal.gradle.contributors.github.GitHubContributorsPlugin;
 import org.shipkit.internal.gradle.git.GitPlugin;
+import org.shipkit.internal.gradle.util.BuildConventions;
 import org.shipkit.internal.gradle.util.TaskMaker;
 import org.shipkit.internal.gradle.version.VersioningPlugin;
 import org.shipkit.version.VersionInfo;
@@ -144,5 +145,6 @@ public class ReleaseNotesPlugin implements Plugin<Project> {
         task.setPreviousVersion(project.getExtensions().getByType(VersionInfo.class).getPreviousVersion());
 
         task.setReleaseNotesData(releaseNotesFetcher.getOutputFile());
+        task.setFormattedNotesCacheDir(BuildConventions.formattedNotesCacheDir(project));
     }
 }
@@ -1,5 +1,6 @@
 package org.shipkit.internal.gradle.notes.tasks;
 
+import org.gradle.api.Action;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.shipkit.gradle.notes.AbstractReleaseNotesTask;
@@ -13,14 +14,18 @@ import org.shipkit.internal.notes.contributors.DefaultProjectContributorsSet;
 import org.shipkit.internal.notes.contributors.ProjectContributorsSerializer;
 import org.shipkit.internal.notes.contributors.ProjectContributorsSet;
 import org.shipkit.internal.notes.format.BadgeFormatter;
+import org.shipkit.internal.notes.format.FormattedNotesCache;
 import org.shipkit.internal.notes.format.ReleaseNotesFormatters;
 import org.shipkit.internal.notes.header.HeaderProvider;
 import org.shipkit.internal.notes.model.Contributor;
 import org.shipkit.internal.notes.model.ProjectContributor;
 import org.shipkit.internal.notes.model.ReleaseNotesData;
 import org.shipkit.internal.notes.util.IOUtil;
+import org.shipkit.internal.notes.util.ReleaseNotesException;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
@@ -30,9 +35,17 @@ public class UpdateReleaseNotes {
 
     private static final Logger LOG = Logging.getLogger(UpdateReleaseNotesTask.class);
 
-    public void updateReleaseNotes(AbstractReleaseNotesTask task, HeaderProvider headerProvider) {
-        String newContent = generateNewContent(task, headerProvider);
-        updateReleaseNotes(task.isPreviewMode(), task.getReleaseNotesFile(), newContent);
+    public void updateReleaseNotes(final AbstractReleaseNotesTask task, final HeaderProvider headerProvider) {
+        if (task.isPreviewMode()) {
+            updateReleaseNotes(true, task.getReleaseNotesFile(), generateNewContent(task, headerProvider));
+        } else {
+            FileUtil.appendToTop(task.getReleaseNotesFile(), new Action<Writer>() {
+                public void execute(Writer writer) {
+                    generateNewContent(task, headerProvider, writer);
+                }
+            });
+            LOG.lifecycle("  Successfully updated release notes!");
+        }
     }
 
     void updateReleaseNotes(boolean previewMode, File releaseNotesFile, String newContent) {
@@ -75,6 +88,15 @@ public class UpdateReleaseNotes {
     }
 
     public String generateNewContent(AbstractReleaseNotesTask task, HeaderProvider headerProvider) {
+        StringBuilder notes = new StringBuilder();
+        generateNewContent(task, headerProvider, notes);
+        return notes.toString();
+    }
+
+    /**
+     * Writes new release notes straight to given output, without building the whole text in memory.
+     */
+    void generateNewContent(AbstractReleaseNotesTask task, HeaderProvider headerProvider, Appendable output) {
         LOG.lifecycle("  Building new release notes based on {}", task.getReleaseNotesFile());
 
         String headerMessage = headerProvider.getHeader(task.getHeader());
@@ -95,12 +117,17 @@ public class UpdateReleaseNotes {
         Map<String, Contributor> contributorsMap = contributorsMap(task.getContributors(), contributorsFromGitHub, task.getDevelopers(), task.getGitHubUrl());
         BadgeFormatter badgeFormatter = new BadgeFormatter();
         // TODO release notes contain link to new javadoc
-        String notes = ReleaseNotesFormatters.detailedFormatter(headerMessage,
+        FormattedNotesCache cache = task.getFormattedNotesCacheDir() == null ? null : new FormattedNotesCache(task.getFormattedNotesCacheDir());
+        ReleaseNotesFormatters.detailedFormatter(headerMessage,
             "", task.getGitHubLabelMapping(), vcsCommitTemplate, task.getPublicationRepository(),
-            contributorsMap, task.isEmphasizeVersion(), badgeFormatter)
-            .formatReleaseNotes(data);
+            contributorsMap, task.isEmphasizeVersion(), badgeFormatter, cache)
+            .formatReleaseNotes(data, output);
 
-        return notes + "\n\n";
+        try {
+            output.append("\n\n");
+        } catch (IOException e) {
+            throw new ReleaseNotesException("Problems writing release notes", e);
+        }
     }
 
     private String getVcsCommitTemplate(AbstractReleaseNotesTask task) {
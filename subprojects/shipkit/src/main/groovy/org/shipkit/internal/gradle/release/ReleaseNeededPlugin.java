@@ -3,15 +3,31 @@ package org.shipkit.internal.gradle.release;
 import org.gradle.api.Action;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.execution.TaskExecutionGraph;
+import org.gradle.api.specs.Spec;
 import org.shipkit.gradle.configuration.ShipkitConfiguration;
+import org.shipkit.gradle.git.IdentifyChangedFilesTask;
 import org.shipkit.gradle.java.ComparePublicationsTask;
+import org.shipkit.gradle.java.DownloadAllPreviousPublicationsTask;
+import org.shipkit.gradle.java.DownloadPreviousPublicationsTask;
 import org.shipkit.gradle.release.ReleaseNeededTask;
+import org.shipkit.internal.gradle.configuration.DeferredConfiguration;
 import org.shipkit.internal.gradle.configuration.ShipkitConfigurationPlugin;
 import org.shipkit.internal.gradle.git.GitBranchPlugin;
+import org.shipkit.internal.gradle.git.domain.ChangedFiles;
+import org.shipkit.internal.gradle.git.domain.ProjectChanges;
 import org.shipkit.internal.gradle.java.ComparePublicationsPlugin;
+import org.shipkit.internal.gradle.util.BuildConventions;
+import org.shipkit.internal.gradle.util.JavaPluginUtil;
 import org.shipkit.internal.gradle.util.TaskMaker;
 import org.shipkit.internal.util.DeprecatedWarning;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * Adds tasks for checking if release is needed.
  * <br>
@@ -22,7 +38,11 @@ import org.shipkit.internal.util.DeprecatedWarning;
  *      <li>PR build: no release if the build job is a pull request build</li>
  *      <li>skipComparePublications task property (ReleaseNeededTask): if the property is true, then comparing publications is skipped and the release can be triggered even if publications are identical. See {@link ReleaseNeededTask#isSkipComparePublications()} for a proper use case.</li>
  *      <li>[ci skip-compare-publications] commit message: if this commit message is available, then comparing publications is skipped and the release can be triggered even if publications are identical.</li>
- *      <li>compare publications: release if previous publication is not identical to the current publication</li>
+ *      <li>compare publications: release if previous publication is not identical to the current publication.
+ *      Comparison stops at the first difference, run with '-PdetailedComparison' to get the detailed report of all changes.
+ *      Projects without any changes in sources or build logic since the tag of the previous release (according to git)
+ *      are considered identical without downloading and comparing their publications,
+ *      see {@link IdentifyChangedFilesTask}.</li>
  *  </ul>
  *
  * Applies following plugins and preconfigures tasks provided by those plugins:
@@ -39,38 +59,171 @@ import org.shipkit.internal.util.DeprecatedWarning;
  *      - DEPRECATED - checks if release is needed and fails the build if not needed. Not used currently.</li>
  *     <li>releaseNeeded - {@link ReleaseNeededTask}
  *     - prints information if the release is needed. Useful for testing.</li>
+ *     <li>downloadAllPreviousReleaseArtifacts - {@link DownloadAllPreviousPublicationsTask}
+ *     - downloads previous publications of all projects concurrently, release needed tasks depend on it.</li>
+ *     <li>identifyChangedFiles - {@link IdentifyChangedFilesTask}
+ *     - identifies files changed since the previous release, release needed tasks depend on it.</li>
  * </ul>
  */
 public class ReleaseNeededPlugin implements Plugin<Project> {
 
     public final static String ASSERT_RELEASE_NEEDED_TASK = "assertReleaseNeeded";
     public final static String RELEASE_NEEDED = "releaseNeeded";
+    public final static String DOWNLOAD_ALL_PUBLICATIONS_TASK = "downloadAllPreviousReleaseArtifacts";
+    public final static String IDENTIFY_CHANGED_FILES_TASK = "identifyChangedFiles";
 
     @Override
     public void apply(Project project) {
         final ShipkitConfiguration conf = project.getPlugins().apply(ShipkitConfigurationPlugin.class).getConfiguration();
 
+        final DownloadAllPreviousPublicationsTask downloadAll = downloadAllTask(project);
+
         //Task that throws an exception when release is not needed
         //We used it originally to prevent Travis CI from releasing when release was not needed.
         //Kept for backwards compatibility
-        ReleaseNeededTask assertReleaseNeededTask = releaseNeededTask(project, ASSERT_RELEASE_NEEDED_TASK, conf);
+        ReleaseNeededTask assertReleaseNeededTask = releaseNeededTask(project, ASSERT_RELEASE_NEEDED_TASK, conf, downloadAll);
         assertReleaseNeededTask.setExplosive(true)
             .setDescription("[DEPRECATED] Asserts that criteria for the release are met and throws exception if release is not needed.");
         assertReleaseNeededTask.doFirst(task -> DeprecatedWarning.warn(task.getName(), "Please use '" + RELEASE_NEEDED + "' task instead."));
 
         //Below task is useful for testing. It will not throw an exception but will run the code that check is release is needed
         //and it will print the information to the console.
-        releaseNeededTask(project, RELEASE_NEEDED, conf)
-            .setExplosive(false)
-            .setDescription("Checks and prints to the console if criteria for the release are met.");
+        final ReleaseNeededTask releaseNeededTask = releaseNeededTask(project, RELEASE_NEEDED, conf, downloadAll)
+            .setExplosive(false);
+        releaseNeededTask.setDescription("Checks and prints to the console if criteria for the release are met.");
+
+        configureAnyChangeComparison(project, assertReleaseNeededTask, releaseNeededTask);
+        configureChangedProjectsDetection(project, conf, downloadAll, assertReleaseNeededTask, releaseNeededTask);
+    }
+
+    /**
+     * Before previous publications are downloaded, git history is used to find projects that did not change since the previous release.
+     * Previous publications of such projects are not downloaded nor compared, they are considered identical.
+     * Changed files are passed to the download and comparison tasks through the output file of {@link IdentifyChangedFilesTask}.
+     * Projects are always compared when detailed comparison is requested.
+     */
+    private static void configureChangedProjectsDetection(final Project project, final ShipkitConfiguration conf,
+                                                          final DownloadAllPreviousPublicationsTask downloadAll,
+                                                          final ReleaseNeededTask... releaseNeededTasks) {
+        final IdentifyChangedFilesTask identify = TaskMaker.task(project, IDENTIFY_CHANGED_FILES_TASK, IdentifyChangedFilesTask.class, new Action<IdentifyChangedFilesTask>() {
+            public void execute(final IdentifyChangedFilesTask t) {
+                t.setDescription("Identifies files changed since the previous release.");
+                t.setChangedFilesFile(BuildConventions.changedFilesFile(project));
+                DeferredConfiguration.deferredConfiguration(project, new Runnable() {
+                    public void run() {
+                        t.setRevision(conf.getGit().getTagPrefix() + conf.getPreviousReleaseVersion());
+                    }
+                });
+            }
+        });
+        for (ReleaseNeededTask t : releaseNeededTasks) {
+            t.dependsOn(identify);
+        }
+
+        if (project.hasProperty(ComparePublicationsPlugin.DETAILED_COMPARISON_PROPERTY)) {
+            downloadAll.mustRunAfter(identify);
+            return;
+        }
+
+        //the changed files are read when downloads and comparisons run, they need to be identified in the same build
+        downloadAll.dependsOn(identify);
+        project.allprojects(new Action<Project>() {
+            public void execute(final Project subproject) {
+                subproject.getPlugins().withType(ComparePublicationsPlugin.class, new Action<ComparePublicationsPlugin>() {
+                    public void execute(ComparePublicationsPlugin p) {
+                        final ComparePublicationsTask compare = (ComparePublicationsTask) subproject.getTasks().getByName(ComparePublicationsPlugin.COMPARE_PUBLICATIONS_TASK);
+                        final DownloadPreviousPublicationsTask download = (DownloadPreviousPublicationsTask) subproject.getTasks().getByName(ComparePublicationsPlugin.DOWNLOAD_PUBLICATIONS_TASK);
+
+                        DeferredConfiguration.deferredConfiguration(subproject, new Runnable() {
+                            public void run() {
+                                ProjectChanges changes = new ProjectChanges(identify.getChangedFilesFile(), project.getRootDir(), getInputs(subproject));
+                                compare.setProjectChanges(changes);
+                                download.setProjectChanges(changes);
+                            }
+                        });
+                        compare.dependsOn(identify);
+                        download.dependsOn(identify);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Files that determine content of project's publications: main sources and resources and the license.
+     * Build logic, including build files of all projects, is checked separately, see {@link ChangedFiles#isBuildLogicChanged(File)}.
+     */
+    static List<File> getInputs(Project project) {
+        List<File> inputs = new ArrayList<>(JavaPluginUtil.getMainSourceSet(project).getAllSource().getSrcDirs());
+        inputs.add(project.getRootProject().file("LICENSE"));
+        return inputs;
+    }
+
+    /**
+     * Release needed tasks only need to know if any publication changed.
+     * Unless detailed comparison is requested, comparison tasks stop at the first difference
+     * and are skipped once any other publication changed.
+     */
+    private static void configureAnyChangeComparison(final Project project, final ReleaseNeededTask... releaseNeededTasks) {
+        final AtomicBoolean differenceFound = new AtomicBoolean();
+        final boolean detailedComparison = project.hasProperty(ComparePublicationsPlugin.DETAILED_COMPARISON_PROPERTY);
+
+        project.allprojects(new Action<Project>() {
+            public void execute(final Project subproject) {
+                subproject.getPlugins().withType(ComparePublicationsPlugin.class, new Action<ComparePublicationsPlugin>() {
+                    public void execute(ComparePublicationsPlugin p) {
+                        final ComparePublicationsTask task = (ComparePublicationsTask) subproject.getTasks().getByName(ComparePublicationsPlugin.COMPARE_PUBLICATIONS_TASK);
+                        task.setDifferenceFound(differenceFound);
+                        project.getGradle().getTaskGraph().whenReady(new Action<TaskExecutionGraph>() {
+                            public void execute(TaskExecutionGraph graph) {
+                                boolean releaseNeededCheck = false;
+                                for (ReleaseNeededTask t : releaseNeededTasks) {
+                                    releaseNeededCheck |= graph.hasTask(t);
+                                }
+                                task.setAnyChange(releaseNeededCheck && !detailedComparison);
+                            }
+                        });
+                    }
+                });
+            }
+        });
+    }
+
+    private static DownloadAllPreviousPublicationsTask downloadAllTask(final Project project) {
+        return TaskMaker.task(project, DOWNLOAD_ALL_PUBLICATIONS_TASK, DownloadAllPreviousPublicationsTask.class, new Action<DownloadAllPreviousPublicationsTask>() {
+            public void execute(final DownloadAllPreviousPublicationsTask t) {
+                t.setDescription("Downloads artifacts of last released version of all projects concurrently");
+                t.setReportFile(BuildConventions.previousPublicationsDownloadsReport(project));
+
+                project.allprojects(new Action<Project>() {
+                    public void execute(final Project subproject) {
+                        subproject.getPlugins().withType(ComparePublicationsPlugin.class, new Action<ComparePublicationsPlugin>() {
+                            public void execute(ComparePublicationsPlugin p) {
+                                // project's own download task is skipped when artifacts are downloaded by this task
+                                final DownloadPreviousPublicationsTask task = (DownloadPreviousPublicationsTask) subproject.getTasks().getByName(ComparePublicationsPlugin.DOWNLOAD_PUBLICATIONS_TASK);
+                                t.getDownloadTasks().add(task);
+                                task.mustRunAfter(t);
+                                task.onlyIf(new Spec<Task>() {
+                                    public boolean isSatisfiedBy(Task task) {
+                                        return !project.getGradle().getTaskGraph().hasTask(t);
+                                    }
+                                });
+                            }
+                        });
+                    }
+                });
+            }
+        });
     }
 
     private static ReleaseNeededTask releaseNeededTask(final Project project, String taskName,
-                                                       final ShipkitConfiguration conf) {
+                                                       final ShipkitConfiguration conf,
+                                                       DownloadAllPreviousPublicationsTask downloadAll) {
         return TaskMaker.task(project, taskName, ReleaseNeededTask.class, new Action<ReleaseNeededTask>() {
             public void execute(final ReleaseNeededTask t) {
                 t.setDescription("Asserts that criteria for the release are met and throws exception if release not needed.");
                 t.setExplosive(true);
+                t.dependsOn(downloadAll);
 
                 project.allprojects(new Action<Project>() {
                     public void execute(final Project subproject) {
@@ -80,6 +233,9 @@ public class ReleaseNeededPlugin implements Plugin<Project> {
                                 ComparePublicationsTask task = (ComparePublicationsTask) subproject.getTasks().getByName(ComparePublicationsPlugin.COMPARE_PUBLICATIONS_TASK);
                                 t.dependsOn(task);
                                 t.getComparisonResults().add(task.getComparisonResult());
+                                if (task.getComparisonSummary() != null) {
+                                    t.getComparisonSummaries().add(task.getComparisonSummary());
+                                }
                             }
                         });
                     }
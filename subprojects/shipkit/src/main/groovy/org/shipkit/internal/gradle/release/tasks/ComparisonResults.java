@@ -2,25 +2,87 @@ package org.shipkit.internal.gradle.release.tasks;
 
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.shipkit.internal.comparison.ComparisonSummary;
 import org.shipkit.internal.notes.util.IOUtil;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+/**
+ * Publication comparison results.
+ * When machine-readable summaries are available, they are used to decide if the results are identical.
+ * Otherwise the decision only checks sizes of the result files and stops at the first non-empty result.
+ * Result files are read only when the description is requested.
+ */
 class ComparisonResults {
 
     private final static Logger LOG = Logging.getLogger(ComparisonResults.class);
 
-    private final String description;
-    private final boolean resultsIdentical;
+    private final List<File> comparisonResults;
+    private final List<ComparisonSummary> summaries;
+    private String description;
 
     ComparisonResults(List<File> comparisonResults) {
+        this(comparisonResults, Collections.<File>emptyList());
+    }
+
+    ComparisonResults(List<File> comparisonResults, List<File> comparisonSummaries) {
+        this.comparisonResults = comparisonResults;
+        this.summaries = new ArrayList<>();
+        for (File summary : comparisonSummaries) {
+            if (summary.isFile()) {
+                summaries.add(ComparisonSummary.read(summary));
+            }
+        }
+    }
+
+    boolean areResultsIdentical() {
+        if (!summaries.isEmpty()) {
+            for (ComparisonSummary summary : summaries) {
+                //skipped comparison means that other publication changed
+                if (summary.getStatus() != ComparisonSummary.Status.IDENTICAL) {
+                    return false;
+                }
+            }
+            return true;
+        }
         int comparisons = 0;
-        StringBuilder sb = new StringBuilder();
         for (File result : comparisonResults) {
             if (result.isFile()) {
                 comparisons++;
                 LOG.info("Looking for diffs in publication comparison result file: " + result);
+                if (result.length() > 0) {
+                    //file contains differences
+                    return false;
+                }
+            }
+        }
+        //when there are no results the comparison was skipped
+        return comparisons > 0;
+    }
+
+    /**
+     * Summaries of comparisons of all projects, empty if there are no summaries
+     */
+    List<ComparisonSummary> getSummaries() {
+        return summaries;
+    }
+
+    String getDescription() {
+        if (description == null) {
+            description = describe();
+        }
+        return description;
+    }
+
+    private String describe() {
+        int comparisons = 0;
+        StringBuilder sb = new StringBuilder();
+        for (File result : comparisonResults) {
+            if (result.isFile()) {
+                comparisons++;
                 if (result.length() > 0) {
                     //file contains differences
                     sb.append(IOUtil.readFully(result));
@@ -28,23 +90,22 @@ class ComparisonResults {
             }
         }
 
+        String text;
         if (sb.length() > 0) {
-            description = "\n  Compared " + comparisons + " publication(s). Changes since previous release:\n" + sb;
-            resultsIdentical = false;
+            text = "\n  Compared " + comparisons + " publication(s). Changes since previous release:\n" + sb;
         } else if (comparisons > 0) {
-            description = "\n  Compared " + comparisons + " publication(s). No changes since previous release!\n";
-            resultsIdentical = true;
+            text = "\n  Compared " + comparisons + " publication(s). No changes since previous release!\n";
         } else {
-            description = "\n  Publication comparison was skipped (no comparison result files found).\n";
-            resultsIdentical = false;
+            text = "\n  Publication comparison was skipped (no comparison result files found).\n";
         }
-    }
-
-    boolean areResultsIdentical() {
-        return resultsIdentical;
-    }
 
-    String getDescription() {
-        return description;
+        if (!summaries.isEmpty()) {
+            StringBuilder summary = new StringBuilder("\n  Summary:\n");
+            for (ComparisonSummary s : summaries) {
+                summary.append("   - ").append(s.describe()).append("\n");
+            }
+            text += summary;
+        }
+        return text;
     }
 }
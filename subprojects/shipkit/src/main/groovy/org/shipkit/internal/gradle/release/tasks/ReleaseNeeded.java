@@ -4,6 +4,7 @@ import org.gradle.api.GradleException;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.shipkit.gradle.release.ReleaseNeededTask;
+import org.shipkit.internal.comparison.ComparisonSummary;
 import org.shipkit.internal.notes.util.IOUtil;
 import org.shipkit.internal.util.ArgumentValidation;
 import org.shipkit.internal.util.EnvVariables;
@@ -22,6 +23,7 @@ public class ReleaseNeeded {
     private static final String SKIP_COMPARE_PUBLICATIONS = "[ci skip-compare-publications]";
 
     public static final String RELEASE_NEEDED_FILENAME = "release-needed.txt";
+    public static final String COMPARISON_SUMMARIES_FILENAME = "all-publications-comparison.json";
 
     public boolean releaseNeeded(ReleaseNeededTask task) {
         File releaseNeededFile = getReleaseNeededFile(task);
@@ -54,6 +56,10 @@ public class ReleaseNeeded {
         return new File(task.getProject().getBuildDir(), RELEASE_NEEDED_FILENAME);
     }
 
+    static File getComparisonSummariesFile(ReleaseNeededTask task) {
+        return new File(task.getProject().getBuildDir(), COMPARISON_SUMMARIES_FILENAME);
+    }
+
     private ReleaseNeed releaseNeed(ReleaseNeededTask task, EnvVariables envVariables) {
         boolean skipEnvVariable = envVariables.getNonEmptyEnv(SKIP_RELEASE_ENV) != null;
         boolean commitMessageEmpty = task.getCommitMessage() == null || task.getCommitMessage().trim().isEmpty();
@@ -66,8 +72,15 @@ public class ReleaseNeeded {
         boolean releasableBranch = task.getBranch() != null && task.getBranch().matches(task.getReleasableBranchRegex());
         LOG.lifecycle("  Current branch '{}' matches '{}': {}", task.getBranch(), task.getReleasableBranchRegex(), releasableBranch);
 
-        ComparisonResults results = new ComparisonResults(task.getComparisonResults());
+        ComparisonResults results = new ComparisonResults(task.getComparisonResults(), task.getComparisonSummaries());
         boolean publicationsIdentical = results.areResultsIdentical();
+        File summariesFile = getComparisonSummariesFile(task);
+        if (!results.getSummaries().isEmpty()) {
+            ComparisonSummary.writeAll(results.getSummaries(), summariesFile);
+        } else if (summariesFile.exists()) {
+            //stale file from previous build would describe publications that were not compared now
+            summariesFile.delete();
+        }
 
         LOG.lifecycle(results.getDescription());
 
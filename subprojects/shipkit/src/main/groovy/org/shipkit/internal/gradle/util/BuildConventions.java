@@ -16,6 +16,41 @@ public class BuildConventions {
         return outputFile(project.getRootProject(), "all-contributors.json");
     }
 
+    /**
+     * Returns directory for caching formatted release notes of past releases.
+     */
+    public static File formattedNotesCacheDir(Project project) {
+        return outputFile(project, "release-notes-cache");
+    }
+
+    /**
+     * Returns file object for storing timings of downloads of previous publications.
+     */
+    public static File previousPublicationsDownloadsReport(Project project) {
+        return outputFile(project.getRootProject(), "previous-publications-downloads.txt");
+    }
+
+    /**
+     * Returns file object for storing files changed since the previous release.
+     */
+    public static File changedFilesFile(Project project) {
+        return outputFile(project.getRootProject(), "changed-files.txt");
+    }
+
+    /**
+     * Returns file object for storing the report of external processes executed during the build.
+     */
+    public static File processMetricsReport(Project project) {
+        return outputFile(project.getRootProject(), "process-metrics.txt");
+    }
+
+    /**
+     * Returns file object for storing Chrome trace of external processes executed during the build.
+     */
+    public static File processTraceFile(Project project) {
+        return outputFile(project.getRootProject(), "process-trace.json");
+    }
+
     /**
      * Returns file object in a standard location where we put other output files generated during the build.
      */
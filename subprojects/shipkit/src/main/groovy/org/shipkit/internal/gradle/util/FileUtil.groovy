@@ -1,8 +1,12 @@
 package org.shipkit.internal.gradle.util
 
 import groovy.transform.CompileStatic
+import org.gradle.api.Action
 import org.shipkit.internal.notes.header.HeaderRemover
 
+import java.nio.file.Files
+import java.nio.file.StandardCopyOption
+
 /**
  * File utilities.
  */
@@ -15,11 +19,29 @@ class FileUtil {
      * Appends content to the top of the file.
      */
     static void appendToTop(String content, File notesFile) {
+        appendToTop(notesFile, { Writer writer -> writer.write(content) } as Action<Writer>)
+    }
+
+    /**
+     * Appends content to the top of the file.
+     * The new content is written by given action straight to the file, without building it in memory first.
+     * The file is replaced only when the action completes successfully.
+     */
+    static void appendToTop(File notesFile, Action<Writer> content) {
         notesFile.getParentFile().mkdirs()
         notesFile.createNewFile()
         def existing = notesFile.text
         def existingWithoutHeader = HeaderRemover.removeHeaderIfExist(existing)
 
-        notesFile.text = content + existingWithoutHeader
+        def tmp = new File(notesFile.path + ".tmp")
+        try {
+            tmp.withWriter { Writer writer ->
+                content.execute(writer)
+                writer.write(existingWithoutHeader)
+            }
+            Files.move(tmp.toPath(), notesFile.toPath(), StandardCopyOption.REPLACE_EXISTING)
+        } finally {
+            tmp.delete()
+        }
     }
 }
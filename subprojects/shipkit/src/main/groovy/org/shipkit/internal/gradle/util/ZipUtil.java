@@ -5,7 +5,9 @@ import org.shipkit.internal.notes.util.IOUtil;
 import java.io.File;
 import java.io.IOException;
 import java.util.Enumeration;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
@@ -46,6 +48,19 @@ public class ZipUtil {
         return set;
     }
 
+    /**
+     * Entries of the zip file mapped by name, in the order of the zip central directory.
+     * The entries carry the size and CRC-32 recorded in the central directory.
+     */
+    public static Map<String, ZipEntry> extractEntriesByName(ZipFile file) {
+        Map<String, ZipEntry> map = new LinkedHashMap<>();
+        for (Enumeration<? extends ZipEntry> e = file.entries(); e.hasMoreElements();) {
+            ZipEntry entry = e.nextElement();
+            map.put(entry.getName(), entry);
+        }
+        return map;
+    }
+
     public static String readEntryContent(File file, String entry) {
         ZipFile zip = null;
         try {
@@ -1,9 +1,11 @@
 package org.shipkit.internal.notes.format;
 
 import org.shipkit.internal.notes.model.*;
+import org.shipkit.internal.notes.util.ReleaseNotesException;
 import org.shipkit.internal.util.DateUtil;
-import org.shipkit.internal.util.MultiMap;
+import org.shipkit.internal.util.HashUtil;
 
+import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.*;
 
@@ -16,6 +18,8 @@ class DetailedFormatter implements MultiReleaseNotesFormatter {
 
     private static final int MAX_AUTHORS = 3;
     private static final String NO_LABEL = "Remaining changes";
+    //bump when the formatting changes so that previously cached sections are not used
+    private static final String FORMAT_VERSION = "1";
     private final String introductionText;
     private final Map<String, String> labelMapping;
     private final String vcsCommitsLinkTemplate;
@@ -24,10 +28,18 @@ class DetailedFormatter implements MultiReleaseNotesFormatter {
     private final boolean emphasizeVersion;
     private final String header;
     private final BadgeFormatter badgeFormatter;
+    private final FormattedNotesCache cache;
 
     DetailedFormatter(String header, String introductionText, Map<String, String> labelMapping, String vcsCommitsLinkTemplate,
                       String publicationRepository, Map<String, Contributor> contributors, boolean emphasizeVersion,
                       BadgeFormatter badgeFormatter) {
+        this(header, introductionText, labelMapping, vcsCommitsLinkTemplate, publicationRepository, contributors,
+            emphasizeVersion, badgeFormatter, null);
+    }
+
+    DetailedFormatter(String header, String introductionText, Map<String, String> labelMapping, String vcsCommitsLinkTemplate,
+                      String publicationRepository, Map<String, Contributor> contributors, boolean emphasizeVersion,
+                      BadgeFormatter badgeFormatter, FormattedNotesCache cache) {
         this.header = header;
         this.introductionText = introductionText;
         this.labelMapping = labelMapping;
@@ -36,33 +48,86 @@ class DetailedFormatter implements MultiReleaseNotesFormatter {
         this.contributors = contributors;
         this.emphasizeVersion = emphasizeVersion;
         this.badgeFormatter = badgeFormatter;
+        this.cache = cache;
     }
 
     @Override
     public String formatReleaseNotes(Collection<ReleaseNotesData> data) {
-        StringBuilder sb = new StringBuilder(header);
-        sb.append(introductionText == null ? "" : introductionText);
-        if (data.isEmpty()) {
-            sb.append("No release information.");
-            return sb.toString();
-        }
-
-        for (ReleaseNotesData d : data) {
-            sb.append(header(d.getVersion(), emphasizeVersion));
-            String vcsCommitsLink = MessageFormat.format(vcsCommitsLinkTemplate, d.getPreviousVersionVcsTag(), d.getVcsTag());
-            sb.append("\n");
-            sb.append(releaseSummary(d.getDate(), d.getVersion(), d.getContributions(), contributors, vcsCommitsLink,
-                publicationRepository));
-
-            if (!d.getContributions().getContributions().isEmpty()) {
-                //no point printing any improvements information if there are no code changes
-                sb.append(formatImprovements(d.getImprovements(), labelMapping));
+        StringBuilder sb = new StringBuilder();
+        formatReleaseNotes(data, sb);
+        return sb.toString();
+    }
+
+    @Override
+    public void formatReleaseNotes(Collection<ReleaseNotesData> data, Appendable output) {
+        try {
+            if (data.isEmpty()) {
+                output.append(header);
+                output.append(introductionText == null ? "" : introductionText);
+                output.append("No release information.");
+                return;
+            }
+
+            TrimmingAppendable out = new TrimmingAppendable(output);
+            out.append(header);
+            out.append(introductionText == null ? "" : introductionText);
+
+            for (ReleaseNotesData d : data) {
+                out.append(cachedRelease(d));
             }
 
-            sb.append("\n");
+            out.finish();
+        } catch (IOException e) {
+            throw new ReleaseNotesException("Problems writing release notes", e);
         }
+    }
 
-        return sb.toString().trim();
+    private String cachedRelease(ReleaseNotesData d) throws IOException {
+        if (cache == null) {
+            return formatRelease(d);
+        }
+        String key = cacheKey(d);
+        String release = cache.get(key);
+        if (release == null) {
+            release = formatRelease(d);
+            cache.put(key, release);
+        }
+        return release;
+    }
+
+    private String formatRelease(ReleaseNotesData d) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append(header(d.getVersion(), emphasizeVersion));
+        String vcsCommitsLink = MessageFormat.format(vcsCommitsLinkTemplate, d.getPreviousVersionVcsTag(), d.getVcsTag());
+        sb.append("\n");
+        sb.append(releaseSummary(d.getDate(), d.getVersion(), d.getContributions(), contributors, vcsCommitsLink,
+            publicationRepository));
+
+        if (!d.getContributions().getContributions().isEmpty()) {
+            //no point printing any improvements information if there are no code changes
+            formatImprovements(d.getImprovements(), labelMapping, sb);
+        }
+
+        sb.append("\n");
+        return sb.toString();
+    }
+
+    /**
+     * Hash of the release notes data and of all formatter settings that influence the formatted release.
+     * Only the contributors that authored the release are included so that new contributors do not invalidate past releases.
+     */
+    String cacheKey(ReleaseNotesData d) {
+        StringBuilder sb = new StringBuilder(FORMAT_VERSION)
+            .append("\n").append(emphasizeVersion)
+            .append("\n").append(vcsCommitsLinkTemplate)
+            .append("\n").append(publicationRepository)
+            .append("\n").append(labelMapping)
+            .append("\n").append(d.toJson());
+        for (Contribution c : d.getContributions().getContributions()) {
+            Contributor author = contributors.get(c.getAuthorName());
+            sb.append("\n").append(c.getAuthorName()).append("=").append(author == null ? "" : author.getProfileUrl());
+        }
+        return HashUtil.sha256(sb.toString());
     }
 
     static String header(String version, boolean emphasizeVersion) {
@@ -96,21 +161,32 @@ class DetailedFormatter implements MultiReleaseNotesFormatter {
     }
 
     static String formatImprovements(Collection<Improvement> improvements, Map<String, String> labelMapping) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            formatImprovements(improvements, labelMapping, sb);
+        } catch (IOException e) {
+            throw new IllegalStateException("StringBuilder does not throw IOException", e);
+        }
+        return sb.toString();
+    }
+
+    private static void formatImprovements(Collection<Improvement> improvements, Map<String, String> labelMapping,
+                                           Appendable out) throws IOException {
         if (improvements.isEmpty()) {
-            return " - No pull requests referenced in commit messages.";
+            out.append(" - No pull requests referenced in commit messages.");
+            return;
         }
 
-        StringBuilder sb = new StringBuilder();
-        MultiMap<String, Improvement> sorted = sortImprovements(improvements, labelMapping);
+        Map<String, Collection<Improvement>> sorted = sortImprovements(improvements, labelMapping);
 
-        for (String label: sorted.keySet()) {
-            for (Improvement i : sorted.get(label)) {
-                String labelPrefix = label.equals(NO_LABEL) ? "" : "[" + label + "] ";
-                sb.append(" - ").append(labelPrefix).append(formatImprovement(i)).append("\n");
+        boolean first = true;
+        for (Map.Entry<String, Collection<Improvement>> entry : sorted.entrySet()) {
+            String labelPrefix = entry.getKey().equals(NO_LABEL) ? "" : "[" + entry.getKey() + "] ";
+            for (Improvement i : entry.getValue()) {
+                out.append(first ? " - " : "\n - ").append(labelPrefix).append(formatImprovement(i));
+                first = false;
             }
         }
-
-        return " " + sb.toString().trim();
     }
 
     private static String formatImprovement(Improvement i) {
@@ -119,29 +195,60 @@ class DetailedFormatter implements MultiReleaseNotesFormatter {
                 i.getUrl() + ")";
     }
 
-    private static MultiMap<String, Improvement> sortImprovements(Collection<Improvement> improvements, Map<String, String> labelMapping) {
-        MultiMap<String, Improvement> byLabel = new MultiMap<>();
-        Set<Improvement> remainingImprovements = new LinkedHashSet<>(improvements);
+    /**
+     * Groups improvements by the descriptive label, in the order of the label mapping.
+     * Each improvement is indexed once under the first mapped label it has,
+     * improvements without any mapped label are grouped last.
+     */
+    private static Map<String, Collection<Improvement>> sortImprovements(Collection<Improvement> improvements, Map<String, String> labelMapping) {
+        //Step 1, index the label mapping so that the input labels determine the order
+        List<String> labels = new ArrayList<>(labelMapping.keySet());
+        Map<String, Integer> labelOrder = new HashMap<>();
+        List<Collection<Improvement>> byLabelOrder = new ArrayList<>(labels.size());
+        for (int order = 0; order < labels.size(); order++) {
+            labelOrder.put(labels.get(order), order);
+            byLabelOrder.add(new LinkedHashSet<Improvement>());
+        }
 
-        //Step 1, find improvements that match input labels
-        //Iterate label first because the input labels determine the order
-        for (String label : labelMapping.keySet()) {
-            for (Improvement i : improvements) {
-                if (i.getLabels().contains(label) && remainingImprovements.contains(i)) {
-                    remainingImprovements.remove(i);
-                    byLabel.put(labelMapping.get(label), i);
+        //Step 2, in a single pass assign every improvement to the first matching label or to the remaining improvements
+        Collection<Improvement> remainingImprovements = new LinkedHashSet<>();
+        for (Improvement i : improvements) {
+            int match = labels.size();
+            for (String label : i.getLabels()) {
+                Integer order = labelOrder.get(label);
+                if (order != null && order < match) {
+                    match = order;
                 }
             }
+            if (match < labels.size()) {
+                byLabelOrder.get(match).add(i);
+            } else {
+                remainingImprovements.add(i);
+            }
         }
 
-        //Step 2, add remaining improvements
-        for (Improvement i : remainingImprovements) {
-            byLabel.put(NO_LABEL, i);
+        //Step 3, group by descriptive label, different labels can be mapped to the same descriptive label
+        Map<String, Collection<Improvement>> byLabel = new LinkedHashMap<>();
+        for (int order = 0; order < labels.size(); order++) {
+            addAll(byLabel, labelMapping.get(labels.get(order)), byLabelOrder.get(order));
         }
+        addAll(byLabel, NO_LABEL, remainingImprovements);
 
         return byLabel;
     }
 
+    private static void addAll(Map<String, Collection<Improvement>> byLabel, String label, Collection<Improvement> improvements) {
+        if (improvements.isEmpty()) {
+            return;
+        }
+        Collection<Improvement> existing = byLabel.get(label);
+        if (existing == null) {
+            existing = new LinkedHashSet<>();
+            byLabel.put(label, existing);
+        }
+        existing.addAll(improvements);
+    }
+
     static String authorsSummary(ContributionSet contributions, Map<String, Contributor> contributors, String vcsCommitsLink) {
         if (contributions.getContributions().isEmpty()) {
             return "no code changes (no commits)";
@@ -0,0 +1,51 @@
+package org.shipkit.internal.notes.format;
+
+import org.shipkit.internal.notes.util.IOUtil;
+
+import java.io.File;
+
+/**
+ * Content addressed cache of formatted release notes sections.
+ * Each section is stored in a separate file named after the key,
+ * the key is a hash of everything that influences the formatted section.
+ * Past releases do not change, so regenerating release notes only formats new releases.
+ */
+public class FormattedNotesCache {
+
+    private final File cacheDir;
+
+    /**
+     * @param cacheDir where formatted sections are stored, does not need to exist
+     */
+    public FormattedNotesCache(File cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    /**
+     * Returns formatted section for given key or null if the section is not cached
+     */
+    public String get(String key) {
+        File section = sectionFile(key);
+        if (!section.isFile()) {
+            return null;
+        }
+        return IOUtil.readFully(section);
+    }
+
+    /**
+     * Stores formatted section under given key
+     */
+    public void put(String key, String formattedSection) {
+        //write to a temporary file first so that a section is never read half-written
+        File tmp = new File(cacheDir, key + ".tmp");
+        IOUtil.writeFile(tmp, formattedSection);
+        File section = sectionFile(key);
+        if (!tmp.renameTo(section) && !section.isFile()) {
+            throw new RuntimeException("Problems storing formatted release notes section: " + section);
+        }
+    }
+
+    private File sectionFile(String key) {
+        return new File(cacheDir, key + ".md");
+    }
+}
@@ -13,4 +13,15 @@ public interface MultiReleaseNotesFormatter {
      * Formats release notes data for all releases
      */
     String formatReleaseNotes(Collection<ReleaseNotesData> data);
+
+    /**
+     * Formats release notes data for all releases, streaming the content to given output.
+     * Produces the same content as {@link #formatReleaseNotes(Collection)}
+     * without building the whole text in memory first.
+     *
+     * @param data release notes data to format
+     * @param output where the formatted release notes are written to, for example a file {@link java.io.Writer}
+     * @throws org.shipkit.internal.notes.util.ReleaseNotesException when writing to the output fails
+     */
+    void formatReleaseNotes(Collection<ReleaseNotesData> data, Appendable output);
 }
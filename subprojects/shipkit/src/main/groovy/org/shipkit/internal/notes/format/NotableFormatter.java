@@ -3,8 +3,10 @@ package org.shipkit.internal.notes.format;
 import org.shipkit.internal.notes.model.ContributionSet;
 import org.shipkit.internal.notes.model.Improvement;
 import org.shipkit.internal.notes.model.ReleaseNotesData;
+import org.shipkit.internal.notes.util.ReleaseNotesException;
 import org.shipkit.internal.util.DateUtil;
 
+import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.Collection;
 
@@ -21,36 +23,44 @@ class NotableFormatter implements MultiReleaseNotesFormatter {
     }
 
     public String formatReleaseNotes(Collection<ReleaseNotesData> data) {
-        StringBuilder sb = new StringBuilder(introductionText == null ? "" : introductionText);
-        for (ReleaseNotesData d : data) {
-            sb.append("### ").append(d.getVersion()).append(" - ").append(DateUtil.formatDate(d.getDate()))
-                    .append("\n\n");
-
-            if (d.getContributions().getAllCommits().isEmpty()) {
-                sb.append("No code changes. No commits found.\n");
-            } else {
-                //TODO SF formatter should not create link. Rather, the link should be a part of release notes data.
-                //This is not only cleaner but also avoid duplication of link formatting across formatters.
-                String vcsCommitsLink = MessageFormat.format(vcsCommitsLinkTemplate, d.getPreviousVersionVcsTag(), d.getVcsTag());
-
-                String contributions = formatContributions(d.getContributions(), d.getImprovements().size(), detailedReleaseNotesLink, vcsCommitsLink);
-                sb.append(contributions).append("\n\n");
-
-                if (d.getImprovements().isEmpty()) {
-                    sb.append("No notable improvements. No pull requests were referenced from [commits](")
-                            .append(vcsCommitsLink)
-                            .append(").\n");
+        StringBuilder sb = new StringBuilder();
+        formatReleaseNotes(data, sb);
+        return sb.toString();
+    }
+
+    public void formatReleaseNotes(Collection<ReleaseNotesData> data, Appendable out) {
+        try {
+            out.append(introductionText == null ? "" : introductionText);
+            for (ReleaseNotesData d : data) {
+                out.append("### ").append(d.getVersion()).append(" - ").append(DateUtil.formatDate(d.getDate()))
+                        .append("\n\n");
+
+                if (d.getContributions().getAllCommits().isEmpty()) {
+                    out.append("No code changes. No commits found.\n");
                 } else {
-                    for (Improvement i : d.getImprovements()) {
-                        sb.append(" * ").append(CommonFormatting.format(i)).append("\n");
+                    //TODO SF formatter should not create link. Rather, the link should be a part of release notes data.
+                    //This is not only cleaner but also avoid duplication of link formatting across formatters.
+                    String vcsCommitsLink = MessageFormat.format(vcsCommitsLinkTemplate, d.getPreviousVersionVcsTag(), d.getVcsTag());
+
+                    String contributions = formatContributions(d.getContributions(), d.getImprovements().size(), detailedReleaseNotesLink, vcsCommitsLink);
+                    out.append(contributions).append("\n\n");
+
+                    if (d.getImprovements().isEmpty()) {
+                        out.append("No notable improvements. No pull requests were referenced from [commits](")
+                                .append(vcsCommitsLink)
+                                .append(").\n");
+                    } else {
+                        for (Improvement i : d.getImprovements()) {
+                            out.append(" * ").append(CommonFormatting.format(i)).append("\n");
+                        }
                     }
                 }
-            }
 
-            sb.append("\n");
+                out.append("\n");
+            }
+        } catch (IOException e) {
+            throw new ReleaseNotesException("Problems writing release notes", e);
         }
-
-        return sb.toString();
     }
 
     private static String formatContributions(ContributionSet contributions, int improvementCount,
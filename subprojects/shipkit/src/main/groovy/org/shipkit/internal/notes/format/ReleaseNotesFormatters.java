@@ -51,4 +51,23 @@ public class ReleaseNotesFormatters {
         return new DetailedFormatter(header, introductionText, labelMapping, vcsCommitsLinkTemplate,
                 publicationRepository, contributors, emphasizeVersion, badgeFormatter);
     }
+
+    /**
+     * Returns the detailed formatter that reuses formatted releases from given cache.
+     * See {@link #detailedFormatter(String, String, Map, String, String, Map, boolean, BadgeFormatter)} for other parameters.
+     *
+     * @param cache formatted releases keyed by a hash of the release notes data and of the formatter settings
+     */
+    public static MultiReleaseNotesFormatter detailedFormatter(String header,
+                                                               String introductionText,
+                                                               Map<String, String> labelMapping,
+                                                               String vcsCommitsLinkTemplate,
+                                                               String publicationRepository,
+                                                               Map<String, Contributor> contributors,
+                                                               boolean emphasizeVersion,
+                                                               BadgeFormatter badgeFormatter,
+                                                               FormattedNotesCache cache) {
+        return new DetailedFormatter(header, introductionText, labelMapping, vcsCommitsLinkTemplate,
+                publicationRepository, contributors, emphasizeVersion, badgeFormatter, cache);
+    }
 }
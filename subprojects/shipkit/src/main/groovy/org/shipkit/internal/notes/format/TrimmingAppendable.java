@@ -0,0 +1,84 @@
+package org.shipkit.internal.notes.format;
+
+import java.io.IOException;
+
+/**
+ * Decorates an {@link Appendable} so that the streamed content is trimmed the same way as {@link String#trim()}.
+ * Leading whitespace is dropped and trailing whitespace is held back until non-whitespace content follows.
+ * Call {@link #finish()} once all content was appended to discard the trailing whitespace.
+ */
+class TrimmingAppendable implements Appendable {
+
+    private final Appendable delegate;
+    private final StringBuilder pendingWhitespace = new StringBuilder();
+    private boolean started;
+
+    TrimmingAppendable(Appendable delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Appendable append(CharSequence csq) throws IOException {
+        CharSequence s = csq == null ? "null" : csq;
+        return append(s, 0, s.length());
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) throws IOException {
+        CharSequence s = csq == null ? "null" : csq;
+        int from = start;
+        for (int i = start; i < end; i++) {
+            if (!isWhitespace(s.charAt(i))) {
+                continue;
+            }
+            //write out the content that precedes the whitespace and hold the whitespace back
+            writeContent(s, from, i);
+            if (started) {
+                pendingWhitespace.append(s.charAt(i));
+            }
+            from = i + 1;
+        }
+        writeContent(s, from, end);
+        return this;
+    }
+
+    @Override
+    public Appendable append(char c) throws IOException {
+        if (isWhitespace(c)) {
+            if (started) {
+                pendingWhitespace.append(c);
+            }
+        } else {
+            flushWhitespace();
+            delegate.append(c);
+        }
+        return this;
+    }
+
+    /**
+     * Discards the whitespace held back at the end of the content.
+     */
+    void finish() {
+        pendingWhitespace.setLength(0);
+    }
+
+    private void writeContent(CharSequence s, int start, int end) throws IOException {
+        if (start < end) {
+            flushWhitespace();
+            delegate.append(s, start, end);
+        }
+    }
+
+    private void flushWhitespace() throws IOException {
+        started = true;
+        if (pendingWhitespace.length() > 0) {
+            delegate.append(pendingWhitespace);
+            pendingWhitespace.setLength(0);
+        }
+    }
+
+    //the same definition of whitespace as String.trim()
+    private static boolean isWhitespace(char c) {
+        return c <= ' ';
+    }
+}
@@ -26,7 +26,7 @@ public class ReleaseNotesGenerators {
         ProcessRunner processRunner = Exec.getProcessRunner(workDir);
         ContributionsProvider contributionsProvider = Vcs.getContributionsProvider(processRunner, ignoredCommit);
         ImprovementsProvider improvementsProvider = Improvements.getGitHubProvider(gitHubApiUrl, gitHubRepository, readOnlyAuthToken);
-        ReleasedVersionsProvider releasedVersionsProvider = Vcs.getReleaseDateProvider(processRunner);
+        ReleasedVersionsProvider releasedVersionsProvider = Vcs.getReleaseDateProvider(processRunner, Exec.getGitCatFileSession(workDir));
         return new DefaultReleaseNotesGenerator(contributionsProvider, improvementsProvider, releasedVersionsProvider);
     }
 }
@@ -3,6 +3,8 @@ package org.shipkit.internal.notes.util;
 import java.io.*;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.Scanner;
 
 /**
@@ -89,7 +91,8 @@ public class IOUtil {
     }
 
     /**
-     * Downloads resource and saves it to a given file
+     * Downloads resource and saves it to a given file.
+     * Content is downloaded to a temporary file first so that the destination file never contains partial content.
      * @param url location of resource to download
      * @param file destination file (not a directory!) where downloaded content will be stored
      *             (file or its parent directories don't need to exist)
@@ -97,20 +100,24 @@ public class IOUtil {
     public static void downloadToFile(String url, File file) {
         InputStream input = null;
         try {
-            input = new BufferedInputStream(new URL(url).openStream());
+            input = new URL(url).openStream();
 
             IOUtil.createParentDirectory(file);
+            File tmp = new File(file.getPath() + ".tmp");
 
             FileOutputStream fos = null;
             try {
-                fos = new FileOutputStream(file);
-                byte[] buf = new byte[1024];
+                fos = new FileOutputStream(tmp);
+                byte[] buf = new byte[64 * 1024];
                 int n;
                 while ((n = input.read(buf)) != -1) {
                     fos.write(buf, 0, n);
                 }
+                fos.close();
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
             } finally {
                 closeQuietly(fos);
+                tmp.delete();
             }
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -1,5 +1,6 @@
 package org.shipkit.internal.notes.vcs;
 
+import org.shipkit.internal.exec.GitCatFileSession;
 import org.shipkit.internal.exec.ProcessRunner;
 import org.shipkit.internal.util.DateUtil;
 
@@ -13,6 +14,10 @@ class DefaultReleasedVersionsProvider implements ReleasedVersionsProvider {
         this(new RevisionDateProvider(runner));
     }
 
+    DefaultReleasedVersionsProvider(ProcessRunner runner, GitCatFileSession objects) {
+        this(new RevisionDateProvider(runner, objects));
+    }
+
     DefaultReleasedVersionsProvider(RevisionDateProvider dateProvider) {
         this.dateProvider = dateProvider;
     }
@@ -1,19 +1,32 @@
 package org.shipkit.internal.notes.vcs;
 
 import org.gradle.api.GradleException;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.shipkit.internal.exec.GitCatFileSession;
 import org.shipkit.internal.exec.ProcessRunner;
 
 import java.util.Date;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static org.shipkit.internal.util.DateUtil.parseDate;
+import static org.shipkit.internal.util.DateUtil.parseDateInEpochSeconds;
 
 /**
  * Provides date of given vcs revision
  */
 class RevisionDateProvider {
 
+    private static final Logger LOG = Logging.getLogger(RevisionDateProvider.class);
+
+    /**
+     * author line of commit object, e.g. "author John Doe <john@doe.com> 1485706449 -0800"
+     */
+    private static final Pattern AUTHOR_DATE_PATTERN = Pattern.compile("^author .* (\\d+) [-+]\\d{4}$");
+
     private final ProcessRunner runner;
+    private final GitCatFileSession objects;
     /**
      * pattern for validating revision date in ISO format
      * Example of valid date: 2017-01-29 08:14:09 -0800
@@ -22,15 +35,58 @@ class RevisionDateProvider {
         "\\s?\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}\\s[-+]\\d{4}\\s?");
 
     RevisionDateProvider(ProcessRunner runner) {
+        this(runner, null);
+    }
+
+    /**
+     * @param objects used to read dates from commit objects without starting git for every revision, may be null
+     */
+    RevisionDateProvider(ProcessRunner runner, GitCatFileSession objects) {
         this.runner = runner;
+        this.objects = objects;
     }
 
     public Date getDate(String rev) throws RevisionNotFoundException {
+        Date date = tryGetCommitDate(rev);
+        if (date != null) {
+            return date;
+        }
         String gitOutput = tryGetRevisionsDate(rev);
         validateDatesFormat(rev, gitOutput);
         return parseDate(gitOutput.trim());
     }
 
+    /**
+     * Reads author date from the commit object.
+     * Returns null when it cannot be read, 'git log' is then used and reports unknown revision.
+     */
+    private Date tryGetCommitDate(String rev) {
+        if (objects == null) {
+            return null;
+        }
+        GitCatFileSession.GitObject commit;
+        try {
+            commit = objects.read(rev + "^{commit}");
+        } catch (RuntimeException e) {
+            LOG.info("Unable to read commit object of revision '" + rev + "'", e);
+            return null;
+        }
+        if (commit == null) {
+            return null;
+        }
+        for (String line : commit.getText().split("\n")) {
+            if (line.isEmpty()) {
+                //end of commit headers
+                break;
+            }
+            Matcher matcher = AUTHOR_DATE_PATTERN.matcher(line);
+            if (matcher.matches()) {
+                return parseDateInEpochSeconds(matcher.group(1));
+            }
+        }
+        return null;
+    }
+
     private String tryGetRevisionsDate(String revision) throws RevisionNotFoundException {
         try {
            return runner.run("git", "log", "--pretty=%ad", "--date=iso", revision, "-n", "1");
@@ -1,5 +1,6 @@
 package org.shipkit.internal.notes.vcs;
 
+import org.shipkit.internal.exec.GitCatFileSession;
 import org.shipkit.internal.exec.ProcessRunner;
 import org.shipkit.internal.notes.model.Commit;
 
@@ -18,9 +19,9 @@ public class Vcs {
     }
 
     /**
-     * Provides means to get release versions
+     * Provides means to get release versions, reading dates of the versions using given git session
      */
-    public static ReleasedVersionsProvider getReleaseDateProvider(ProcessRunner runner) {
-        return new DefaultReleasedVersionsProvider(runner);
+    public static ReleasedVersionsProvider getReleaseDateProvider(ProcessRunner runner, GitCatFileSession objects) {
+        return new DefaultReleasedVersionsProvider(runner, objects);
     }
 }
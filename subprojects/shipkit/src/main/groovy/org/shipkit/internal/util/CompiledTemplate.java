@@ -0,0 +1,83 @@
+package org.shipkit.internal.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Template text parsed once into the segments between '@' characters.
+ * Rendering resolves all "@key@" expressions in a single pass, compiled templates are cached per template text.
+ * The cache lives as long as the plugin classes (e.g. in the Gradle daemon) so it keeps only
+ * the {@value #CACHE_SIZE} most recently used templates.
+ */
+class CompiledTemplate {
+
+    private static final char DELIMITER = '@';
+    static final int CACHE_SIZE = 64;
+    private static final Map<String, CompiledTemplate> CACHE = Collections.synchronizedMap(
+        new LinkedHashMap<String, CompiledTemplate>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompiledTemplate> eldest) {
+                return size() > CACHE_SIZE;
+            }
+        });
+
+    //segments[0] is the text before the first '@', segments[i] is the text that follows the i-th '@'
+    private final String[] segments;
+    private final int length;
+
+    private CompiledTemplate(String[] segments, int length) {
+        this.segments = segments;
+        this.length = length;
+    }
+
+    /**
+     * Returns compiled template for given text, compiling it only if it is not already cached
+     */
+    static CompiledTemplate compile(String text) {
+        return CACHE.computeIfAbsent(text, CompiledTemplate::parse);
+    }
+
+    private static CompiledTemplate parse(String text) {
+        List<String> segments = new ArrayList<>();
+        int start = 0;
+        int delimiter;
+        while ((delimiter = text.indexOf(DELIMITER, start)) != -1) {
+            segments.add(text.substring(start, delimiter));
+            start = delimiter + 1;
+        }
+        segments.add(text.substring(start));
+        return new CompiledTemplate(segments.toArray(new String[0]), text.length());
+    }
+
+    /**
+     * Length of the template text, useful for sizing the output
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * Writes the template to the output replacing "@key@" expressions with property values.
+     * Expressions are resolved left to right and values are written as-is, they are not resolved again.
+     * Expressions with keys that are not in the properties are written unchanged.
+     */
+    void render(Map<String, String> properties, Appendable out) throws IOException {
+        out.append(segments[0]);
+        int i = 1;
+        while (i < segments.length) {
+            //segments[i] is preceded by '@', it is a key only when another '@' follows
+            String value = i + 1 < segments.length ? properties.get(segments[i]) : null;
+            if (value != null) {
+                out.append(value).append(segments[i + 1]);
+                i += 2;
+            } else {
+                out.append(DELIMITER).append(segments[i]);
+                i++;
+            }
+        }
+    }
+}
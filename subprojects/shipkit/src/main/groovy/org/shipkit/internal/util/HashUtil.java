@@ -0,0 +1,80 @@
+package org.shipkit.internal.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Content hashing utilities
+ */
+public class HashUtil {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * Returns lowercase hex encoded SHA-256 of the UTF-8 bytes of given text
+     */
+    public static String sha256(String text) {
+        MessageDigest digest = sha256Digest();
+        return toHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Returns lowercase hex encoded SHA-256 of the stream content, closes the stream
+     */
+    public static String sha256(InputStream stream) throws IOException {
+        return hash(stream, sha256Digest());
+    }
+
+    /**
+     * Returns lowercase hex encoded hash of the stream content using given algorithm (e.g. "SHA-1", "MD5"),
+     * closes the stream
+     */
+    public static String hash(InputStream stream, String algorithm) throws IOException {
+        try {
+            return hash(stream, MessageDigest.getInstance(algorithm));
+        } catch (NoSuchAlgorithmException e) {
+            stream.close();
+            throw new RuntimeException(algorithm + " is not supported by this JVM", e);
+        }
+    }
+
+    private static String hash(InputStream stream, MessageDigest digest) throws IOException {
+        byte[] buf = new byte[BUFFER_SIZE];
+        try {
+            int n;
+            while ((n = stream.read(buf)) != -1) {
+                digest.update(buf, 0, n);
+            }
+        } finally {
+            stream.close();
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Creates new SHA-256 message digest
+     */
+    public static MessageDigest sha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 is not supported by this JVM", e);
+        }
+    }
+
+    /**
+     * Lowercase hex representation of given bytes
+     */
+    public static String toHex(byte[] bytes) {
+        char[] out = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            out[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            out[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(out);
+    }
+}
@@ -1,11 +1,13 @@
 package org.shipkit.internal.util;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Utility class that can be used to replace expressions formatted like "@key@" with provided values
- * in given template text
+ * in given template text. The template is parsed only once and resolved in a single pass,
+ * see {@link CompiledTemplate}.
  */
 public class TemplateResolver {
 
@@ -25,14 +27,20 @@ public class TemplateResolver {
     }
 
     public String resolve() {
-        String result = text;
-        for (Map.Entry<String, String> property : properties.entrySet()) {
-            result = result.replace(expressionFromKey(property.getKey()), property.getValue());
-        }
-        return result;
+        CompiledTemplate template = CompiledTemplate.compile(text);
+        StringBuilder result = new StringBuilder(template.length());
+        resolve(result);
+        return result.toString();
     }
 
-    private String expressionFromKey(String key) {
-         return "@" + key + "@";
+    /**
+     * Resolves the template writing the result to given output, for example a reusable StringBuilder or a Writer
+     */
+    public void resolve(Appendable output) {
+        try {
+            CompiledTemplate.compile(text).render(properties, output);
+        } catch (IOException e) {
+            throw new RuntimeException("Problems writing resolved template", e);
+        }
     }
 }
@@ -1,5 +1,6 @@
 package org.shipkit.gradle.exec
 
+import org.gradle.api.Action
 import org.gradle.api.tasks.TaskExecutionException
 import org.gradle.testfixtures.ProjectBuilder
 import org.shipkit.internal.gradle.exec.ExecCommandFactory
@@ -53,4 +54,21 @@ class ShipkitExecTaskTest extends Specification {
         then:
         noExceptionThrown()
     }
+
+    def "triggers result actions of independent commands in order"() {
+        def t = (ShipkitExecTask) project.tasks.create("t", ShipkitExecTask)
+        t.maxParallelCommands = 3
+        def completed = []
+        ["0.3", "0.1", "0.2"].each { delay ->
+            t.execCommands.add(ExecCommandFactory.independent(
+                execCommand("Sleeping " + delay, ["sleep", delay], { completed << delay } as Action)))
+        }
+        t.execCommands.add(execCommand("Last", ["echo", "last"], { completed << "last" } as Action))
+
+        when:
+        t.execute()
+
+        then:
+        completed == ["0.3", "0.1", "0.2", "last"]
+    }
 }
@@ -92,4 +92,19 @@ class ReleaseNeededTaskTest extends Specification {
         !task.releaseNeeded()
         !ReleaseNeeded.getReleaseNeededFile(task).exists()
     }
+
+    def "deletes stale comparison summaries when publications were not compared"() {
+        given:
+        task.setBranch('master')
+        task.setReleasableBranchRegex('master')
+        def summariesFile = ReleaseNeeded.getComparisonSummariesFile(task)
+        summariesFile.parentFile.mkdirs()
+        summariesFile << "[]"
+
+        when:
+        task.releaseNeeded()
+
+        then:
+        !summariesFile.exists()
+    }
 }
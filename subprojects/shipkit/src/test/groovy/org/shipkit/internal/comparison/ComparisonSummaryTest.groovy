@@ -0,0 +1,58 @@
+package org.shipkit.internal.comparison
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+import static org.shipkit.internal.comparison.ComparisonSummary.Status.CHANGED
+import static org.shipkit.internal.comparison.ComparisonSummary.Status.IDENTICAL
+
+class ComparisonSummaryTest extends Specification {
+
+    @Rule TemporaryFolder tmp = new TemporaryFolder()
+
+    def "writes and reads summary"() {
+        def summary = new ComparisonSummary(":api", CHANGED, true, 1, 2, 3, true, "abc", null, 15)
+        def file = tmp.newFile()
+
+        when:
+        summary.write(file)
+        def read = ComparisonSummary.read(file)
+
+        then:
+        read.project == ":api"
+        read.status == CHANGED
+        read.complete
+        read.addedFiles == 1
+        read.removedFiles == 2
+        read.changedFiles == 3
+        read.dependenciesChanged
+        read.previousHash == "abc"
+        read.currentHash == null
+        read.durationMillis == 15
+    }
+
+    def "describes summary"() {
+        expect:
+        new ComparisonSummary(":api", CHANGED, true, 1, 0, 2, false, null, null, 15).describe() ==
+            ":api - changed (1 added, 0 removed, 2 changed files) in 15 ms"
+        new ComparisonSummary(":api", CHANGED, false, 0, 0, 0, true, null, null, 3).describe() ==
+            ":api - changed (0 added, 0 removed, 0 changed files, dependencies changed, stopped at first difference) in 3 ms"
+        new ComparisonSummary(":impl", IDENTICAL, true, 0, 0, 0, false, null, null, 7).describe() ==
+            ":impl - identical in 7 ms"
+    }
+
+    def "writes summaries of all projects"() {
+        def file = tmp.newFile()
+
+        when:
+        ComparisonSummary.writeAll([
+            new ComparisonSummary(":api", CHANGED, true, 1, 0, 2, false, null, null, 15),
+            new ComparisonSummary(":impl", IDENTICAL, true, 0, 0, 0, false, null, null, 7)], file)
+
+        then:
+        def json = new groovy.json.JsonSlurper().parse(file)
+        json*.project == [":api", ":impl"]
+        json*.status == ["changed", "identical"]
+    }
+}
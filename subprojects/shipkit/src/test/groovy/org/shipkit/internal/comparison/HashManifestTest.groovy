@@ -0,0 +1,77 @@
+package org.shipkit.internal.comparison
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import org.shipkit.internal.comparison.bytecode.ClassFingerprint
+import spock.lang.Specification
+import testutil.ZipMaker
+
+import java.util.zip.ZipEntry
+import java.util.zip.ZipOutputStream
+
+class HashManifestTest extends Specification {
+
+    @Rule TemporaryFolder tmp = new TemporaryFolder()
+
+    def "creates manifest of zip entries"() {
+        def zip = new ZipMaker(tmp.newFolder()).newZip("1.txt", "abc", "x/2.txt", "")
+
+        when:
+        def entries = HashManifest.of(zip).entries
+
+        then:
+        entries.keySet() as List == ["1.txt", "x/2.txt"]
+        entries["1.txt"].size == 3
+        entries["1.txt"].sha256 == "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad"
+        entries["x/2.txt"].size == 0
+        entries["x/2.txt"].sha256 == "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855"
+    }
+
+    def "creates manifest of compiled classes"() {
+        def classFile = getClass().getResourceAsStream("/org/shipkit/internal/comparison/HashManifest.class").bytes
+        def jar = new File(tmp.root, "classes.jar")
+        new ZipOutputStream(new FileOutputStream(jar)).withCloseable { out ->
+            [["META-INF/MANIFEST.MF", "Created-By: test".bytes], ["x/", new byte[0]], ["x/A.class", classFile], ["x/a.txt", "abc".bytes]].each {
+                out.putNextEntry(new ZipEntry(it[0]))
+                out.write(it[1] as byte[])
+                out.closeEntry()
+            }
+        }
+
+        when:
+        def bytecode = HashManifest.ofClasses(jar, false).entries
+        def abi = HashManifest.ofClasses(jar, true).entries
+
+        then:
+        bytecode.keySet() as List == ["x/A.class", "x/a.txt"]
+        bytecode["x/A.class"].sha256 == ClassFingerprint.of(new ByteArrayInputStream(classFile), false).sha256
+        bytecode["x/a.txt"].sha256 == "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad"
+        abi.keySet() as List == ["x/A.class"]
+        abi["x/A.class"] != bytecode["x/A.class"]
+    }
+
+    def "writes and reads manifest"() {
+        def zip = new ZipMaker(tmp.newFolder()).newZip("1.txt", "abc", "dir with spaces/2.txt", "2")
+        def file = tmp.newFile()
+        def manifest = HashManifest.of(zip)
+
+        when:
+        manifest.write(file)
+
+        then:
+        file.text.readLines()[0] == "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad 3 1.txt"
+        HashManifest.read(file).entries == manifest.entries
+    }
+
+    def "fails on malformed manifest"() {
+        def file = tmp.newFile()
+        file << "abc 3\n"
+
+        when:
+        HashManifest.read(file)
+
+        then:
+        def e = thrown(IllegalArgumentException)
+        e.message.contains("abc 3")
+    }
+}
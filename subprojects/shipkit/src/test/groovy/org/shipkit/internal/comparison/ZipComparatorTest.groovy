@@ -6,6 +6,9 @@ import org.shipkit.internal.comparison.diff.DirectoryDiffGenerator
 import spock.lang.Specification
 import testutil.ZipMaker
 
+import java.util.zip.ZipEntry
+import java.util.zip.ZipFile
+
 class ZipComparatorTest extends Specification {
 
     @Rule TemporaryFolder tmp = new TemporaryFolder()
@@ -67,6 +70,135 @@ class ZipComparatorTest extends Specification {
         1 * directoryDiffGenerator.generateDiffOutput(["6.txt"], ["1.txt", "5.txt"], ["2.txt"])
     }
 
+    def "compares large zips in parallel"() {
+        given:
+        ZipMaker zip = new ZipMaker(tmp.newFolder())
+        def previousContent = (1..300).collectMany { ["${it}.txt", "content " + it] } as String[]
+        def currentContent = (1..300).collectMany { ["${it}.txt", it in [5, 250] ? "changed " + it : "content " + it] } as String[]
+        File zip1 = zip.newZip(previousContent)
+        File zip2 = zip.newZip(currentContent)
+        def directoryDiffGenerator = Mock(DirectoryDiffGenerator)
+        assert previousContent.length / 2 > ZipComparator.PARALLEL_THRESHOLD
+
+        when:
+        def diff = new ZipComparator(directoryDiffGenerator, 4).areEqual(zip1, zip2)
+
+        then:
+        !diff.areFilesEqual()
+        1 * directoryDiffGenerator.generateDiffOutput([], [], ["5.txt", "250.txt"])
+    }
+
+    def "compares small zips in parallel when threshold is lowered"() {
+        given:
+        ZipMaker zip = new ZipMaker(tmp.newFolder())
+        File zip1 = zip.newZip("1.txt", "1", "2.txt", "2", "3.txt", "3", "4.txt", "4", "5.txt", "5")
+        File zip2 = zip.newZip("1.txt", "1", "2.txt", "changed", "3.txt", "3", "4.txt", "changed", "5.txt", "5")
+        def directoryDiffGenerator = Mock(DirectoryDiffGenerator)
+
+        when:
+        def diff = new ZipComparator(directoryDiffGenerator, 4, 1).areEqual(zip1, zip2)
+
+        then:
+        !diff.areFilesEqual()
+        1 * directoryDiffGenerator.generateDiffOutput([], [], ["2.txt", "4.txt"])
+    }
+
+    def "finds any difference"() {
+        ZipMaker zip = new ZipMaker(tmp.newFolder())
+
+        File zip1 =             zip.newZip("1.txt", "1", "x/2.txt", "2")
+        File zip2 =             zip.newZip("1.txt", "1", "x/2.txt", "2")
+        File differentContent = zip.newZip("1.txt", "1", "x/2.txt", "XX")
+        File extraFile        = zip.newZip("1.txt", "1", "x/2.txt", "2", "x.txt", "")
+
+        def comparator = new ZipComparator(new DirectoryDiffGenerator(), parallelism, 1)
+
+        expect:
+        !comparator.anyDifference(zip1, zip2)
+        comparator.anyDifference(zip1, differentContent)
+        comparator.anyDifference(zip1, extraFile)
+
+        where:
+        parallelism << [1, 4]
+    }
+
+    def "does not decompress entries with different size or checksum"() {
+        def previousZip = Mock(ZipFile)
+        def currentZip = Mock(ZipFile)
+
+        when:
+        def equal = ZipComparator.entriesEqual(previousZip, entry(size1, crc1), currentZip, entry(size2, crc2))
+
+        then:
+        !equal
+        0 * previousZip.getInputStream(_)
+        0 * currentZip.getInputStream(_)
+
+        where:
+        size1 | crc1 | size2 | crc2
+        1     | 10   | 2     | 10
+        1     | 10   | 1     | 20
+        1     | 10   | 2     | 20
+    }
+
+    def "compares content when size and checksum are equal or unknown"() {
+        def previousZip = Mock(ZipFile)
+        def currentZip = Mock(ZipFile)
+
+        when:
+        def equal = ZipComparator.entriesEqual(previousZip, entry(size1, crc1), currentZip, entry(size2, crc2))
+
+        then:
+        equal
+        1 * previousZip.getInputStream(_) >> new ByteArrayInputStream("a".bytes)
+        1 * currentZip.getInputStream(_) >> new ByteArrayInputStream("a".bytes)
+
+        where:
+        size1 | crc1 | size2 | crc2
+        1     | 10   | 1     | 10
+        -1    | -1   | 1     | 10
+        1     | 10   | -1    | -1
+    }
+
+    def "detects different content of entries with the same size"() {
+        ZipMaker zip = new ZipMaker(tmp.newFolder())
+
+        File zip1 = zip.newZip("1.txt", "abc")
+        File zip2 = zip.newZip("1.txt", "abd")
+
+        expect:
+        !eq(zip1, zip2)
+    }
+
+    def "compares hash manifests"() {
+        given:
+        ZipMaker zip = new ZipMaker(tmp.newFolder())
+        def previous = HashManifest.of(zip.newZip("1.txt", "1", "2.txt", "2", "3.txt", "3", "META-INF/dependency-info.md", "a"))
+        def current = HashManifest.of(zip.newZip("2.txt", "changed", "3.txt", "3", "4.txt", "4", "META-INF/dependency-info.md", "b"))
+        def directoryDiffGenerator = Mock(DirectoryDiffGenerator)
+
+        when:
+        def diff = new ZipComparator(directoryDiffGenerator).areEqual(previous, current)
+
+        then:
+        !diff.areFilesEqual()
+        1 * directoryDiffGenerator.generateDiffOutput(["4.txt"], ["1.txt"], ["2.txt"])
+
+        and:
+        new ZipComparator().areEqual(previous, previous).areFilesEqual()
+    }
+
+    private static ZipEntry entry(long size, long crc) {
+        def entry = new ZipEntry("1.txt")
+        if (size != -1) {
+            entry.size = size
+        }
+        if (crc != -1) {
+            entry.crc = crc
+        }
+        entry
+    }
+
     private static boolean eq(File z1, File z2) {
         new ZipComparator().areEqual(z1, z2).areFilesEqual() &&
                 new ZipComparator().areEqual(z2, z1).areFilesEqual()
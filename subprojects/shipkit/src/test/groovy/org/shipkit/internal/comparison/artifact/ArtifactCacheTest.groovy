@@ -0,0 +1,167 @@
+package org.shipkit.internal.comparison.artifact
+
+import com.sun.net.httpserver.HttpExchange
+import com.sun.net.httpserver.HttpServer
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import org.shipkit.internal.util.HashUtil
+import spock.lang.Specification
+
+class ArtifactCacheTest extends Specification {
+
+    @Rule TemporaryFolder tmp = new TemporaryFolder()
+
+    HttpServer server
+    Map<String, String> content = [:]
+    List<String> requests = []
+    Set<String> withoutValidators = []
+
+    def setup() {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0)
+        server.createContext("/", { HttpExchange e -> handle(e) })
+        server.start()
+    }
+
+    def cleanup() {
+        server.stop(0)
+    }
+
+    def "downloads artifact and revalidates cached copy"() {
+        content["/a.jar"] = "abc"
+        content["/a.jar.sha1"] = sha1("abc") + "  a.jar"
+        def cache = new ArtifactCache(tmp.newFolder())
+        def target = new File(tmp.root, "target/a.jar")
+
+        when:
+        cache.download(url("/a.jar"), target)
+
+        then:
+        target.text == "abc"
+        requests == ["GET /a.jar", "GET /a.jar.sha1"]
+
+        when:
+        requests.clear()
+        target.delete()
+        cache.download(url("/a.jar"), target)
+
+        then:
+        target.text == "abc"
+        requests == ["GET /a.jar If-None-Match=\"etag-abc\""]
+    }
+
+    def "verifies md5 checksum when sha1 is not available"() {
+        content["/a.jar"] = "abc"
+        content["/a.jar.md5"] = "bad"
+        def target = new File(tmp.root, "a.jar")
+
+        when:
+        new ArtifactCache(tmp.newFolder()).download(url("/a.jar"), target)
+
+        then:
+        def e = thrown(RuntimeException)
+        e.cause.message.contains("MD5 checksum of downloaded")
+        !target.exists()
+    }
+
+    def "resumes partial download"() {
+        content["/a.jar"] = "abcdef"
+        def cacheDir = tmp.newFolder()
+        def dir = new File(cacheDir, HashUtil.sha256(url("/a.jar")))
+        dir.mkdirs()
+        new File(dir, "artifact.part") << "abc"
+        new File(dir, "metadata.properties") << "etag=\"etag-abcdef\"\n"
+        def target = new File(tmp.root, "a.jar")
+
+        when:
+        new ArtifactCache(cacheDir).download(url("/a.jar"), target)
+
+        then:
+        target.text == "abcdef"
+        requests[0] == "GET /a.jar Range=bytes=3-"
+        !new File(dir, "artifact.part").exists()
+    }
+
+    def "uses cached copy when server is not reachable"() {
+        content["/a.jar"] = "abc"
+        def cache = new ArtifactCache(tmp.newFolder())
+        def target = new File(tmp.root, "a.jar")
+        cache.download(url("/a.jar"), target)
+        def u = url("/a.jar")
+        server.stop(0)
+        target.delete()
+
+        when:
+        cache.download(u, target)
+
+        then:
+        target.text == "abc"
+    }
+
+    def "reuses cached release artifact when server sends no validators"() {
+        content["/a-1.0.jar"] = "abc"
+        content["/a-1.0-SNAPSHOT.jar"] = "abc"
+        withoutValidators.addAll(["/a-1.0.jar", "/a-1.0-SNAPSHOT.jar"])
+        def cache = new ArtifactCache(tmp.newFolder())
+        def target = new File(tmp.root, "a.jar")
+        cache.download(url("/a-1.0.jar"), target)
+        cache.download(url("/a-1.0-SNAPSHOT.jar"), target)
+
+        when:
+        requests.clear()
+        cache.download(url("/a-1.0.jar"), target)
+        cache.download(url("/a-1.0-SNAPSHOT.jar"), target)
+
+        then:
+        target.text == "abc"
+        requests == ["GET /a-1.0-SNAPSHOT.jar", "GET /a-1.0-SNAPSHOT.jar.sha1", "GET /a-1.0-SNAPSHOT.jar.md5"]
+    }
+
+    def "fails when artifact does not exist"() {
+        def target = new File(tmp.root, "a.jar")
+
+        when:
+        new ArtifactCache(tmp.newFolder()).download(url("/missing.jar"), target)
+
+        then:
+        def e = thrown(RuntimeException)
+        e.message.contains("missing.jar")
+        !new File(target.path + ".tmp").exists()
+    }
+
+    private String url(String path) {
+        "http://localhost:${server.address.port}$path"
+    }
+
+    private static String sha1(String text) {
+        HashUtil.hash(new ByteArrayInputStream(text.bytes), "SHA-1")
+    }
+
+    private void handle(HttpExchange e) {
+        def path = e.requestURI.path
+        def headers = ["If-None-Match", "Range"].findAll { e.requestHeaders.getFirst(it) }
+            .collect { " $it=${e.requestHeaders.getFirst(it)}" }.join("")
+        requests << "${e.requestMethod} $path$headers".toString()
+
+        def body = content[path]
+        def etag = "\"etag-$body\""
+        if (body == null) {
+            e.sendResponseHeaders(404, -1)
+        } else if (e.requestHeaders.getFirst("If-None-Match") == etag) {
+            e.sendResponseHeaders(304, -1)
+        } else {
+            if (!withoutValidators.contains(path)) {
+                e.responseHeaders.add("ETag", etag)
+            }
+            def bytes = body.bytes
+            def range = e.requestHeaders.getFirst("Range")
+            if (range && e.requestHeaders.getFirst("If-Range") == etag) {
+                bytes = bytes[(range.find(/\d+/) as int)..<bytes.length] as byte[]
+                e.sendResponseHeaders(206, bytes.length)
+            } else {
+                e.sendResponseHeaders(200, bytes.length)
+            }
+            e.responseBody.write(bytes)
+        }
+        e.close()
+    }
+}
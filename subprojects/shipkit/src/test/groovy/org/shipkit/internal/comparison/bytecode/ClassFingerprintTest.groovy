@@ -0,0 +1,94 @@
+package org.shipkit.internal.comparison.bytecode
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+import javax.tools.ToolProvider
+
+class ClassFingerprintTest extends Specification {
+
+    @Rule TemporaryFolder tmp = new TemporaryFolder()
+
+    static final String SOURCE = """
+        public class Foo implements Runnable {
+            public static final String NAME = "foo";
+            private int x;
+            public int compute(int y) {
+                Runnable r = () -> System.out.println("hello" + y);
+                r.run();
+                switch (y) { case 1: return 2; case 100: return 3; default: return x + y; }
+            }
+            public void run() { System.out.println(NAME); }
+            private void helper() {}
+        }
+        """
+
+    def "ignores debug information and order of members"() {
+        def reordered = SOURCE
+            .replace("public void run() { System.out.println(NAME); }", "")
+            .replace("private int x;", "private int x; public void run() { System.out.println(NAME); }")
+
+        expect:
+        fingerprint(compile(SOURCE, "-g"), false) == fingerprint(compile(reordered, "-g:none"), false)
+        fingerprint(compile(SOURCE, "-g"), true) == fingerprint(compile(reordered, "-g:none"), true)
+    }
+
+    def "method body is not part of ABI"() {
+        def changedBody = SOURCE.replace("return 3;", "return 4;")
+
+        expect:
+        fingerprint(compile(SOURCE), false) != fingerprint(compile(changedBody), false)
+        fingerprint(compile(SOURCE), true) == fingerprint(compile(changedBody), true)
+    }
+
+    def "private members are not part of ABI"() {
+        def changedPrivate = SOURCE.replace("private void helper() {}", "private void helper() {} private void helper2() {}")
+
+        expect:
+        fingerprint(compile(SOURCE), false) != fingerprint(compile(changedPrivate), false)
+        fingerprint(compile(SOURCE), true) == fingerprint(compile(changedPrivate), true)
+    }
+
+    def "detects changes of ABI"() {
+        expect:
+        fingerprint(compile(SOURCE), true) != fingerprint(compile(SOURCE.replace(change[0], change[1])), true)
+
+        where:
+        change << [
+            ["public void run() {", "public void extra() {} public void run() {"],
+            ["public int compute(int y)", "public int compute(int y, int z)"],
+            ["\"foo\"", "\"bar\""],
+            ["public class Foo", "@Deprecated public class Foo"]
+        ]
+    }
+
+    def "classes that are not public have no ABI"() {
+        def bytes = compile(SOURCE.replace("public class Foo", "class Foo"))
+
+        expect:
+        ClassFingerprint.of(new ByteArrayInputStream(bytes), true) == null
+        ClassFingerprint.of(new ByteArrayInputStream(bytes), false) != null
+    }
+
+    def "fails on content that is not a class file"() {
+        when:
+        ClassFingerprint.of(new ByteArrayInputStream("abc".bytes), false)
+
+        then:
+        thrown(IOException)
+    }
+
+    private byte[] compile(String source, String... options) {
+        def dir = tmp.newFolder()
+        def file = new File(dir, "Foo.java")
+        file.text = source
+        def args = (options as List) + ["-d", dir.absolutePath, file.absolutePath]
+        assert ToolProvider.systemJavaCompiler.run(null, null, null, args as String[]) == 0
+        new File(dir, "Foo.class").bytes
+    }
+
+    private static String fingerprint(byte[] classFile, boolean abiOnly) {
+        ClassFingerprint.of(new ByteArrayInputStream(classFile), abiOnly).sha256
+    }
+}
@@ -47,4 +47,42 @@ ff
         then:
         result == ""
     }
+
+    def "reports line numbers of differences after common prefix"() {
+        def common = (1..100).join("\n")
+
+        when:
+        def result = new FileDiffGenerator().generateDiff((common + "\nx\nend").denormalize(), (common + "\ny\nend").denormalize())
+
+        then:
+        result ==
+"""    @@ -101,1 +101,1 @@
+    -x
+    +y""".denormalize()
+    }
+
+    def "generates summary when files differ too much"() {
+        when:
+        def result = new FileDiffGenerator(3).generateDiff("a\nb\nc\nd\ne".denormalize(), "a\nx\ny\nd\ne".denormalize())
+
+        then:
+        result ==
+"""    Files differ in more than 3 lines, diff is not generated.
+    Previous file has 5 lines, current file has 5 lines, first difference is at line 2.""".denormalize()
+    }
+
+    def "checks edit distance within budget"() {
+        expect:
+        FileDiffGenerator.isEditDistanceWithin(a as int[], 0, a.size(), b as int[], 0, b.size(), max) == within
+
+        where:
+        a            | b            | max | within
+        []           | []           | 0   | true
+        [1, 2, 3]    | [1, 2, 3]    | 0   | true
+        [1, 2, 3]    | [1, 3]       | 1   | true
+        [1, 2, 3]    | [1, 4, 3]    | 1   | false
+        [1, 2, 3]    | [1, 4, 3]    | 2   | true
+        [1, 2, 3, 4] | [4, 3, 2, 1] | 5   | false
+        [1, 2, 3, 4] | [4, 3, 2, 1] | 6   | true
+    }
 }
@@ -63,6 +63,29 @@ class DefaultProcessRunnerTest extends Specification {
         log.lifecycle("ls [SECRET] xx [SECRET] yy")
     }
 
+    def "stores masked output in log file"() {
+        File dir = tmp.newFolder()
+        def log = new File(dir, "logs/out.txt")
+
+        when:
+        def out = new DefaultProcessRunner(dir, log).setSecretValue("foobar").run("echo", "a foobar b")
+
+        then:
+        out == "a [SECRET] b\n"
+        log.text == "a [SECRET] b\n"
+    }
+
+    def "runs process without keeping the output"() {
+        File dir = tmp.newFolder()
+        def log = new File(dir, "out.txt")
+
+        when:
+        new DefaultProcessRunner(dir, log).setSecretValue("foobar").runWithoutOutput(["echo", "a foobar b"])
+
+        then:
+        log.text == "a [SECRET] b\n"
+    }
+
     def "ignores null secrets"() {
         when:
         new DefaultProcessRunner(tmp.root).setSecretValue(null).run("ls")
@@ -70,4 +93,30 @@ class DefaultProcessRunnerTest extends Specification {
         then:
         noExceptionThrown()
     }
+
+    def "records executed processes with masked command line"() {
+        File dir = tmp.newFolder()
+        ProcessMetrics.instance.reset()
+
+        when:
+        new DefaultProcessRunner(dir).setSecretValue("foobar").run("echo", "a foobar")
+
+        then:
+        def executions = ProcessMetrics.instance.reset()
+        executions.size() == 1
+        executions[0].commandLine == "echo a [SECRET]"
+        executions[0].exitCode == 0
+        executions[0].outputBytes == "a foobar\n".length()
+    }
+
+    def "writes input and passes environment to the process"() {
+        File dir = tmp.newFolder()
+
+        when:
+        def out = new DefaultProcessRunner(dir).setSecretValue("foobar")
+            .run(["sh", "-c", 'cat; echo "$GREETING"'], "a foobar\n", [GREETING: "hello"])
+
+        then:
+        out == "a [SECRET]\nhello\n"
+    }
 }
@@ -15,4 +15,25 @@ class ExternalProcessStreamTest extends Specification {
         output.toString() == """[./gradlew] hey
 [./gradlew] buddy"""
     }
+
+    def "writing bytes in bulk produces the same output as writing them one by one"() {
+        def bytes = "first\n\nsecond\nthird".bytes
+        def expected = new ByteArrayOutputStream()
+        def single = new ExternalProcessStream("[x] ", new PrintStream(expected))
+        bytes.each { single.write(it) }
+
+        def s = new ExternalProcessStream("[x] ", new PrintStream(output))
+
+        when:
+        s.write(bytes, 0, 3)
+        s.write(bytes, 3, 5)
+        s.write(bytes, 8, bytes.length - 8)
+
+        then:
+        output.toString() == expected.toString()
+        output.toString() == """[x] first
+[x] 
+[x] second
+[x] third"""
+    }
 }
@@ -0,0 +1,84 @@
+package org.shipkit.internal.exec
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.IgnoreIf
+import spock.lang.Specification
+
+import static TestUtil.commandAvailable
+
+@IgnoreIf({ !commandAvailable("git --version") })
+class GitCatFileSessionTest extends Specification {
+
+    @Rule TemporaryFolder tmp = new TemporaryFolder()
+
+    def session
+    def runner
+
+    void setup() {
+        runner = new DefaultProcessRunner(tmp.root)
+        runner.run("git", "init")
+        runner.run("git", "config", "user.email", "dev@shipkit.org")
+        runner.run("git", "config", "user.name", "Dev")
+        tmp.newFile("a.txt") << "hello\n"
+        runner.run("git", "add", "a.txt")
+        runner.run("git", "commit", "-m", "first")
+        runner.run("git", "tag", "-a", "v1.0.0", "-m", "release")
+        session = new GitCatFileSession(tmp.root)
+    }
+
+    void cleanup() {
+        session.close()
+    }
+
+    def "reads objects"() {
+        when:
+        def commit = session.read("v1.0.0^{commit}")
+        def blob = session.read("HEAD:a.txt")
+
+        then:
+        commit.id == runner.run("git", "rev-parse", "HEAD").trim()
+        commit.type == "commit"
+        commit.text.contains("\n\nfirst\n")
+        blob.type == "blob"
+        blob.text == "hello\n"
+    }
+
+    def "returns null for unknown revision"() {
+        expect:
+        session.read("v2.0.0") == null
+        session.read("HEAD~5") == null
+        session.read("HEAD").id == runner.run("git", "rev-parse", "HEAD").trim()
+    }
+
+    def "can be used after closing"() {
+        session.read("HEAD")
+
+        when:
+        session.close()
+
+        then:
+        session.read("HEAD").id == runner.run("git", "rev-parse", "HEAD").trim()
+    }
+
+    def "idle check runs only while git process is running"() {
+        def running = GitCatFileSession.runningProcesses
+
+        when:
+        session.read("HEAD")
+
+        then:
+        GitCatFileSession.runningProcesses == running + 1
+
+        when:
+        session.close()
+
+        then:
+        GitCatFileSession.runningProcesses == running
+    }
+
+    def "shares session for the same work tree"() {
+        expect:
+        GitCatFileSession.forWorkDir(tmp.root).is(GitCatFileSession.forWorkDir(new File(tmp.root, ".")))
+    }
+}
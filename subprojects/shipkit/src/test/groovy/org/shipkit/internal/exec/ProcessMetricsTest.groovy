@@ -0,0 +1,63 @@
+package org.shipkit.internal.exec
+
+import groovy.json.JsonSlurper
+import spock.lang.Specification
+
+class ProcessMetricsTest extends Specification {
+
+    def metrics = new ProcessMetrics()
+
+    def "groups processes by command"() {
+        expect:
+        new ProcessMetrics.ProcessExecution(commandLine, 0, 0, 0, 0, Thread.currentThread()).command == command
+
+        where:
+        commandLine                         | command
+        "git push origin master"            | "git push"
+        "/usr/bin/git --no-pager log -1"    | "git log"
+        "./gradlew -q build"                | "gradlew build"
+        "git --version"                     | "git"
+        "git -c core.quotepath=off diff v1" | "git diff"
+        "git -C /repo --git-dir .git log"   | "git log"
+        "./gradlew -x test -p api build"    | "gradlew build"
+    }
+
+    def "formats report"() {
+        metrics.record("git push origin master", 1000, 3000000000, 0, 100)
+        metrics.record("git log -1", 1000, 5000000, 0, 20)
+        metrics.record("git log -2", 1000, 7000000, 128, 30)
+
+        when:
+        def report = ProcessMetrics.formatReport(metrics.reset())
+
+        then:
+        report == """Executed 3 external processes in 3012 ms (concurrent processes are counted separately), 150 bytes of output
+Time spent per command:
+    3000 ms     1x         100 bytes  git push
+      12 ms     2x          50 bytes  git log
+Slowest processes:
+    3000 ms  exit 0           100 bytes  git push origin master
+       7 ms  exit 128          30 bytes  git log -2
+       5 ms  exit 0            20 bytes  git log -1
+""".replace("\n", System.lineSeparator())
+        metrics.reset().empty
+    }
+
+    def "formats chrome trace"() {
+        metrics.record("git commit -m \"quoted\"", 1500, 2000000, 0, 10)
+
+        when:
+        def trace = new JsonSlurper().parseText(ProcessMetrics.formatChromeTrace(metrics.reset()))
+
+        then:
+        trace.traceEvents.size() == 2
+        trace.traceEvents[0].name == "git commit"
+        trace.traceEvents[0].ph == "X"
+        trace.traceEvents[0].ts == 1500000
+        trace.traceEvents[0].dur == 2000
+        trace.traceEvents[0].tid == Thread.currentThread().id
+        trace.traceEvents[0].args.commandLine == "git commit -m \"quoted\""
+        trace.traceEvents[1].ph == "M"
+        trace.traceEvents[1].args.name == Thread.currentThread().name
+    }
+}
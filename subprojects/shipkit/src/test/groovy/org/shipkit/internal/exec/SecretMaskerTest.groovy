@@ -0,0 +1,47 @@
+package org.shipkit.internal.exec
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class SecretMaskerTest extends Specification {
+
+    def masker = new SecretMasker(["abc", "abcdef", "xyz", null, ""])
+
+    @Unroll
+    def "masks '#text'"() {
+        expect:
+        masker.mask(text) == result
+
+        where:
+        text              | result
+        ""                | ""
+        "no secrets"      | "no secrets"
+        "1abc2xyz3"       | "1[SECRET]2[SECRET]3"
+        "abcdef"          | "[SECRET]"
+        "abcde"           | "[SECRET]de"
+        "xyxyz"           | "xy[SECRET]"
+    }
+
+    def "does not change text when there are no secrets"() {
+        expect:
+        new SecretMasker([null, ""]).mask("abc") == "abc"
+    }
+
+    def "masks secrets split across writes"() {
+        def out = new StringWriter()
+        def writer = masker.maskingWriter(out)
+
+        when:
+        "1ab|cdef2x|y|z3a".split("\\|").each { writer.write(it) }
+        writer.flush()
+
+        then: "text that could be the beginning of a secret is held back"
+        out.toString() == "1[SECRET]2"
+
+        when:
+        writer.close()
+
+        then:
+        out.toString() == "1[SECRET]2[SECRET]3a"
+    }
+}
@@ -58,4 +58,18 @@ Please inspect the command output prefixed with '[git]' the build log."""
         ExecCommandFactory.defaultPrefix(["git"]) == "[git] "
         ExecCommandFactory.defaultPrefix(["git", "status"]) == "[status] "
     }
+
+    def "creates independent copy of command"() {
+        def command = ExecCommandFactory.execCommand("Saying hi", ["echo", "hi"])
+
+        when:
+        def independent = ExecCommandFactory.independent(command)
+
+        then:
+        !command.independent
+        independent.independent
+        independent.commandLine == ["echo", "hi"]
+        independent.loggingPrefix == command.loggingPrefix
+        independent.resultAction == command.resultAction
+    }
 }
@@ -0,0 +1,30 @@
+package org.shipkit.internal.gradle.exec
+
+import org.gradle.api.Action
+import org.gradle.testfixtures.ProjectBuilder
+import org.shipkit.gradle.exec.ExecCommand
+import org.shipkit.internal.exec.ProcessMetrics
+import spock.lang.IgnoreIf
+import spock.lang.Specification
+
+import static org.shipkit.internal.exec.TestUtil.commandAvailable
+
+@IgnoreIf({ !commandAvailable("echo") })
+class ShipkitExecTest extends Specification {
+
+    def project = new ProjectBuilder().build()
+
+    def "records executed processes with masked command line"() {
+        ProcessMetrics.instance.reset()
+        def command = new ExecCommand("[echo] ", "Echo", ["echo", "a foobar"], { spec -> } as Action, { result -> } as Action)
+
+        when:
+        new ShipkitExec().setSecretValues(["foobar"]).execCommands([command], project, null)
+
+        then:
+        def executions = ProcessMetrics.instance.reset()
+        executions.size() == 1
+        executions[0].commandLine == "echo a [SECRET]"
+        executions[0].exitCode == 0
+    }
+}
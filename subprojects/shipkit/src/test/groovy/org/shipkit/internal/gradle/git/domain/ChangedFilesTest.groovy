@@ -0,0 +1,61 @@
+package org.shipkit.internal.gradle.git.domain
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+class ChangedFilesTest extends Specification {
+
+    @Rule TemporaryFolder tmp = new TemporaryFolder()
+
+    def "finds changes in given directories"() {
+        def root = tmp.root.canonicalFile
+        def changed = new ChangedFiles("v1.0.0", [new File(root, "api/src/main/java/Foo.java"), new File(root, "README.md")])
+
+        expect:
+        changed.isAnyChangedIn([new File(root, "api/src/main/java")])
+        changed.isAnyChangedIn([new File(root, "README.md")])
+        !changed.isAnyChangedIn([new File(root, "impl/src/main/java"), new File(root, "api/src/main/resources")])
+        !changed.isAnyChangedIn([new File(root, "api/src/main/jav")])
+        !changed.isBuildLogicChanged(root)
+    }
+
+    def "detects changes in build logic"() {
+        def root = tmp.root.canonicalFile
+
+        expect:
+        new ChangedFiles("v1.0.0", [new File(root, path)]).isBuildLogicChanged(root) == buildLogic
+
+        where:
+        path                                 | buildLogic
+        "build.gradle"                       | true
+        "api/build.gradle.kts"               | true
+        "gradle.properties"                  | true
+        "gradle/shipkit.gradle"              | true
+        "gradle/wrapper/gradle-wrapper.jar"  | true
+        "buildSrc/src/main/java/Plugin.java" | true
+        "api/src/main/java/Foo.java"         | false
+        "docs/gradle/index.md"               | false
+    }
+
+    def "writes and reads changed files"() {
+        def root = tmp.root.canonicalFile
+        def file = new File(root, "build/changed-files.txt")
+        new ChangedFiles("v1.0.0", [new File(root, "a b.txt"), new File(root, "src/Foo.java")]).write(file)
+
+        when:
+        def changed = ChangedFiles.read(file)
+
+        then:
+        changed.revision == "v1.0.0"
+        changed.files == [new File(root, "a b.txt"), new File(root, "src/Foo.java")]
+    }
+
+    def "changes are not known when file is missing or empty"() {
+        def empty = tmp.newFile()
+
+        expect:
+        ChangedFiles.read(new File(tmp.root, "missing.txt")) == null
+        ChangedFiles.read(empty) == null
+    }
+}
@@ -30,4 +30,58 @@ class CloneGitRepositoryTaskTest extends PluginSpecification {
         expect:
         task.getCloneCommand() == ["git", "clone", "--depth", "50", "url", tempFolder.getAbsolutePath()]
     }
+
+    def "clone from mirror"() {
+        task.repositoryUrl = "https://github.com/mockito/shipkit"
+        task.targetDir = tempFolder
+        def mirror = new File("mirror.git")
+
+        expect:
+        task.getCloneCommand(mirror) == ["git", "clone", mirror.absolutePath, tempFolder.absolutePath]
+    }
+
+    def "shallow clone from mirror"() {
+        task.repositoryUrl = "https://github.com/mockito/shipkit"
+        task.targetDir = tempFolder
+        task.depth = 50
+        def mirror = new File("mirror.git")
+
+        expect:
+        task.getCloneCommand(mirror) == ["git", "clone", "--depth", "50", mirror.toPath().toUri().toString(), tempFolder.absolutePath]
+    }
+
+    def "fetch updates of existing clone"() {
+        task.repositoryUrl = "https://github.com/mockito/shipkit"
+        task.targetDir = tempFolder
+        def mirror = new File("mirror.git")
+
+        expect:
+        task.getFetchCommand(null) == ["git", "fetch", "--prune", "origin", "+refs/heads/*:refs/remotes/origin/*", "+refs/tags/*:refs/tags/*"]
+        task.getFetchCommand(mirror) == ["git", "fetch", "--prune", mirror.absolutePath, "+refs/heads/*:refs/remotes/origin/*", "+refs/tags/*:refs/tags/*"]
+    }
+
+    def "partial sparse clone"() {
+        task.repositoryUrl = "url"
+        task.targetDir = tempFolder
+        task.partialClone = true
+        task.sparseCheckoutPaths = ["docs/lib/current", "docs/lib/1.0.0"]
+
+        expect:
+        task.getCloneCommand() == ["git", "clone", "--filter=blob:none", "--sparse", "url", tempFolder.getAbsolutePath()]
+        task.getSparseCheckoutCommand() == ["git", "sparse-checkout", "set", "docs/lib/current", "docs/lib/1.0.0"]
+    }
+
+    def "does not update mirror when target is not a clone of the repository"() {
+        task.repositoryUrl = "https://github.com/mockito/shipkit"
+        task.targetDir = tempFolder
+        task.mirrorCacheDir = new File(tmp.root, "mirrors")
+        new File(tempFolder, "some-file.txt") << "content"
+
+        when:
+        task.cloneRepository()
+
+        then:
+        !task.mirrorCacheDir.exists()
+        tempFolder.list() == ["some-file.txt"] as String[]
+    }
 }
@@ -0,0 +1,59 @@
+package org.shipkit.internal.gradle.git.tasks
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import org.shipkit.internal.exec.DefaultProcessRunner
+import spock.lang.IgnoreIf
+import spock.lang.Specification
+
+import static org.shipkit.internal.exec.TestUtil.commandAvailable
+
+@IgnoreIf({ !commandAvailable("git --version") })
+class GitMirrorCacheTest extends Specification {
+
+    @Rule TemporaryFolder tmp = new TemporaryFolder()
+
+    def remote
+    def remoteRunner
+    def cache
+
+    void setup() {
+        remote = tmp.newFolder("remote")
+        remoteRunner = new DefaultProcessRunner(remote)
+        remoteRunner.run("git", "init")
+        remoteRunner.run("git", "config", "user.email", "dev@shipkit.org")
+        remoteRunner.run("git", "config", "user.name", "Dev")
+        new File(remote, "a.txt") << "a"
+        remoteRunner.run("git", "add", "a.txt")
+        remoteRunner.run("git", "commit", "-m", "first")
+        cache = new GitMirrorCache(tmp.newFolder("cache"))
+    }
+
+    def "creates mirror and fetches new commits"() {
+        when:
+        def mirror = cache.update(remote.absolutePath)
+
+        then:
+        mirrorRef(mirror, "HEAD") == remoteRunner.run("git", "rev-parse", "HEAD").trim()
+
+        when:
+        new File(remote, "a.txt") << "b"
+        remoteRunner.run("git", "commit", "-am", "second")
+        remoteRunner.run("git", "tag", "v1.0.0")
+
+        then:
+        cache.update(remote.absolutePath) == mirror
+        mirrorRef(mirror, "HEAD") == remoteRunner.run("git", "rev-parse", "HEAD").trim()
+        mirrorRef(mirror, "v1.0.0") == remoteRunner.run("git", "rev-parse", "v1.0.0").trim()
+    }
+
+    def "mirror directory is based on the url"() {
+        expect:
+        cache.getMirrorDir("https://github.com/mockito/shipkit-example.git").name ==~ /shipkit-example-[0-9a-f]{12}\.git/
+        cache.getMirrorDir("https://github.com/mockito/shipkit") != cache.getMirrorDir("https://github.com/other/shipkit")
+    }
+
+    private static String mirrorRef(File mirror, String ref) {
+        new DefaultProcessRunner(mirror).run("git", "rev-parse", ref).trim()
+    }
+}
@@ -0,0 +1,99 @@
+package org.shipkit.internal.gradle.git.tasks
+
+import org.gradle.api.GradleException
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import org.shipkit.internal.exec.DefaultProcessRunner
+import spock.lang.IgnoreIf
+import spock.lang.Specification
+
+import static org.shipkit.internal.exec.TestUtil.commandAvailable
+
+@IgnoreIf({ !commandAvailable("git --version") })
+class GitPlumbingCommitTest extends Specification {
+
+    @Rule TemporaryFolder tmp = new TemporaryFolder()
+
+    def runner
+
+    void setup() {
+        runner = new DefaultProcessRunner(tmp.root)
+        runner.run("git", "init")
+        runner.run("git", "config", "user.email", "dev@shipkit.org")
+        runner.run("git", "config", "user.name", "Dev")
+        tmp.newFolder("docs")
+        tmp.newFile("docs/a.html") << "a"
+        tmp.newFile("docs/b.html") << "b"
+        tmp.newFile("other.txt") << "other"
+        runner.run("git", "add", ".")
+        runner.run("git", "commit", "-m", "first")
+    }
+
+    def "commits added, changed and removed files"() {
+        def parent = runner.run("git", "rev-parse", "HEAD").trim()
+        new File(tmp.root, "docs/a.html") << "changed"
+        new File(tmp.root, "docs/b.html").delete()
+        tmp.newFile("docs/c.html") << "c"
+        new File(tmp.root, "other.txt") << "not committed"
+
+        when:
+        def commit = new GitPlumbingCommit(tmp.root).commit([new File(tmp.root, "docs")], "Joe", "joe@shipkit.org", "update docs")
+
+        then:
+        runner.run("git", "rev-parse", "HEAD").trim() == commit
+        runner.run("git", "log", "-1", "--format=%P|%an <%ae>|%B").trim() == parent + "|Joe <joe@shipkit.org>|update docs"
+        runner.run("git", "ls-tree", "-r", "--name-only", "HEAD").trim() == "docs/a.html\ndocs/c.html\nother.txt"
+        runner.run("git", "status", "--porcelain").trim() == "M other.txt"
+    }
+
+    def "fails when files are not changed"() {
+        when:
+        new GitPlumbingCommit(tmp.root).commit([new File(tmp.root, "docs")], "Joe", "joe@shipkit.org", "update docs")
+
+        then:
+        def e = thrown(GradleException)
+        e.message.startsWith("Nothing to commit")
+    }
+
+    def "cleans up commit message like git commit"() {
+        expect:
+        GitPlumbingCommit.cleanupMessage(message) == cleaned
+
+        where:
+        message                 | cleaned
+        "msg"                   | "msg\n"
+        "\n msg  \n\n\nbody \n" | " msg\n\nbody\n"
+        ""                      | ""
+    }
+
+    def "does not remove files outside of sparse checkout"() {
+        tmp.newFolder("docs", "old")
+        tmp.newFile("docs/old/d.html") << "d"
+        runner.run("git", "add", ".")
+        runner.run("git", "commit", "-m", "old docs")
+        runner.run("git", "sparse-checkout", "set", "--no-cone", "/docs/a.html", "/docs/b.html", "/other.txt")
+        new File(tmp.root, "docs/a.html") << "changed"
+
+        when:
+        new GitPlumbingCommit(tmp.root).commit([new File(tmp.root, "docs")], "Joe", "joe@shipkit.org", "update docs")
+
+        then:
+        !new File(tmp.root, "docs/old/d.html").exists()
+        runner.run("git", "ls-tree", "-r", "--name-only", "HEAD").trim() == "docs/a.html\ndocs/b.html\ndocs/old/d.html\nother.txt"
+    }
+
+    def "creates root commit"() {
+        def dir = tmp.newFolder("root")
+        def rootRunner = new DefaultProcessRunner(dir)
+        rootRunner.run("git", "init")
+        rootRunner.run("git", "config", "user.email", "dev@shipkit.org")
+        rootRunner.run("git", "config", "user.name", "Dev")
+        new File(dir, "a.html") << "a"
+
+        when:
+        def commit = new GitPlumbingCommit(dir).commit([new File(dir, "a.html")], "Joe", "joe@shipkit.org", "first")
+
+        then:
+        rootRunner.run("git", "log", "--format=%H|%P|%s").trim() == commit + "||first"
+    }
+}
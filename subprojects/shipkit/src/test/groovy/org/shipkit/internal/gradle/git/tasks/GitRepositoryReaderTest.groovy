@@ -0,0 +1,107 @@
+package org.shipkit.internal.gradle.git.tasks
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+class GitRepositoryReaderTest extends Specification {
+
+    @Rule TemporaryFolder tmp = new TemporaryFolder()
+
+    File gitDir
+
+    void setup() {
+        gitDir = tmp.newFolder("repo", ".git")
+        write("repo/.git/HEAD", "ref: refs/heads/feature/x\n")
+        write("repo/.git/refs/heads/feature/x", "a" * 40 + "\n")
+        write("repo/.git/packed-refs", "# pack-refs with: peeled fully-peeled sorted\n" +
+            "b" * 40 + " refs/tags/v1.0.0\n" +
+            "^" + "c" * 40 + "\n" +
+            "d" * 40 + " refs/heads/master\n")
+        write("repo/.git/config", """[core]
+\tbare = false
+[remote "origin"]
+\turl = https://github.com/mockito/shipkit.git
+\tfetch = +refs/heads/*:refs/remotes/origin/*
+[remote "short"]
+\turl = "gh:mockito/mockito.git" ; comment
+[url "git@github.com:"]
+\tinsteadOf = gh:
+""")
+    }
+
+    def "reads branch, refs and remotes"() {
+        def reader = GitRepositoryReader.find(new File(tmp.root, "repo/some/subdir"))
+
+        expect:
+        reader.currentBranch == "feature/x"
+        reader.resolveRef("HEAD") == "a" * 40
+        reader.resolveRef("refs/tags/v1.0.0") == "b" * 40
+        reader.resolveRef("refs/heads/master") == "d" * 40
+        reader.resolveRef("refs/tags/v2.0.0") == null
+        reader.getRemoteUrl("origin", []) == "https://github.com/mockito/shipkit.git"
+        reader.getRemoteUrl("short", []) == "git@github.com:mockito/mockito.git"
+        reader.getRemoteUrl("upstream", []) == null
+    }
+
+    def "reads detached HEAD"() {
+        write("repo/.git/HEAD", "e" * 40 + "\n")
+        def reader = GitRepositoryReader.find(new File(tmp.root, "repo"))
+
+        expect:
+        reader.currentBranch == "HEAD"
+        reader.resolveRef("HEAD") == "e" * 40
+    }
+
+    def "reads work tree"() {
+        write("wt/.git", "gitdir: ../repo/.git/worktrees/wt\n")
+        write("repo/.git/worktrees/wt/HEAD", "ref: refs/heads/master\n")
+        write("repo/.git/worktrees/wt/commondir", "../..\n")
+        def reader = GitRepositoryReader.find(new File(tmp.root, "wt"))
+
+        expect:
+        reader.currentBranch == "master"
+        reader.resolveRef("HEAD") == "d" * 40
+        reader.getRemoteUrl("origin", []) == "https://github.com/mockito/shipkit.git"
+    }
+
+    def "does not read remotes when config includes other files"() {
+        new File(gitDir, "config") << "[include]\n\tpath = other.config\n"
+
+        expect:
+        GitRepositoryReader.find(new File(tmp.root, "repo")).getRemoteUrl("origin", []) == null
+    }
+
+    def "applies url rewrites from global config"() {
+        write("repo/.git/config", """[remote "origin"]
+\turl = gh:mockito/shipkit.git
+[remote "other"]
+\turl = other:mockito/shipkit.git
+""")
+        write("home/.gitconfig", """[url "https://github.com/"]
+\tinsteadOf = gh:
+""")
+        def reader = GitRepositoryReader.find(new File(tmp.root, "repo"))
+
+        expect:
+        reader.getRemoteUrl("origin", [new File(tmp.root, "home/.gitconfig")]) == "https://github.com/mockito/shipkit.git"
+        //the rewrite can come from config that is not known to the reader, e.g. system config in other location
+        reader.getRemoteUrl("other", [new File(tmp.root, "home/.gitconfig")]) == null
+        reader.getRemoteUrl("origin", null) == null
+    }
+
+    def "finds global config files"() {
+        expect:
+        GitRepositoryReader.getGlobalConfigFiles([HOME: "/home/joe"]) ==
+            [new File("/home/joe/.config/git/config"), new File("/home/joe/.gitconfig"), new File("/etc/gitconfig")]
+        GitRepositoryReader.getGlobalConfigFiles([HOME: "/home/joe", XDG_CONFIG_HOME: "/xdg", GIT_CONFIG_NOSYSTEM: "1"]) ==
+            [new File("/xdg/git/config"), new File("/home/joe/.gitconfig")]
+        GitRepositoryReader.getGlobalConfigFiles([HOME: "/home/joe", GIT_CONFIG_GLOBAL: "/other"]) == null
+    }
+
+    private void write(String path, String content) {
+        def f = new File(tmp.root, path)
+        f.parentFile.mkdirs()
+        f.text = content
+    }
+}
@@ -0,0 +1,32 @@
+package org.shipkit.internal.gradle.git.tasks
+
+import spock.lang.Specification
+
+class GitVersionTest extends Specification {
+
+    def "parses git version"() {
+        expect:
+        GitVersion.parse(output) == version as int[]
+
+        where:
+        output                                   | version
+        "git version 2.39.5\n"                   | [2, 39]
+        "git version 2.24.3 (Apple Git-128)"     | [2, 24]
+        "git version 2.37.1.windows.1"           | [2, 37]
+        "command not found"                      | [0, 0]
+    }
+
+    def "compares versions"() {
+        expect:
+        GitVersion.isAtLeast(version as int[], 2, 26) == atLeast
+
+        where:
+        version  | atLeast
+        [2, 26]  | true
+        [2, 39]  | true
+        [3, 0]   | true
+        [2, 25]  | false
+        [1, 99]  | false
+        [0, 0]   | false
+    }
+}
@@ -0,0 +1,74 @@
+package org.shipkit.internal.gradle.git.tasks
+
+import org.gradle.api.GradleException
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import org.shipkit.internal.exec.DefaultProcessRunner
+import org.shipkit.internal.exec.ProcessRunner
+import spock.lang.IgnoreIf
+import spock.lang.Specification
+
+import static org.shipkit.internal.exec.TestUtil.commandAvailable
+
+class IdentifyChangedFilesTest extends Specification {
+
+    @Rule TemporaryFolder tmp = new TemporaryFolder()
+
+    def runner = Mock(ProcessRunner)
+    def underTest = new IdentifyChangedFiles(runner)
+
+    def "identifies changed and untracked files"() {
+        runner.run("git", "rev-parse", "--show-toplevel") >> "/repo\n"
+        runner.run(["git", "-c", "core.quotepath=off", "diff", "--name-only", "--no-renames", "v1.0.0"]) >> "api/Foo.java\nREADME.md\n"
+        runner.run(["git", "-c", "core.quotepath=off", "ls-files", "--others", "--exclude-standard", "--full-name"]) >> "api/Bar.java\n"
+
+        when:
+        def changed = underTest.identifyChangedFiles("v1.0.0")
+
+        then:
+        changed.revision == "v1.0.0"
+        changed.files == [new File("/repo/api/Foo.java"), new File("/repo/README.md"), new File("/repo/api/Bar.java")]
+    }
+
+    def "no changed files"() {
+        runner.run("git", "rev-parse", "--show-toplevel") >> "/repo\n"
+        runner.run(_ as List) >> ""
+
+        expect:
+        underTest.identifyChangedFiles("v1.0.0").files.empty
+    }
+
+    def "changes are not known when revision is not available"() {
+        runner.run("git", "rev-parse", "--verify", "--quiet", "v1.0.0^{commit}") >> { throw new GradleException("exit code 1") }
+
+        expect:
+        underTest.identifyChangedFiles("v1.0.0") == null
+    }
+
+    def "changes are not known when revision is not configured"() {
+        expect:
+        underTest.identifyChangedFiles(null) == null
+        0 * runner._
+    }
+
+    @IgnoreIf({ !commandAvailable("git --version") })
+    def "identifies moved files and untracked files when running in a subdirectory"() {
+        def git = new DefaultProcessRunner(tmp.root)
+        git.run("git", "init")
+        git.run("git", "config", "user.email", "dev@shipkit.org")
+        git.run("git", "config", "user.name", "Dev")
+        tmp.newFolder("a")
+        tmp.newFolder("b")
+        tmp.newFile("a/F.java") << "f"
+        git.run("git", "add", ".")
+        git.run("git", "commit", "-m", "first")
+        git.run("git", "mv", "a/F.java", "b/F.java")
+        tmp.newFile("b/G.java") << "g"
+
+        when:
+        def changed = new IdentifyChangedFiles(new DefaultProcessRunner(new File(tmp.root, "b"))).identifyChangedFiles("HEAD")
+
+        then:
+        changed.files*.canonicalFile as Set == ["a/F.java", "b/F.java", "b/G.java"].collect { new File(tmp.root, it).canonicalFile } as Set
+    }
+}
@@ -1,14 +1,18 @@
 package org.shipkit.internal.gradle.java
 
 import com.jfrog.bintray.gradle.BintrayExtension
+import org.gradle.api.tasks.CacheableTask
 import org.gradle.testfixtures.ProjectBuilder
 import org.shipkit.gradle.configuration.ShipkitConfiguration
 import org.shipkit.gradle.java.ComparePublicationsTask
 import org.shipkit.gradle.java.DownloadPreviousPublicationsTask
+import org.shipkit.internal.comparison.HashManifest
 import org.shipkit.internal.gradle.bintray.ShipkitBintrayPlugin
 import org.shipkit.internal.gradle.configuration.ShipkitConfigurationPlugin
 import org.shipkit.internal.gradle.java.tasks.CreateDependencyInfoFileTask
+import org.shipkit.internal.util.HashUtil
 import testutil.PluginSpecification
+import testutil.ZipMaker
 
 class ComparePublicationsPluginTest extends PluginSpecification {
 
@@ -78,6 +82,65 @@ class ComparePublicationsPluginTest extends PluginSpecification {
         comparisonTask.previousSourcesJar == expectedSourcesJar
     }
 
+    def "uses content hashes of jars as inputs of cacheable comparison task"() {
+        given:
+        project.plugins.apply(ComparePublicationsPlugin)
+        project.evaluate()
+        ComparePublicationsTask task = project.tasks[ComparePublicationsPlugin.COMPARE_PUBLICATIONS_TASK]
+
+        def jar = task.sourcesJar.archivePath
+        def zip = new ZipMaker(tmp.newFolder()).newZip("A.java", "class A {}", "META-INF/dependency-info.md", "deps")
+        jar.parentFile.mkdirs()
+        jar.bytes = zip.bytes
+
+        expect:
+        ComparePublicationsTask.isAnnotationPresent(CacheableTask)
+        task.sourcesJarContentHash == HashManifest.of(zip).sha256
+        task.dependencyInfoContentHash == HashUtil.sha256("deps")
+        task.previousSourcesJarContentHash == null
+        task.previousSourcesHashesContentHash == null
+    }
+
+    def "computes content hash of previous sources jar once"() {
+        given:
+        project.plugins.apply(ComparePublicationsPlugin)
+        project.evaluate()
+        ComparePublicationsTask task = project.tasks[ComparePublicationsPlugin.COMPARE_PUBLICATIONS_TASK]
+
+        def zip = new ZipMaker(tmp.newFolder()).newZip("A.java", "class A {}")
+        task.previousSourcesJar.parentFile.mkdirs()
+        task.previousSourcesJar.bytes = zip.bytes
+
+        when:
+        def hash = task.previousSourcesJarContentHash
+
+        then:
+        hash == HashManifest.of(zip).sha256
+        task.previousSourcesJarContentHash.is(hash)
+    }
+
+    def "compares compiled classes only when configured"() {
+        given:
+        conf.previousReleaseVersion = "1.0.0"
+        project.plugins.apply(ComparePublicationsPlugin)
+        project.evaluate()
+        ComparePublicationsTask task = project.tasks[ComparePublicationsPlugin.COMPARE_PUBLICATIONS_TASK]
+        def jar = project.tasks["jar"]
+
+        expect:
+        task.comparisonMode == ComparePublicationsTask.ComparisonMode.SOURCES
+        task.binaryJar == jar
+        task.previousBinaryJar == new File(project.buildDir, "previous-release-artifacts/${project.name}-1.0.0.jar")
+        task.binaryJarContentHash == null
+        !task.taskDependencies.getDependencies(task).contains(jar)
+
+        when:
+        task.comparisonMode = ComparePublicationsTask.ComparisonMode.ABI
+
+        then:
+        task.taskDependencies.getDependencies(task).contains(jar)
+    }
+
     def "failures to download artifact are ignored"() {
         given:
         project.plugins.apply(ComparePublicationsPlugin)
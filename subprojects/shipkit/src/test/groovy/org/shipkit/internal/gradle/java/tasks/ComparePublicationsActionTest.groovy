@@ -0,0 +1,59 @@
+package org.shipkit.internal.gradle.java.tasks
+
+import org.gradle.api.tasks.bundling.Jar
+import org.shipkit.gradle.java.ComparePublicationsTask
+import org.shipkit.internal.comparison.ComparisonSummary
+import testutil.PluginSpecification
+import testutil.ZipMaker
+
+class ComparePublicationsActionTest extends PluginSpecification {
+
+    ComparePublicationsTask task
+    File currentJar
+
+    def setup() {
+        def sourcesJar = project.tasks.create("sourcesJar", Jar) {
+            destinationDir = tmp.newFolder("libs")
+            baseName = "lib"
+            classifier = "sources"
+        }
+        currentJar = sourcesJar.archivePath
+        task = project.tasks.create("comparePublications", ComparePublicationsTask) {
+            comparisonResult = new File(tmp.root, "result.txt")
+            comparisonSummary = new File(tmp.root, "result.json")
+            previousSourcesJar = new File(tmp.root, "previous-sources.jar")
+        }
+        task.compareSourcesJar(sourcesJar)
+    }
+
+    def "writes results of the comparison"() {
+        def zip = new ZipMaker(tmp.newFolder())
+        task.previousSourcesJar.bytes = zip.newZip("A.java", "class A {}", "B.java", "class B {}").bytes
+        currentJar.bytes = zip.newZip("A.java", "class A { int a; }", "C.java", "class C {}").bytes
+
+        when:
+        new ComparePublicationsAction(new ComparePublicationsParameters(task)).run()
+
+        then:
+        task.comparisonResult.text.contains("A.java")
+        def summary = ComparisonSummary.read(task.comparisonSummary)
+        summary.status == ComparisonSummary.Status.CHANGED
+        summary.addedFiles == 1
+        summary.removedFiles == 1
+        summary.changedFiles == 1
+    }
+
+    def "writes empty result when publications are identical"() {
+        def zip = new ZipMaker(tmp.newFolder())
+        task.previousSourcesJar.bytes = zip.newZip("A.java", "class A {}").bytes
+        currentJar.bytes = zip.newZip("A.java", "class A {}").bytes
+        task.anyChange = true
+
+        when:
+        new ComparePublicationsAction(new ComparePublicationsParameters(task)).run()
+
+        then:
+        task.comparisonResult.text.isEmpty()
+        ComparisonSummary.read(task.comparisonSummary).status == ComparisonSummary.Status.IDENTICAL
+    }
+}
@@ -0,0 +1,44 @@
+package org.shipkit.internal.gradle.java.tasks
+
+import org.gradle.api.tasks.bundling.Jar
+import org.shipkit.gradle.java.ComparePublicationsTask
+import testutil.PluginSpecification
+
+import java.util.concurrent.atomic.AtomicBoolean
+
+class ComparePublicationsParametersTest extends PluginSpecification {
+
+    def "captures task configuration in serializable form"() {
+        def sourcesJar = project.tasks.create("sourcesJar", Jar) {
+            destinationDir = tmp.root
+            baseName = "lib"
+            classifier = "sources"
+        }
+        def task = project.tasks.create("comparePublications", ComparePublicationsTask) {
+            comparisonResult = new File(tmp.root, "result.txt")
+            previousSourcesJar = new File(tmp.root, "previous-sources.jar")
+            previousSourcesJarUrl = "http://repo/previous-sources.jar"
+            comparisonMode = ComparePublicationsTask.ComparisonMode.ABI
+            anyChange = true
+            differenceFound = new AtomicBoolean(true)
+        }
+        task.compareSourcesJar(sourcesJar)
+
+        when:
+        def bytes = new ByteArrayOutputStream()
+        new ObjectOutputStream(bytes).writeObject(new ComparePublicationsParameters(task))
+        def params = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject() as ComparePublicationsParameters
+
+        then:
+        params.path == ":comparePublications"
+        params.projectPath == ":"
+        params.comparisonResult == new File(tmp.root, "result.txt")
+        params.comparisonSummary == null
+        params.sourcesJar == sourcesJar.archivePath
+        params.binaryJar == null
+        params.previousSourcesJarUrl == "http://repo/previous-sources.jar"
+        params.comparisonMode == ComparePublicationsTask.ComparisonMode.ABI
+        params.anyChange
+        params.differenceAlreadyFound
+    }
+}
@@ -53,7 +53,7 @@ class CreateDependencyInfoFileTest extends PluginSpecification {
         }
 
         when:
-        createDependencyInfoFile.createDependencyInfoFile(createDependencyInfoFileTask)
+        createDependencyInfoFile.writeDependencyInfoFile(output, createDependencyInfoFile.getDependencies(createDependencyInfoFileTask))
 
         then:
         output.text == "# Description\r\n" +
@@ -0,0 +1,20 @@
+package org.shipkit.internal.gradle.java.tasks
+
+import spock.lang.Specification
+
+class DownloadAllPreviousPublicationsTest extends Specification {
+
+    def "formats report with timings of downloads"() {
+        def downloads = [
+            new ArtifactDownload("http://repo/a-sources-hashes.txt", new File("a.txt"), true, 120),
+            new ArtifactDownload("http://repo/b-sources.jar", new File("b.jar"), false, 35)
+        ]
+
+        expect:
+        DownloadAllPreviousPublications.formatReport(downloads, 130).readLines() == [
+            "     120 ms  ok       http://repo/a-sources-hashes.txt",
+            "      35 ms  missing  http://repo/b-sources.jar",
+            "Downloaded 2 artifacts in 130 ms (155 ms if downloaded sequentially)"
+        ]
+    }
+}
@@ -0,0 +1,39 @@
+package org.shipkit.internal.gradle.javadoc
+
+import org.gradle.jvm.tasks.Jar
+import org.shipkit.internal.gradle.git.tasks.CloneGitRepositoryTask
+import testutil.PluginSpecification
+
+class JavadocPluginTest extends PluginSpecification {
+
+    def "checks out released Javadoc directories when clone runs before Javadoc is staged"() {
+        project.tasks.create("javadocJar", Jar) { baseName = "shipkit" }
+        conf.javadoc.repositoryDirectory = "./docs/"
+
+        when:
+        project.plugins.apply(JavadocPlugin)
+
+        then:
+        def stageDir = new File(project.buildDir, "javadoc-stage")
+        !stageDir.exists()
+        CloneGitRepositoryTask clone = project.tasks.cloneJavadocRepo
+        clone.sparseCheckoutPaths == ["docs/shipkit/1.5.23", "docs/shipkit/current"]
+        project.tasks.copyJavadocStageToRepoDir.stagedDirectories == ["shipkit/1.5.23", "shipkit/current"]
+        clone.mustRunAfter.getDependencies(clone) == [project.tasks.refreshVersionJavadoc, project.tasks.refreshCurrentJavadoc] as Set
+    }
+
+    def "computes Javadoc repository directories"() {
+        def stageDir = new File(tmp.root, "stage")
+
+        expect:
+        def staged = JavadocPlugin.getStagedDirs(stageDir, [new File(stageDir, "lib/current"), new File(stageDir, "lib/1.0")])
+        staged == ["lib/1.0", "lib/current"]
+        JavadocPlugin.getJavadocRepoDirs(staged, directory) == dirs
+
+        where:
+        directory | dirs
+        null      | ["lib/1.0", "lib/current"]
+        "."       | ["lib/1.0", "lib/current"]
+        "docs/"   | ["docs/lib/1.0", "docs/lib/current"]
+    }
+}
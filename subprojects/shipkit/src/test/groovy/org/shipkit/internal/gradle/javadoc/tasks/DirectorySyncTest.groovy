@@ -0,0 +1,55 @@
+package org.shipkit.internal.gradle.javadoc.tasks
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+class DirectorySyncTest extends Specification {
+
+    @Rule TemporaryFolder tmp = new TemporaryFolder()
+
+    def sync = new DirectorySync()
+
+    def "writes only changed files and removes stale ones"() {
+        def source = tmp.newFolder("source")
+        def target = tmp.newFolder("target")
+        write(source, "org/Foo.html", "foo")
+        write(source, "index.html", "new index")
+        write(target, "org/Foo.html", "foo").setLastModified(1000000000000L)
+        write(target, "index.html", "old index")
+        write(target, "org/old/Removed.html", "removed")
+
+        when:
+        sync.sync(source, target)
+
+        then:
+        new File(target, "org/Foo.html").lastModified() == 1000000000000L
+        new File(target, "index.html").text == "new index"
+        !new File(target, "org/old").exists()
+
+        sync.written == 1
+        sync.removed == 1
+        sync.unchanged == 1
+    }
+
+    def "creates missing target directory"() {
+        def source = tmp.newFolder("source")
+        write(source, "org/Foo.html", "foo")
+        def target = new File(tmp.root, "repo/shipkit/current")
+
+        when:
+        sync.sync(source, target)
+
+        then:
+        new File(target, "org/Foo.html").text == "foo"
+        sync.written == 1
+        sync.removed == 0
+    }
+
+    private static File write(File dir, String path, String content) {
+        def f = new File(dir, path)
+        f.parentFile.mkdirs()
+        f.text = content
+        f
+    }
+}
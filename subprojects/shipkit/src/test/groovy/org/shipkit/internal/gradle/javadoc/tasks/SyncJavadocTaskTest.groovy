@@ -0,0 +1,38 @@
+package org.shipkit.internal.gradle.javadoc.tasks
+
+import org.gradle.testfixtures.ProjectBuilder
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+class SyncJavadocTaskTest extends Specification {
+
+    @Rule TemporaryFolder tmp = new TemporaryFolder()
+
+    def task = new ProjectBuilder().build().tasks.create("syncJavadoc", SyncJavadocTask)
+
+    def "copies only directories staged by this build"() {
+        def stage = tmp.newFolder("stage")
+        def repo = tmp.newFolder("repo")
+        write(stage, "shipkit/current/index.html", "current")
+        write(stage, "shipkit/0.9.0/index.html", "left by earlier build")
+        task.stageDir = stage
+        task.repositoryDir = repo
+        task.stagedDirectories = ["shipkit/current", "api/current"]
+
+        when:
+        task.sync()
+
+        then:
+        new File(repo, "shipkit/current/index.html").text == "current"
+        !new File(repo, "shipkit/0.9.0").exists()
+        !new File(repo, "api").exists()
+    }
+
+    private static File write(File dir, String path, String content) {
+        def f = new File(dir, path)
+        f.parentFile.mkdirs()
+        f.text = content
+        f
+    }
+}
@@ -1,5 +1,8 @@
 package org.shipkit.internal.gradle.release
 
+import org.shipkit.internal.exec.Exec
+import org.shipkit.internal.gradle.java.ComparePublicationsPlugin
+import org.shipkit.internal.gradle.java.JavaLibraryPlugin
 import testutil.PluginSpecification
 
 class ReleaseNeededPluginTest extends PluginSpecification {
@@ -8,4 +11,121 @@ class ReleaseNeededPluginTest extends PluginSpecification {
         expect:
         project.plugins.apply("org.shipkit.release-needed")
     }
+
+    def "downloads previous publications of all projects before checking if release is needed"() {
+        when:
+        project.plugins.apply(ComparePublicationsPlugin)
+        project.plugins.apply(ReleaseNeededPlugin)
+
+        then:
+        def downloadAll = project.tasks[ReleaseNeededPlugin.DOWNLOAD_ALL_PUBLICATIONS_TASK]
+        def download = project.tasks[ComparePublicationsPlugin.DOWNLOAD_PUBLICATIONS_TASK]
+        downloadAll.downloadTasks == [download]
+        download.mustRunAfter.getDependencies(download) == [downloadAll] as Set
+        project.tasks[ReleaseNeededPlugin.RELEASE_NEEDED].dependsOn.contains(downloadAll)
+    }
+
+    def "comparison of publications shares information about found differences"() {
+        when:
+        project.plugins.apply(ComparePublicationsPlugin)
+        project.plugins.apply(ReleaseNeededPlugin)
+
+        then:
+        def compare = project.tasks[ComparePublicationsPlugin.COMPARE_PUBLICATIONS_TASK]
+        compare.differenceFound != null
+        !compare.differenceFound.get()
+        !compare.anyChange
+    }
+
+    def "publications of projects without changes since previous release are not downloaded nor compared"() {
+        project.plugins.apply(ComparePublicationsPlugin)
+        project.plugins.apply(ReleaseNeededPlugin)
+        conf.previousReleaseVersion = "1.0.0"
+        conf.git.tagPrefix = "v"
+        commitAndTag("v1.0.0")
+        project.evaluate()
+
+        when:
+        project.tasks[ReleaseNeededPlugin.IDENTIFY_CHANGED_FILES_TASK].execute()
+
+        then:
+        def identify = project.tasks[ReleaseNeededPlugin.IDENTIFY_CHANGED_FILES_TASK]
+        def compare = project.tasks[ComparePublicationsPlugin.COMPARE_PUBLICATIONS_TASK]
+        def download = project.tasks[ComparePublicationsPlugin.DOWNLOAD_PUBLICATIONS_TASK]
+        compare.unchangedSincePreviousRelease
+        download.unchangedSincePreviousRelease
+        !download.onlyIf.isSatisfiedBy(download)
+        compare.dependsOn.contains(identify)
+        download.dependsOn.contains(identify)
+        project.tasks[ReleaseNeededPlugin.RELEASE_NEEDED].dependsOn.contains(identify)
+    }
+
+    def "sources jar and dependency info are built even if project did not change"() {
+        project.plugins.apply(ComparePublicationsPlugin)
+        project.plugins.apply(ReleaseNeededPlugin)
+        conf.previousReleaseVersion = "1.0.0"
+        conf.git.tagPrefix = "v"
+        commitAndTag("v1.0.0")
+        project.evaluate()
+
+        when:
+        project.tasks[ReleaseNeededPlugin.IDENTIFY_CHANGED_FILES_TASK].execute()
+
+        then:
+        project.tasks[ComparePublicationsPlugin.COMPARE_PUBLICATIONS_TASK].unchangedSincePreviousRelease
+        def sourcesJar = project.tasks[JavaLibraryPlugin.SOURCES_JAR_TASK]
+        def dependencyInfo = project.tasks[ComparePublicationsPlugin.DEPENDENCY_INFO_TASK]
+        sourcesJar.onlyIf.isSatisfiedBy(sourcesJar)
+        dependencyInfo.onlyIf.isSatisfiedBy(dependencyInfo)
+    }
+
+    def "changes are not known before changed files are identified"() {
+        project.plugins.apply(ComparePublicationsPlugin)
+        project.plugins.apply(ReleaseNeededPlugin)
+        project.evaluate()
+
+        expect:
+        !project.tasks[ComparePublicationsPlugin.COMPARE_PUBLICATIONS_TASK].unchangedSincePreviousRelease
+        !project.tasks[ComparePublicationsPlugin.DOWNLOAD_PUBLICATIONS_TASK].unchangedSincePreviousRelease
+    }
+
+    def "publications of projects with changed sources are compared"() {
+        project.plugins.apply(ComparePublicationsPlugin)
+        project.plugins.apply(ReleaseNeededPlugin)
+        conf.previousReleaseVersion = "1.0.0"
+        conf.git.tagPrefix = "v"
+        commitAndTag("v1.0.0")
+        project.file("src/main/java/Foo.java") << "class Foo {}"
+        project.evaluate()
+
+        when:
+        project.tasks[ReleaseNeededPlugin.IDENTIFY_CHANGED_FILES_TASK].execute()
+
+        then:
+        !project.tasks[ComparePublicationsPlugin.COMPARE_PUBLICATIONS_TASK].unchangedSincePreviousRelease
+        !project.tasks[ComparePublicationsPlugin.DOWNLOAD_PUBLICATIONS_TASK].unchangedSincePreviousRelease
+    }
+
+    def "publications are compared when previous release tag is not available"() {
+        project.plugins.apply(ComparePublicationsPlugin)
+        project.plugins.apply(ReleaseNeededPlugin)
+        conf.previousReleaseVersion = "1.0.0"
+        conf.git.tagPrefix = "v"
+        commitAndTag("v0.9.0")
+        project.evaluate()
+
+        when:
+        project.tasks[ReleaseNeededPlugin.IDENTIFY_CHANGED_FILES_TASK].execute()
+
+        then:
+        !project.tasks[ComparePublicationsPlugin.COMPARE_PUBLICATIONS_TASK].unchangedSincePreviousRelease
+    }
+
+    private void commitAndTag(String tag) {
+        def git = Exec.getProcessRunner(tmp.root)
+        git.run("git", "init")
+        git.run("git", "add", ".")
+        git.run("git", "-c", "user.name=Test", "-c", "user.email=test@test.com", "commit", "-m", "initial")
+        git.run("git", "tag", tag)
+    }
 }
@@ -2,6 +2,7 @@ package org.shipkit.internal.gradle.release.tasks
 
 import org.junit.Rule
 import org.junit.rules.TemporaryFolder
+import org.shipkit.internal.comparison.ComparisonSummary
 import spock.lang.Specification
 
 class ComparisonResultsTest extends Specification {
@@ -34,4 +35,43 @@ class ComparisonResultsTest extends Specification {
         new ComparisonResults([empty]).areResultsIdentical()
         !new ComparisonResults([new File("does not exist")]).areResultsIdentical()
     }
+
+    def "stops at the first changed result"() {
+        def notChecked = Mock(File)
+
+        when:
+        def identical = new ComparisonResults([diff, notChecked]).areResultsIdentical()
+
+        then:
+        !identical
+        0 * notChecked._
+    }
+
+    def "uses summaries to decide if results are identical"() {
+        def identical = summary(ComparisonSummary.Status.IDENTICAL)
+        def changed = summary(ComparisonSummary.Status.CHANGED)
+        def skipped = summary(ComparisonSummary.Status.SKIPPED)
+
+        expect:
+        new ComparisonResults([diff], [identical]).areResultsIdentical()
+        !new ComparisonResults([empty], [identical, changed]).areResultsIdentical()
+        !new ComparisonResults([empty], [skipped]).areResultsIdentical()
+        !new ComparisonResults([diff], [new File("does not exist")]).areResultsIdentical()
+    }
+
+    def "describes summaries"() {
+        def results = new ComparisonResults([empty], [summary(ComparisonSummary.Status.IDENTICAL)])
+
+        expect:
+        results.summaries*.project == [":api"]
+        results.description ==
+            "\n  Compared 1 publication(s). No changes since previous release!\n" +
+            "\n  Summary:\n   - :api - identical in 5 ms\n"
+    }
+
+    private File summary(ComparisonSummary.Status status) {
+        def file = tmp.newFile()
+        new ComparisonSummary(":api", status, true, 0, 0, 0, false, null, null, 5).write(file)
+        file
+    }
 }
@@ -1,5 +1,6 @@
 package org.shipkit.internal.gradle.util
 
+import org.gradle.api.Action
 import org.junit.Rule
 import org.junit.rules.TemporaryFolder
 import org.shipkit.internal.notes.header.HeaderProvider
@@ -26,4 +27,27 @@ class FileUtilTest extends Specification {
         expect:
         f.text == "foo"
     }
+
+    def "streams content to the top"() {
+        def f = tmp.newFile()
+        f.text = headerProvider.getHeader("header") + "old"
+        FileUtil.appendToTop(f, { Writer w -> w.write("new ") } as Action<Writer>)
+
+        expect:
+        f.text == "new old"
+        !new File(f.path + ".tmp").exists()
+    }
+
+    def "keeps the file when streaming fails"() {
+        def f = tmp.newFile()
+        f.text = "old"
+
+        when:
+        FileUtil.appendToTop(f, { Writer w -> w.write("new"); throw new RuntimeException("boom") } as Action<Writer>)
+
+        then:
+        thrown(RuntimeException)
+        f.text == "old"
+        !new File(f.path + ".tmp").exists()
+    }
 }
@@ -29,6 +29,16 @@ class ZipUtilTest extends Specification {
         ZipUtil.extractEntries(ZipUtil.openZipFile(file)) == ["1.txt", "2.txt"] as Set
     }
 
+    def "extractEntriesByName works correctly"() {
+        when:
+        def entries = ZipUtil.extractEntriesByName(ZipUtil.openZipFile(file))
+
+        then:
+        entries.keySet() as List == ["1.txt", "2.txt"]
+        entries["1.txt"].size == 1
+        entries["1.txt"].crc != entries["2.txt"].crc
+    }
+
     def "readEntryContent works correctly"() {
         expect:
         ZipUtil.readEntryContent(file, "1.txt") == "1"
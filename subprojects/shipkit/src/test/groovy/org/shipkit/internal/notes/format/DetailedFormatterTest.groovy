@@ -108,6 +108,86 @@ Release notes:
  - Small tweak [(#108)](http://issues/108)"""
     }
 
+    def "formats improvements when many labels map to the same section"() {
+        def i = [new DefaultImprovement(100, "Fixed problem", "http://issues/100", ["bug"], true),
+                 new DefaultImprovement(101, "New feature", "http://issues/101", ["enhancement"], true),
+                 new DefaultImprovement(102, "Fixed defect", "http://issues/102", ["defect"], true)]
+
+        def labelMapping = [bug: "Bugfixes", enhancement: "Enhancements", defect: "Bugfixes"]
+
+        expect:
+        //improvements are grouped by the section, sections follow the order of the label mapping
+        DetailedFormatter.formatImprovements(i, labelMapping) == """ - [Bugfixes] Fixed problem [(#100)](http://issues/100)
+ - [Bugfixes] Fixed defect [(#102)](http://issues/102)
+ - [Enhancements] New feature [(#101)](http://issues/101)"""
+    }
+
+    def "streams release notes to writer"() {
+        def c = Stub(ContributionSet) {
+            getAllCommits() >> [Stub(Commit)]
+            getAuthorCount() >> 1
+            getContributions() >> [c("Szczepan Faber", 1)]
+        }
+        def i = [new DefaultImprovement(100, "Fixed issue", "http://issues/100", ["bug"], true)]
+        def d1 = new DefaultReleaseNotesData("2.0.0", new Date(1483500000000), c, i, "v1.9.0", "v2.0.0")
+        def d2 = new DefaultReleaseNotesData("1.9.0", new Date(1483100000000), Stub(ContributionSet), [], "v1.8.0", "v1.9.0")
+        def writer = new StringWriter()
+
+        when:
+        detaliedFormatter.formatReleaseNotes([d1, d2], writer)
+
+        then:
+        writer.toString() == detaliedFormatter.formatReleaseNotes([d1, d2])
+        writer.toString() == """Info about shipkit
+
+Release notes:
+
+#### 2.0.0
+ - 2017-01-04 - [1 commit](http://commits/v1.9.0...v2.0.0) by Szczepan Faber - published to [![Bintray](https://img.shields.io/badge/Bintray-2.0.0-green.svg)](Bintray/2.0.0)
+ - [Bugfixes] Fixed issue [(#100)](http://issues/100)
+
+#### 1.9.0
+ - 2016-12-30 - no code changes (no commits) - published to [![Bintray](https://img.shields.io/badge/Bintray-1.9.0-green.svg)](Bintray/1.9.0)"""
+    }
+
+    def "reuses cached releases"() {
+        def cache = Mock(FormattedNotesCache)
+        def formatter = new DetailedFormatter("", "", [:], "http://commits/{0}...{1}", "Bintray/", [:], false, badgeFormatter, cache)
+        def d1 = new DefaultReleaseNotesData("2.0.0", new Date(1483500000000), Stub(ContributionSet), [], "v1.9.0", "v2.0.0")
+        def d2 = new DefaultReleaseNotesData("1.9.0", new Date(1483100000000), Stub(ContributionSet), [], "v1.8.0", "v1.9.0")
+
+        when:
+        def notes = formatter.formatReleaseNotes([d1, d2])
+
+        then:
+        1 * cache.get(formatter.cacheKey(d1)) >> null
+        1 * cache.put(formatter.cacheKey(d1), """#### 2.0.0
+ - 2017-01-04 - no code changes (no commits) - published to [![Bintray](https://img.shields.io/badge/Bintray-2.0.0-green.svg)](Bintray/2.0.0)
+
+""")
+        1 * cache.get(formatter.cacheKey(d2)) >> "#### 1.9.0\n - cached\n"
+        0 * cache.put(formatter.cacheKey(d2), _)
+
+        notes == """#### 2.0.0
+ - 2017-01-04 - no code changes (no commits) - published to [![Bintray](https://img.shields.io/badge/Bintray-2.0.0-green.svg)](Bintray/2.0.0)
+
+#### 1.9.0
+ - cached"""
+    }
+
+    def "cache key depends on formatter settings"() {
+        def d = new DefaultReleaseNotesData("2.0.0", new Date(1483500000000), Stub(ContributionSet), [], "v1.9.0", "v2.0.0")
+        def f1 = new DetailedFormatter("", "", [bug: "Bugfixes"], "link", "Bintray/", [:], false, badgeFormatter)
+        def f2 = new DetailedFormatter("other header", "", [bug: "Bugfixes"], "link", "Bintray/", [:], false, badgeFormatter)
+        def f3 = new DetailedFormatter("", "", [bug: "Fixes"], "link", "Bintray/", [:], false, badgeFormatter)
+        def f4 = new DetailedFormatter("", "", [bug: "Bugfixes"], "link", "Bintray/", [:], true, badgeFormatter)
+
+        expect:
+        f1.cacheKey(d) == f2.cacheKey(d)
+        f1.cacheKey(d) != f3.cacheKey(d)
+        f1.cacheKey(d) != f4.cacheKey(d)
+    }
+
     def "release headline with no commits"() {
         expect:
         DetailedFormatter.authorsSummary(Stub(ContributionSet), [:], "link") == "no code changes (no commits)"
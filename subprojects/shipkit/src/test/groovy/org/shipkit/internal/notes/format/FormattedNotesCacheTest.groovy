@@ -0,0 +1,30 @@
+package org.shipkit.internal.notes.format
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+class FormattedNotesCacheTest extends Specification {
+
+    @Rule TemporaryFolder tmp = new TemporaryFolder()
+
+    def "returns null when section is not cached"() {
+        def cache = new FormattedNotesCache(new File(tmp.root, "cache"))
+
+        expect:
+        cache.get("abc") == null
+    }
+
+    def "stores and reads sections"() {
+        def cache = new FormattedNotesCache(new File(tmp.root, "cache"))
+
+        when:
+        cache.put("abc", "#### 1.0.0\n - notes\n")
+        cache.put("def", "#### 2.0.0\n")
+
+        then:
+        cache.get("abc") == "#### 1.0.0\n - notes\n"
+        cache.get("def") == "#### 2.0.0\n"
+        new File(tmp.root, "cache").list().sort() == ["abc.md", "def.md"]
+    }
+}
@@ -0,0 +1,40 @@
+package org.shipkit.internal.notes.format
+
+import spock.lang.Specification
+
+class TrimmingAppendableTest extends Specification {
+
+    def "trims streamed content like String.trim()"() {
+        def sb = new StringBuilder()
+        def out = new TrimmingAppendable(sb)
+
+        when:
+        chunks.each { out.append(it) }
+        out.finish()
+
+        then:
+        sb.toString() == chunks.join("").trim()
+
+        where:
+        chunks << [
+            [],
+            ["  \n "],
+            ["foo"],
+            [" \n foo", " bar \n"],
+            ["\n", " foo", "\n\n", "bar", " ", "\n"],
+            ["a", "\t", "b"]
+        ]
+    }
+
+    def "trims appended chars and subsequences"() {
+        def sb = new StringBuilder()
+        def out = new TrimmingAppendable(sb)
+
+        when:
+        out.append(' ' as char).append('x' as char).append("__ y \n__", 2, 6).append('\n' as char)
+        out.finish()
+
+        then:
+        sb.toString() == "x y"
+    }
+}
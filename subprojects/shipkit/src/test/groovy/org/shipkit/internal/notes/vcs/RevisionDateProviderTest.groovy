@@ -1,6 +1,7 @@
 package org.shipkit.internal.notes.vcs
 
 import org.gradle.api.GradleException
+import org.shipkit.internal.exec.GitCatFileSession
 import org.shipkit.internal.exec.ProcessRunner
 import org.shipkit.internal.util.DateUtil
 import spock.lang.Specification
@@ -21,6 +22,32 @@ class RevisionDateProviderTest extends Specification {
         DateUtil.formatDate(provider.getDate("v3.0.0")) == "2017-04-11"
     }
 
+    def "reads revision date from commit object"() {
+        def objects = Mock(GitCatFileSession)
+        objects.read("v1.0.0^{commit}") >> new GitCatFileSession.GitObject("a" * 40, "commit",
+            ("tree " + "b" * 40 + "\n" +
+            "author John Doe <john@doe.com> 1485706449 -0800\n" +
+            "committer John Doe <john@doe.com> 1485806449 -0800\n" +
+            "\n" +
+            "author 1234567890 +0000\n").bytes)
+
+        when:
+        def date = new RevisionDateProvider(runner, objects).getDate("v1.0.0")
+
+        then:
+        date == DateUtil.parseDate("2017-01-29 08:14:09 -0800")
+        0 * runner._
+    }
+
+    def "uses git log when commit object is not available"() {
+        def objects = Mock(GitCatFileSession)
+        objects.read("v1.0.0^{commit}") >> null
+        runner.run("git", "log", "--pretty=%ad", "--date=iso", "v1.0.0", "-n", "1") >> "2017-01-29 08:14:09 -0800"
+
+        expect:
+        DateUtil.formatDate(new RevisionDateProvider(runner, objects).getDate("v1.0.0")) == "2017-01-29"
+    }
+
     def "fails if revision number is incorrect what causes git call to fail"() {
         runner.run("git", "log", "--pretty=%ad", "--date=iso", "v1.0.0", "-n", "1") >> "fatal: ambiguous argument 'v1.0.0'"
 
@@ -0,0 +1,23 @@
+package org.shipkit.internal.util
+
+import spock.lang.Specification
+
+class HashUtilTest extends Specification {
+
+    def "computes sha256 of text"() {
+        expect:
+        HashUtil.sha256("") == "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855"
+        HashUtil.sha256("abc") == "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad"
+    }
+
+    def "computes sha256 of stream"() {
+        expect:
+        HashUtil.sha256(new ByteArrayInputStream("abc".bytes)) == HashUtil.sha256("abc")
+        HashUtil.sha256(new ByteArrayInputStream(("x" * 100000).bytes)) == HashUtil.sha256("x" * 100000)
+    }
+
+    def "encodes bytes as hex"() {
+        expect:
+        HashUtil.toHex([0, 15, 16, -1] as byte[]) == "000f10ff"
+    }
+}
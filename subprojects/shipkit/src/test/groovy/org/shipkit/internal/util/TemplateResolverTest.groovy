@@ -31,6 +31,45 @@ class TemplateResolverTest extends Specification {
         resolver.resolve() == output
     }
 
+    def "should resolve template to appendable" () {
+        given:
+        def sb = new StringBuilder("existing ")
+
+        when:
+        new TemplateResolver("@a@ and @b@").withProperty("a", "x").withProperty("b", "y").resolve(sb)
+
+        then:
+        sb.toString() == "existing x and y"
+    }
+
+    def "should resolve the same template with different properties" () {
+        expect:
+        new TemplateResolver(input).withProperty("buildNo", "1").resolve().contains("buildNo = 1")
+        new TemplateResolver(input).withProperty("buildNo", "2").resolve().contains("buildNo = 2")
+    }
+
+    def "should keep unknown expressions and stray delimiters" () {
+        expect:
+        new TemplateResolver(template).withProperty("a", "x").resolve() == result
+
+        where:
+        template         | result
+        ""               | ""
+        "@"              | "@"
+        "@@"             | "@@"
+        "@a"             | "@a"
+        "@a@"            | "x"
+        "@@a@"           | "@x"
+        "@b@a@"          | "@bx"
+        "@a@a@"          | "xa@"
+        "me@mail @a@ @b" | "me@mail x @b"
+    }
+
+    def "should not resolve expressions in values" () {
+        expect:
+        new TemplateResolver("@a@").withProperty("a", "@a@").resolve() == "@a@"
+    }
+
     def "should fail on null key" () {
         given:
         def resolver = new TemplateResolver("test")
@@ -54,4 +93,18 @@ class TemplateResolverTest extends Specification {
         def ex = thrown(IllegalArgumentException)
         ex.message == "value cannot be null."
     }
+
+    def "should keep only recently used compiled templates" () {
+        given:
+        def template = CompiledTemplate.compile("cached @a@")
+
+        expect:
+        CompiledTemplate.compile("cached @a@").is(template)
+
+        when:
+        (0..CompiledTemplate.CACHE_SIZE).each { CompiledTemplate.compile("other @a@ " + it) }
+
+        then:
+        !CompiledTemplate.compile("cached @a@").is(template)
+    }
 }